@@ -0,0 +1,216 @@
+// Performance update: JMH benchmarks of the FinanceTracker calls the UI makes most, run by the benchmarks profile
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ * One ledger per parameter combination: size rows in the given storage
+ * backend over the given number of categories (a fifth of them income) and
+ * dates spread over spreadDays from 2015-01-01, with a spending limit on every
+ * expense category. The queries look at the month and the category in the
+ * middle of the data, so they find rows at any spread. Save and load write
+ * and read a JSON file in a temp directory; they get fewer iterations, as they
+ * take seconds at 10M rows. The readWrite group runs three readers against a
+ * writer adding and removing a row. LedgerPersistenceBenchmark covers the
+ * journal, binary snapshots and bulk import. See the README for the command
+ * line, and for narrowing the parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FinanceTrackerHotPathsBenchmark {
+    private static final LocalDate BASE = LocalDate.of(2015, 1, 1);
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"10", "100"})
+    public int categories;
+
+    @Param({"30", "365", "3650"})
+    public int spreadDays;
+
+    @Param({"LIST", "COLUMNAR"})
+    public FinanceTracker.StorageMode storage;
+
+    private FinanceTracker tracker;
+    private Category category;
+    private YearMonth month;
+    private LocalDate monthStart;
+    private LocalDate monthEnd;
+    private Path directory;
+    private Path saved;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tracker = new FinanceTracker(storage);
+        Random random = new Random(42);
+        Category[] all = new Category[categories];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = new Category("Category " + i, i % 5 == 0 ? CategoryType.INCOME : CategoryType.EXPENSE);
+            tracker.addCategory(all[i]);
+            if (all[i].getType() == CategoryType.EXPENSE) {
+                tracker.setSpendingLimit(all[i], 5_000);
+            }
+        }
+        List<Transaction> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Category cat = all[random.nextInt(all.length)];
+            rows.add(new Transaction("Transaction " + i, (random.nextInt(100_000) + 1) / 100.0,
+                BASE.plusDays(random.nextInt(spreadDays)), TransactionType.valueOf(cat.getType().name()), cat));
+        }
+        tracker.addTransactions(rows);
+
+        category = all[all.length / 2 + 1];
+        monthStart = BASE.plusDays(spreadDays / 2).withDayOfMonth(1);
+        month = YearMonth.from(monthStart);
+        monthEnd = month.atEndOfMonth();
+
+        directory = Files.createTempDirectory("finance-jmh");
+        saved = directory.resolve("saved.json");
+        target = directory.resolve("target.json");
+        tracker.saveToFile(saved.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public FinanceSummary monthlySummary() {
+        return tracker.getMonthlySummary(month);
+    }
+
+    @Benchmark
+    public List<Transaction> filterMonthAndCategory() {
+        return tracker.filterTransactions(monthStart, monthEnd, category);
+    }
+
+    @Benchmark
+    public double currentBalance() {
+        return tracker.getCurrentBalance();
+    }
+
+    @Benchmark
+    public List<SpendingLimit> checkSpendingLimits() {
+        tracker.checkSpendingLimits();
+        return tracker.getSpendingLimits();
+    }
+
+    @Benchmark
+    public long totalBetween() {
+        return tracker.getTotalBetweenCents(monthStart, monthEnd.plusMonths(2), TransactionType.EXPENSE)
+            + tracker.getTotalBetweenCents(monthStart, monthEnd.plusMonths(2), category);
+    }
+
+    @Benchmark
+    public long balanceAsOf() {
+        return tracker.getBalanceAsOfCents(monthEnd);
+    }
+
+    @Benchmark
+    public List<Transaction> topTenOfAYearByDate() {
+        return tracker.query().between(monthStart, monthStart.plusYears(1)).inCategories(category)
+            .amountBetween(100.0, null).orderBy(TransactionQuery.Order.DATE_DESCENDING).limit(10).list();
+    }
+
+    @Benchmark
+    public List<Transaction> topTenExpensesOfAMonthByAmount() {
+        return tracker.query().between(monthStart, monthEnd).ofType(TransactionType.EXPENSE)
+            .orderBy(TransactionQuery.Order.AMOUNT_DESCENDING).limit(10).list();
+    }
+
+    @Benchmark
+    public long countOfACategory() {
+        return tracker.query().between(monthStart, monthStart.plusYears(1)).inCategories(category).count();
+    }
+
+    // What opening the Transactions table costs: the count plus one page of rows
+    @Benchmark
+    public List<Transaction> openCursorFirstPage() {
+        return tracker.query().orderBy(TransactionQuery.Order.DATE_DESCENDING).cursor()
+            .page(0, PagedTransactionList.PAGE_SIZE);
+    }
+
+    // The index is built on the first search, during warmup
+    @Benchmark
+    public List<Transaction> searchWords() {
+        return tracker.searchTransactions("transaction 42", 50);
+    }
+
+    @Benchmark
+    public List<Transaction> searchWithATypo() {
+        return tracker.searchTransactions("transacton", 50);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public FinanceSummary readWriteReaders() {
+        return tracker.getMonthlySummary(month);
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void readWriteWriter() {
+        Transaction row = new Transaction("Concurrent", 1, monthStart, TransactionType.EXPENSE, category);
+        tracker.addTransaction(row);
+        tracker.removeTransaction(row);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, batchSize = 1)
+    @Measurement(iterations = 3, batchSize = 1)
+    @BenchmarkMode(Mode.SingleShotTime)
+    public Path saveToFile() {
+        tracker.saveToFile(target.toString());
+        return target;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, batchSize = 1)
+    @Measurement(iterations = 3, batchSize = 1)
+    @BenchmarkMode(Mode.SingleShotTime)
+    public FinanceTracker loadFromFile() {
+        FinanceTracker loaded = new FinanceTracker(storage);
+        loaded.loadFromFile(saved.toString());
+        return loaded;
+    }
+}
@@ -0,0 +1,118 @@
+// Performance update: JMH benchmark of the heap each storage backend retains, run by the benchmarks profile
+package com.example;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * -prof gc reports what an operation allocates, not what a backend keeps.
+ * Each invocation here builds a ledger of size rows in the given storage
+ * backend, and the heap used after a full GC, against the heap used before,
+ * is reported next to the time: retainedMB and retainedBytesPerRow. The
+ * rows are created in the setup, after the first measure, so the list
+ * backend is charged for its Transaction objects, as it keeps them, and the
+ * columnar one only for its columns. The GCs run outside the timed part.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, batchSize = 1)
+@Measurement(iterations = 3, batchSize = 1)
+@Fork(1)
+public class LedgerMemoryBenchmark {
+    private static final LocalDate BASE = LocalDate.of(2015, 1, 1);
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"LIST", "COLUMNAR"})
+    public FinanceTracker.StorageMode storage;
+
+    private Category[] categories;
+    private List<Transaction> rows;
+    private FinanceTracker built;
+    private long baseline;
+
+    // Reported per iteration; each iteration is one invocation
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public double retainedMB;
+        public double retainedBytesPerRow;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedMB = 0;
+            retainedBytesPerRow = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        categories = new Category[10];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = new Category("Category " + i, i < 2 ? CategoryType.INCOME : CategoryType.EXPENSE);
+        }
+    }
+
+    // Fresh rows each time: the list backend keeps the objects it is given
+    @Setup(Level.Invocation)
+    public void settle() {
+        built = null;
+        rows = null;
+        baseline = usedHeap();
+        Random random = new Random(42);
+        rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Category cat = categories[random.nextInt(categories.length)];
+            rows.add(new Transaction("Transaction " + i, (random.nextInt(100_000) + 1) / 100.0,
+                BASE.plusDays(i * 3650L / size), TransactionType.valueOf(cat.getType().name()), cat));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void measure(Heap heap) {
+        // The input list goes; whatever the backend kept of its rows stays reachable through built
+        rows = null;
+        long retained = usedHeap() - baseline;
+        heap.retainedMB = retained / 1e6;
+        heap.retainedBytesPerRow = retained / (double) size;
+        built = null;
+    }
+
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    public FinanceTracker build() {
+        FinanceTracker tracker = new FinanceTracker(storage);
+        for (Category category : categories) {
+            tracker.addCategory(category);
+        }
+        tracker.addTransactions(rows);
+        built = tracker;
+        return tracker;
+    }
+}
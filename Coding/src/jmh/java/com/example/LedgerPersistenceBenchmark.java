@@ -0,0 +1,150 @@
+// Performance update: JMH benchmarks of journaled saves, snapshots and bulk import, run by the benchmarks profile
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/*
+ * A ledger of size rows over ten categories and ten years, saved once as
+ * compact JSON and once as a binary snapshot, plus a journaled copy. The
+ * journaled save adds one row and saves, so it shows what a save costs per
+ * change, compactions included. captureSnapshot is what an autosave without
+ * a journal costs the thread that owns the tracker. Loads and imports start
+ * from a fresh tracker each time and run single-shot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, batchSize = 1)
+@Measurement(iterations = 3, batchSize = 1)
+@Fork(1)
+public class LedgerPersistenceBenchmark {
+    private static final LocalDate BASE = LocalDate.of(2015, 1, 1);
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Category[] categories;
+    private List<Transaction> history;
+    private FinanceTracker journaled;
+    private Path directory;
+    private Path json;
+    private Path binary;
+    private Path journalTarget;
+    private int added;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        categories = new Category[10];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = new Category("Category " + i, i < 2 ? CategoryType.INCOME : CategoryType.EXPENSE);
+        }
+        history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Category cat = categories[random.nextInt(categories.length)];
+            history.add(new Transaction("Transaction " + i, (random.nextInt(100_000) + 1) / 100.0,
+                BASE.plusDays(i * 3650L / size), TransactionType.valueOf(cat.getType().name()), cat));
+        }
+        FinanceTracker tracker = newTracker();
+        tracker.addTransactions(history);
+
+        directory = Files.createTempDirectory("finance-jmh");
+        json = directory.resolve("ledger.json");
+        binary = directory.resolve("ledger.bin");
+        journalTarget = directory.resolve("journaled.json");
+        tracker.saveToFile(json.toString(), true);
+        tracker.saveBinarySnapshot(binary.toString());
+        tracker.saveToFile(journalTarget.toString(), true);
+        journaled = new FinanceTracker();
+        journaled.openJournal(journalTarget.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journaled.closeJournal(true);
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private FinanceTracker newTracker() {
+        FinanceTracker tracker = new FinanceTracker();
+        for (Category category : categories) {
+            tracker.addCategory(category);
+        }
+        tracker.setSpendingLimit(categories[2], 1000);
+        return tracker;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public FinanceTracker journaledSaveOfOneChange() {
+        journaled.addTransaction(new Transaction("Added " + added++, 1, BASE, TransactionType.EXPENSE, null));
+        journaled.saveToFile(journalTarget.toString());
+        return journaled;
+    }
+
+    @Benchmark
+    public LedgerSnapshot captureSnapshot() throws IOException {
+        LedgerSnapshot snapshot = journaled.captureSnapshot(json);
+        journaled.snapshotFinished(snapshot, false);
+        return snapshot;
+    }
+
+    @Benchmark
+    public FinanceTracker loadCompactJson() {
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(json.toString());
+        return loaded;
+    }
+
+    @Benchmark
+    public FinanceTracker loadBinarySnapshot() {
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(binary.toString());
+        return loaded;
+    }
+
+    @Benchmark
+    public FinanceTracker importRowByRow() {
+        FinanceTracker tracker = newTracker();
+        for (Transaction transaction : history) {
+            tracker.addTransaction(transaction);
+        }
+        return tracker;
+    }
+
+    @Benchmark
+    public FinanceTracker importInBulk() {
+        FinanceTracker tracker = newTracker();
+        tracker.addTransactions(history);
+        return tracker;
+    }
+}
@@ -0,0 +1,136 @@
+// Performance update: JMH benchmark of the streaming loader's time and heap, run by the benchmarks profile
+package com.example;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Loads a saved ledger of size rows, 1M by default, as the app saves it
+ * (indented JSON), into the given storage backend. Next to the load time it
+ * reports, above the heap used after a full GC before the load: peakMB, the
+ * highest heap use sampled while loading, and retainedMB, what the loaded
+ * tracker keeps. A streaming load should peak near what it retains. fileMB
+ * is the size of the file read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, batchSize = 1)
+@Measurement(iterations = 3, batchSize = 1)
+@Fork(1)
+public class StreamingLoadBenchmark {
+    private static final LocalDate BASE = LocalDate.of(2015, 1, 1);
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"LIST", "COLUMNAR"})
+    public FinanceTracker.StorageMode storage;
+
+    private Path file;
+    private FinanceTracker loaded;
+    private long baseline;
+    private final AtomicLong peak = new AtomicLong();
+    private volatile boolean sampling;
+    private Thread sampler;
+
+    // Reported per iteration; each iteration is one invocation
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public double peakMB;
+        public double retainedMB;
+        public double fileMB;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            peakMB = 0;
+            retainedMB = 0;
+            fileMB = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        Category[] categories = new Category[10];
+        FinanceTracker tracker = new FinanceTracker();
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = new Category("Category " + i, i < 2 ? CategoryType.INCOME : CategoryType.EXPENSE);
+            tracker.addCategory(categories[i]);
+        }
+        tracker.setSpendingLimit(categories[2], 1000);
+        List<Transaction> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Category cat = categories[random.nextInt(categories.length)];
+            rows.add(new Transaction("Transaction " + i, (random.nextInt(100_000) + 1) / 100.0,
+                BASE.plusDays(i * 3650L / size), TransactionType.valueOf(cat.getType().name()), cat));
+        }
+        tracker.addTransactions(rows);
+        file = Files.createTempFile("finance-jmh", ".json");
+        tracker.saveToFile(file.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Setup(Level.Invocation)
+    public void startSampling() {
+        loaded = null;
+        baseline = LedgerMemoryBenchmark.usedHeap();
+        peak.set(baseline);
+        sampling = true;
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        sampler = new Thread(() -> {
+            while (sampling) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                Thread.onSpinWait();
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopSampling(Heap heap) throws InterruptedException, IOException {
+        sampling = false;
+        sampler.join();
+        heap.peakMB = (peak.get() - baseline) / 1e6;
+        heap.retainedMB = (LedgerMemoryBenchmark.usedHeap() - baseline) / 1e6;
+        heap.fileMB = Files.size(file) / 1e6;
+        loaded = null;
+    }
+
+    @Benchmark
+    public FinanceTracker loadFromFile() {
+        FinanceTracker tracker = new FinanceTracker(storage);
+        tracker.loadFromFile(file.toString());
+        loaded = tracker;
+        return tracker;
+    }
+}
@@ -0,0 +1,288 @@
+// Performance update: Debounced background autosave
+package com.example;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Marks the ledger dirty on every change and writes a snapshot once changes
+ * have paused for the debounce interval, or at the latest maxLatency after the
+ * first unsaved change. A burst of edits therefore costs one save.
+ *
+ * With a journal open for the target, the journal already holds every change,
+ * so a save only forces it to disk on a virtual thread, as saveToFile does,
+ * and the snapshot is rewritten only once the journal has grown; the cost of
+ * a save follows the size of the change. Without a journal, a snapshot is
+ * captured on the owner executor (the thread that mutates the tracker, e.g.
+ * Platform::runLater) and written on a virtual thread through a temp file and
+ * an atomic rename, so the owner only pays for copying the rows.
+ */
+public class AutosaveService implements AutoCloseable {
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_MAX_LATENCY = Duration.ofSeconds(30);
+
+    private final FinanceTracker tracker;
+    private final Path target;
+    private final Executor owner;
+    private final long debounceNanos;
+    private final long maxLatencyNanos;
+    private final Runnable listener = this::markDirty;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "autosave-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this
+    private boolean dirty;
+    private long firstChangeNanos;
+    private long lastChangeNanos;
+    private boolean timerPending;
+    private boolean saving;
+    private boolean closed;
+    private long saves;
+    private long skipped;
+    private long failures;
+    private long lastDurationNanos;
+    private long maxDurationNanos;
+    private long totalDurationNanos;
+
+    public AutosaveService(FinanceTracker tracker, Path target, Executor owner) {
+        this(tracker, target, owner, DEFAULT_DEBOUNCE, DEFAULT_MAX_LATENCY);
+    }
+
+    public AutosaveService(FinanceTracker tracker, Path target, Executor owner,
+                           Duration debounce, Duration maxLatency) {
+        if (debounce.isNegative() || maxLatency.compareTo(debounce) < 0) {
+            throw new IllegalArgumentException("Need 0 <= debounce <= maxLatency, got " + debounce + " and " + maxLatency);
+        }
+        this.tracker = tracker;
+        this.target = target;
+        this.owner = owner;
+        this.debounceNanos = debounce.toNanos();
+        this.maxLatencyNanos = maxLatency.toNanos();
+        owner.execute(() -> tracker.addChangeListener(listener));
+    }
+
+    // Called on the owner thread for every mutation
+    private synchronized void markDirty() {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (dirty) {
+            // Folded into the save that is already due
+            skipped++;
+        } else {
+            dirty = true;
+            firstChangeNanos = now;
+        }
+        lastChangeNanos = now;
+        if (!timerPending && !saving) {
+            schedule(debounceNanos);
+        }
+    }
+
+    private void schedule(long delayNanos) {
+        timerPending = true;
+        timer.schedule(this::timerFired, Math.max(delayNanos, 0), TimeUnit.NANOSECONDS);
+    }
+
+    // A burst keeps moving the debounce deadline, so the timer re-arms itself instead of being cancelled per change
+    private synchronized void timerFired() {
+        timerPending = false;
+        if (closed || !dirty || saving) {
+            return;
+        }
+        long due = Math.min(lastChangeNanos + debounceNanos, firstChangeNanos + maxLatencyNanos);
+        long wait = due - System.nanoTime();
+        if (wait > 0) {
+            schedule(wait);
+            return;
+        }
+        saving = true;
+        Thread.ofVirtual().name("autosave").start(this::save);
+    }
+
+    private void save() {
+        synchronized (this) {
+            if (closed) {
+                saving = false;
+                notifyAll();
+                return;
+            }
+            // Changes from here on belong to the next save
+            dirty = false;
+        }
+        long start = System.nanoTime();
+        try {
+            if (tracker.checkpointJournal(target)) {
+                finished(System.nanoTime() - start, true, false);
+                return;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            finished(0, false, true);
+            return;
+        }
+        owner.execute(this::captureAndWrite);
+    }
+
+    private void captureAndWrite() {
+        LedgerSnapshot snapshot;
+        synchronized (this) {
+            if (closed) {
+                saving = false;
+                notifyAll();
+                return;
+            }
+            // Changes from here on belong to the next save
+            dirty = false;
+        }
+        try {
+            snapshot = tracker.captureSnapshot(target);
+        } catch (IOException e) {
+            e.printStackTrace();
+            finished(0, false, true);
+            return;
+        }
+        Thread.ofVirtual().name("autosave").start(() -> {
+            long start = System.nanoTime();
+            boolean written = false;
+            boolean failed = false;
+            try {
+                // False when a save on the owner thread rewrote the file meanwhile
+                written = snapshot.write();
+            } catch (IOException e) {
+                failed = true;
+                e.printStackTrace();
+            }
+            long duration = System.nanoTime() - start;
+            boolean ok = written;
+            boolean error = failed;
+            owner.execute(() -> {
+                tracker.snapshotFinished(snapshot, ok);
+                finished(duration, ok, error);
+            });
+        });
+    }
+
+    private synchronized void finished(long durationNanos, boolean written, boolean failed) {
+        saving = false;
+        if (written) {
+            saves++;
+            lastDurationNanos = durationNanos;
+            maxDurationNanos = Math.max(maxDurationNanos, durationNanos);
+            totalDurationNanos += durationNanos;
+        }
+        if (failed) {
+            failures++;
+            // The changes are still unsaved; retry after another debounce interval
+            dirty = true;
+            firstChangeNanos = System.nanoTime();
+            lastChangeNanos = firstChangeNanos;
+        }
+        // Changes made while writing are saved after their own debounce
+        if (dirty && !closed && !timerPending) {
+            schedule(Math.min(lastChangeNanos + debounceNanos, firstChangeNanos + maxLatencyNanos) - System.nanoTime());
+        }
+        notifyAll();
+    }
+
+    // Saves pending changes now instead of waiting for the debounce
+    public synchronized void flush() {
+        if (dirty && !closed) {
+            firstChangeNanos = System.nanoTime() - maxLatencyNanos;
+            if (!timerPending && !saving) {
+                schedule(0);
+            }
+        }
+    }
+
+    // Waits until nothing is pending or being written; not from the owner thread, which completes saves
+    public synchronized boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (dirty || saving) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, left);
+        }
+        return true;
+    }
+
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    public synchronized Metrics getMetrics() {
+        return new Metrics(saves, skipped, failures, lastDurationNanos, maxDurationNanos, totalDurationNanos);
+    }
+
+    // Stops autosaving without a final save; a write in progress finishes but is not published over a closed journal
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        timer.shutdownNow();
+        owner.execute(() -> tracker.removeChangeListener(listener));
+    }
+
+    public static class Metrics {
+        private final long saves;
+        private final long skipped;
+        private final long failures;
+        private final long lastDurationNanos;
+        private final long maxDurationNanos;
+        private final long totalDurationNanos;
+
+        Metrics(long saves, long skipped, long failures, long lastDurationNanos,
+                long maxDurationNanos, long totalDurationNanos) {
+            this.saves = saves;
+            this.skipped = skipped;
+            this.failures = failures;
+            this.lastDurationNanos = lastDurationNanos;
+            this.maxDurationNanos = maxDurationNanos;
+            this.totalDurationNanos = totalDurationNanos;
+        }
+
+        public long getSaves() {
+            return saves;
+        }
+
+        // Changes that did not need a save of their own because one was already pending
+        public long getSkipped() {
+            return skipped;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public Duration getLastDuration() {
+            return Duration.ofNanos(lastDurationNanos);
+        }
+
+        public Duration getMaxDuration() {
+            return Duration.ofNanos(maxDurationNanos);
+        }
+
+        public Duration getAverageDuration() {
+            return saves == 0 ? Duration.ZERO : Duration.ofNanos(totalDurationNanos / saves);
+        }
+
+        @Override
+        public String toString() {
+            return saves + " saves, " + skipped + " coalesced changes, " + failures + " failures, last "
+                + getLastDuration().toMillis() + " ms, max " + getMaxDuration().toMillis() + " ms";
+        }
+    }
+}
@@ -0,0 +1,187 @@
+// Performance update: Runs the UI's summaries, queries and file work off the JavaFX Application Thread
+package com.example;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+/*
+ * Each request runs on its own virtual thread; its result, progress and
+ * failure are handed to the UI executor (Platform::runLater in the app).
+ * Requests carry a key such as "summary" or "table", and a new request
+ * cancels the running one with the same key: that one is interrupted, and
+ * whatever it still produces is dropped, so a stale month or filter never
+ * overwrites a newer one. File work goes through submitInOrder instead:
+ * interrupting a save or a load closes the channel it is writing or reading,
+ * the journal's included, so those requests are never interrupted. A new one
+ * waits for the one before it with the same key, and each delivers its own
+ * result. submit, cancel and the properties belong to the UI thread; work
+ * must only read thread-safe state, such as FinanceTracker.
+ */
+class BackgroundTasks implements AutoCloseable {
+    // Work done off the UI thread; progress takes values from 0 to 1
+    interface Work<T> {
+        T run(DoubleConsumer progress) throws Exception;
+    }
+
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Executor ui;
+    private final Consumer<Throwable> onError;
+    // Latest request per key; touched on the UI thread only
+    private final Map<String, Request> current = new HashMap<>();
+    private final ReadOnlyBooleanWrapper running = new ReadOnlyBooleanWrapper(false);
+    // Progress of the only running request that reports any, else -1 (indeterminate)
+    private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(-1);
+
+    private static final class Request {
+        final String key;
+        // Submitted in order: never interrupted, and delivered even once a newer request replaced it
+        final boolean ordered;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean cancelled;
+        Future<?> future;
+        double progress = -1;
+        // Last fraction handed to the UI, written by the worker only
+        double posted = -1;
+
+        Request(String key, boolean ordered) {
+            this.key = key;
+            this.ordered = ordered;
+        }
+    }
+
+    BackgroundTasks(Executor ui, Consumer<Throwable> onError) {
+        this.ui = ui;
+        this.onError = onError;
+    }
+
+    <T> void submit(String key, Work<T> work, Consumer<? super T> onDone) {
+        Request request = new Request(key, false);
+        cancel(key);
+        start(request, null, work, onDone);
+    }
+
+    // For saves and loads: runs after the previous request with the same key, which keeps running
+    <T> void submitInOrder(String key, Work<T> work, Consumer<? super T> onDone) {
+        Request previous = current.get(key);
+        if (previous != null && !previous.ordered) {
+            cancel(key);
+            previous = null;
+        }
+        start(new Request(key, true), previous, work, onDone);
+    }
+
+    private <T> void start(Request request, Request previous, Work<T> work, Consumer<? super T> onDone) {
+        current.put(request.key, request);
+        updateState();
+        request.future = workers.submit(() -> {
+            try {
+                if (previous != null) {
+                    previous.done.await();
+                }
+                T value = work.run(fraction -> {
+                    // At most a hundred handoffs per request
+                    if (fraction - request.posted >= 0.01 || fraction >= 1) {
+                        request.posted = fraction;
+                        ui.execute(() -> {
+                            request.progress = fraction;
+                            updateState();
+                        });
+                    }
+                });
+                ui.execute(() -> finish(request, () -> onDone.accept(value)));
+            } catch (Throwable e) {
+                ui.execute(() -> finish(request, () -> onError.accept(e)));
+            } finally {
+                request.done.countDown();
+            }
+        });
+    }
+
+    // Drops the result of the latest request with the key; a request submitted in order still runs to the end
+    void cancel(String key) {
+        Request request = current.remove(key);
+        if (request != null) {
+            request.cancelled = true;
+            if (!request.ordered) {
+                request.future.cancel(true);
+            }
+            updateState();
+        }
+    }
+
+    private void finish(Request request, Runnable action) {
+        if (request.cancelled) {
+            return;
+        }
+        if (current.get(request.key) == request) {
+            current.remove(request.key);
+            updateState();
+        } else if (!request.ordered) {
+            return;
+        }
+        action.run();
+    }
+
+    private void updateState() {
+        running.set(!current.isEmpty());
+        int reporting = 0;
+        double shown = -1;
+        for (Request request : current.values()) {
+            if (request.progress >= 0) {
+                reporting++;
+                shown = request.progress;
+            }
+        }
+        progress.set(reporting == 1 ? shown : -1);
+    }
+
+    boolean isRunning(String key) {
+        return current.containsKey(key);
+    }
+
+    ReadOnlyBooleanProperty runningProperty() {
+        return running.getReadOnlyProperty();
+    }
+
+    ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    // Interrupts the queries and waits for the saves and loads still running
+    @Override
+    public void close() {
+        List<Request> ordered = new ArrayList<>();
+        for (Request request : current.values()) {
+            request.cancelled = true;
+            if (request.ordered) {
+                ordered.add(request);
+            } else {
+                request.future.cancel(true);
+            }
+        }
+        current.clear();
+        updateState();
+        workers.shutdown();
+        try {
+            // The latest request of a key finishes after the ones before it
+            for (Request request : ordered) {
+                request.done.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -7,6 +7,8 @@ import java.util.Objects;
 public class Category {
     private String name;
     private CategoryType type; // EXPENSE or INCOME
+    // Performance update: Cached hash, cleared when a field changes, so map lookups do not rehash the name
+    private int hash;
 
     public Category(String name, CategoryType type) {
         this.name = name;
@@ -14,10 +16,10 @@ public class Category {
     }
 
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { this.name = name; hash = 0; }
 
     public CategoryType getType() { return type; }
-    public void setType(CategoryType type) { this.type = type; }
+    public void setType(CategoryType type) { this.type = type; hash = 0; }
 
     // JavaFX update: Add equals and hashCode for proper category comparison
     @Override
@@ -30,6 +32,11 @@ public class Category {
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, type);
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(name, type);
+            hash = h;
+        }
+        return h;
     }
 }
\ No newline at end of file
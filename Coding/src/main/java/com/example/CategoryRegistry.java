@@ -0,0 +1,74 @@
+// Performance update: Dense integer ids for the categories a store refers to
+package com.example;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/*
+ * Interns category objects and numbers them densely from 1, with id 0 standing
+ * for "no category". Resolving an id is an array read, so rows can hold ids and
+ * per-category totals can live in arrays indexed by id. Interning goes by
+ * identity: categories are mutable and a rename must keep the id, and the
+ * identity hash never touches the name. Ids are not reused while the registry
+ * lives.
+ */
+class CategoryRegistry {
+    static final int NONE = 0;
+
+    private Category[] byId = new Category[16];
+    private int size = 1;
+    private final Map<Category, Integer> ids = new IdentityHashMap<>();
+
+    // Returns the category's id, assigning the next one on first sight
+    int intern(Category category) {
+        if (category == null) {
+            return NONE;
+        }
+        Integer id = ids.get(category);
+        if (id == null) {
+            if (size == byId.length) {
+                byId = Arrays.copyOf(byId, size * 2);
+            }
+            id = size++;
+            byId[id] = category;
+            ids.put(category, id);
+        }
+        return id;
+    }
+
+    Category get(int id) {
+        return byId[id];
+    }
+
+    // One past the highest id handed out
+    int size() {
+        return size;
+    }
+
+    // Marks the ids of every category equal to the given one, for filters that compare by value
+    boolean[] idsEqualTo(Category category) {
+        boolean[] matches = new boolean[size];
+        if (category == null) {
+            matches[NONE] = true;
+            return matches;
+        }
+        for (int id = 1; id < size; id++) {
+            matches[id] = category.equals(byId[id]);
+        }
+        return matches;
+    }
+
+    // Same ids, categories mapped through the function
+    CategoryRegistry copy(UnaryOperator<Category> categoryCopy) {
+        CategoryRegistry copy = new CategoryRegistry();
+        copy.byId = new Category[byId.length];
+        for (int id = 1; id < size; id++) {
+            copy.byId[id] = categoryCopy.apply(byId[id]);
+            copy.ids.put(copy.byId[id], id);
+        }
+        copy.size = size;
+        return copy;
+    }
+}
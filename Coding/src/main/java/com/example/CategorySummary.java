@@ -1,33 +1,96 @@
 // Prompt 2: CategorySummary class for table display
 package com.example;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
 // JavaFX update: Class to hold category summary data for table display
+// Performance update: Holds exact numbers; the summary table's cells format them as they are shown
 public class CategorySummary {
-    private String categoryName;
-    private String type;
-    private String total;
-    private String spendingLimit;
-    private String usagePercentage;
-    
-    public CategorySummary(String categoryName, String type, String total, String spendingLimit, String usagePercentage) {
-        this.categoryName = categoryName;
-        this.type = type;
-        this.total = total;
-        this.spendingLimit = spendingLimit;
-        this.usagePercentage = usagePercentage;
+    private final Category category;
+    // As shown; a rename changes the category object in place, so the row keeps the name it was built with
+    private final String categoryName;
+    private final long totalCents;
+    // Null when the category has no spending limit
+    private final Long spendingLimitCents;
+
+    public CategorySummary(Category category, long totalCents, Long spendingLimitCents) {
+        this.category = category;
+        this.categoryName = category.getName();
+        this.totalCents = totalCents;
+        this.spendingLimitCents = spendingLimitCents;
     }
-    
+
     // Getters for table display
+    public Category getCategory() { return category; }
     public String getCategoryName() { return categoryName; }
-    public String getType() { return type; }
-    public String getTotal() { return total; }
-    public String getSpendingLimit() { return spendingLimit; }
-    public String getUsagePercentage() { return usagePercentage; }
-    
-    // Setters for table updates
-    public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
-    public void setType(String type) { this.type = type; }
-    public void setTotal(String total) { this.total = total; }
-    public void setSpendingLimit(String spendingLimit) { this.spendingLimit = spendingLimit; }
-    public void setUsagePercentage(String usagePercentage) { this.usagePercentage = usagePercentage; }
-} 
\ No newline at end of file
+    public CategoryType getType() { return category.getType(); }
+    public long getTotalCents() { return totalCents; }
+    public double getTotal() { return Money.toAmount(totalCents); }
+    public Long getSpendingLimitCents() { return spendingLimitCents; }
+    public Double getSpendingLimit() { return spendingLimitCents != null ? Money.toAmount(spendingLimitCents) : null; }
+
+    // Total as a percentage of the limit; null without a positive limit
+    public Double getUsagePercentage() {
+        if (spendingLimitCents == null || spendingLimitCents <= 0) {
+            return null;
+        }
+        return totalCents * 100.0 / spendingLimitCents;
+    }
+
+    // Performance update: One row per category of the month's maintained breakdown, instead of regrouping
+    // the month's transactions; uncategorized amounts have no row
+    static List<CategorySummary> rowsOf(FinanceSummary month, Function<Category, SpendingLimit> limits) {
+        List<CategorySummary> rows = new ArrayList<>();
+        for (Map.Entry<Category, Double> entry : month.getCategoryBreakdown().entrySet()) {
+            Category category = entry.getKey();
+            if (category != null) {
+                SpendingLimit limit = limits.apply(category);
+                rows.add(new CategorySummary(category, Money.toCents(entry.getValue()),
+                    limit != null ? limit.getMonthlyLimitCents() : null));
+            }
+        }
+        rows.sort(Comparator.comparing(CategorySummary::getCategoryName).thenComparing(CategorySummary::getType));
+        return rows;
+    }
+
+    // Performance update: Keyed diff of the shown rows against fresh ones, by category. A row whose numbers
+    // changed is replaced in place, a new category is appended and a vanished one removed; rows that are
+    // unchanged are left alone, whatever order the table has sorted them into. Returns the rows touched.
+    static int applyTo(List<CategorySummary> shown, List<CategorySummary> fresh) {
+        Map<Category, CategorySummary> byCategory = new HashMap<>();
+        for (CategorySummary row : fresh) {
+            byCategory.put(row.category, row);
+        }
+        int touched = 0;
+        for (int i = shown.size() - 1; i >= 0; i--) {
+            CategorySummary old = shown.get(i);
+            CategorySummary row = byCategory.remove(old.category);
+            if (row == null) {
+                shown.remove(i);
+                touched++;
+            } else if (!row.sameValues(old)) {
+                shown.set(i, row);
+                touched++;
+            }
+        }
+        // What is left are categories not shown yet, added in the order of fresh
+        for (CategorySummary row : fresh) {
+            if (byCategory.remove(row.category) != null) {
+                shown.add(row);
+                touched++;
+            }
+        }
+        return touched;
+    }
+
+    private boolean sameValues(CategorySummary other) {
+        return totalCents == other.totalCents && Objects.equals(spendingLimitCents, other.spendingLimitCents)
+            && categoryName.equals(other.categoryName);
+    }
+}
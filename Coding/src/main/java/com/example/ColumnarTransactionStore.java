@@ -0,0 +1,222 @@
+// Performance update: Struct-of-arrays backend for large ledgers
+package com.example;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/*
+ * Each transaction is a row across primitive columns instead of a heap object:
+ * epoch day (int), amount in cents (long), type (byte), category code (int) and
+ * description. Categories are held once in the store's registry and referenced
+ * by id. Transactions handed out by get() are materialized copies carrying the
+ * row id, so edits must go through FinanceTracker.updateTransaction. Those
+ * copies cannot be told about new ids, so removed rows keep their slots (with
+ * no description and a zero amount) until the store is reloaded.
+ */
+class ColumnarTransactionStore implements TransactionStore {
+    private static final byte NO_TYPE = -1;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private int[] epochDays;
+    private long[] amountCents;
+    private byte[] types;
+    private int[] categoryIds;
+    private String[] descriptions;
+    private BitSet removed = new BitSet();
+    private int rowCount = 0;
+    private int live = 0;
+
+    // Performance update: Category ids come from the registry rather than a private dictionary
+    private CategoryRegistry categories = new CategoryRegistry();
+
+    ColumnarTransactionStore() {
+        allocate(1024);
+    }
+
+    private void allocate(int capacity) {
+        epochDays = new int[capacity];
+        amountCents = new long[capacity];
+        types = new byte[capacity];
+        categoryIds = new int[capacity];
+        descriptions = new String[capacity];
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > epochDays.length) {
+            int capacity = Math.max(required, epochDays.length * 2);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            types = Arrays.copyOf(types, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+        }
+    }
+
+    private void write(int id, Transaction transaction) {
+        epochDays[id] = transaction.getDate() != null ? (int) transaction.getDate().toEpochDay() : NO_DATE;
+        amountCents[id] = transaction.getAmountCents();
+        types[id] = transaction.getType() != null ? (byte) transaction.getType().ordinal() : NO_TYPE;
+        categoryIds[id] = categories.intern(transaction.getCategory());
+        descriptions[id] = transaction.getDescription();
+    }
+
+    @Override
+    public int add(Transaction transaction) {
+        ensureCapacity(rowCount + 1);
+        int id = rowCount++;
+        write(id, transaction);
+        transaction.setId(id);
+        live++;
+        return id;
+    }
+
+    // Appends a row straight from column values
+    int addRow(int epochDay, long cents, TransactionType type, Category category, String description) {
+        ensureCapacity(rowCount + 1);
+        int id = rowCount++;
+        epochDays[id] = epochDay;
+        amountCents[id] = cents;
+        types[id] = type != null ? (byte) type.ordinal() : NO_TYPE;
+        categoryIds[id] = categories.intern(category);
+        descriptions[id] = description;
+        live++;
+        return id;
+    }
+
+    @Override
+    public TransactionStore copyRows(UnaryOperator<Category> categoryCopy) {
+        ColumnarTransactionStore copy = new ColumnarTransactionStore();
+        copy.epochDays = Arrays.copyOf(epochDays, rowCount);
+        copy.amountCents = Arrays.copyOf(amountCents, rowCount);
+        copy.types = Arrays.copyOf(types, rowCount);
+        copy.categoryIds = Arrays.copyOf(categoryIds, rowCount);
+        copy.descriptions = Arrays.copyOf(descriptions, rowCount);
+        copy.removed = (BitSet) removed.clone();
+        copy.rowCount = rowCount;
+        copy.live = live;
+        // Ids stay valid because the copied registry keeps them
+        copy.categories = categories.copy(categoryCopy);
+        return copy;
+    }
+
+    @Override
+    public void update(int id, Transaction transaction) {
+        write(id, transaction);
+    }
+
+    @Override
+    public void remove(int id) {
+        if (!removed.get(id)) {
+            removed.set(id);
+            descriptions[id] = null;
+            // Removed rows add nothing, so the summation kernels need not consult the bitset
+            amountCents[id] = 0;
+            live--;
+        }
+    }
+
+    @Override
+    public boolean contains(Transaction transaction) {
+        // Materialized copies cannot be compared by identity, so the row its id names must hold its fields;
+        // a transaction from another store, or one edited outside the tracker, is not this row
+        int id = transaction.getId();
+        if (id < 0 || id >= rowCount || removed.get(id)) {
+            return false;
+        }
+        LocalDate date = transaction.getDate();
+        TransactionType type = transaction.getType();
+        return epochDays[id] == (date != null ? (int) date.toEpochDay() : NO_DATE)
+            && amountCents[id] == transaction.getAmountCents()
+            && types[id] == (type != null ? (byte) type.ordinal() : NO_TYPE)
+            && Objects.equals(descriptions[id], transaction.getDescription())
+            && Objects.equals(category(id), transaction.getCategory());
+    }
+
+    @Override
+    public boolean isLive(int id) {
+        return !removed.get(id);
+    }
+
+    @Override
+    public int size() {
+        return live;
+    }
+
+    @Override
+    public int capacity() {
+        return rowCount;
+    }
+
+    @Override
+    public Transaction get(int id) {
+        int day = epochDays[id];
+        Transaction t = new Transaction(descriptions[id], 0,
+            day != NO_DATE ? LocalDate.ofEpochDay(day) : null, type(id), category(id));
+        t.setAmountCents(amountCents[id]);
+        t.setId(id);
+        return t;
+    }
+
+    @Override
+    public int epochDay(int id) {
+        return epochDays[id];
+    }
+
+    @Override
+    public long amountCents(int id) {
+        return amountCents[id];
+    }
+
+    @Override
+    public long sumAmountCents() {
+        return AmountKernels.sum(amountCents, 0, rowCount);
+    }
+
+    @Override
+    public long sumAmountCents(TransactionType type) {
+        return AmountKernels.sumWhere(amountCents, types, (byte) type.ordinal(), 0, rowCount);
+    }
+
+    @Override
+    public TransactionType type(int id) {
+        byte type = types[id];
+        return type != NO_TYPE ? TYPES[type] : null;
+    }
+
+    @Override
+    public String description(int id) {
+        return descriptions[id];
+    }
+
+    @Override
+    public Category category(int id) {
+        return categories.get(categoryIds[id]);
+    }
+
+    @Override
+    public int categoryId(int id) {
+        return categoryIds[id];
+    }
+
+    @Override
+    public CategoryRegistry categoryRegistry() {
+        return categories;
+    }
+
+    @Override
+    public void setCategory(int id, Category category) {
+        categoryIds[id] = categories.intern(category);
+    }
+
+    @Override
+    public void clear() {
+        allocate(1024);
+        removed = new BitSet();
+        rowCount = 0;
+        live = 0;
+        categories = new CategoryRegistry();
+    }
+}
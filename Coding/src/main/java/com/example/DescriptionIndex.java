@@ -0,0 +1,366 @@
+// Performance update: Inverted index over transaction descriptions
+package com.example;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/*
+ * Descriptions are split into normalized tokens: lower case, accents removed,
+ * split at anything that is not a letter or digit. Each distinct token (term)
+ * gets an id and a posting list of the ascending row ids using it. Trigrams
+ * are indexed over the vocabulary, not the rows: each term's trigrams, with the
+ * term padded as "$term$", point at the term ids. A query term then resolves
+ * to matching vocabulary terms through a few trigram lists:
+ *
+ *  - three or more characters: every term containing it;
+ *  - one or two characters: every term starting with it;
+ *  - no such term: terms within one edit (two from eight characters on),
+ *    found by shared trigrams and confirmed by an edit distance check.
+ *
+ * Rows must match every query term and come back newest first. The rows are
+ * walked from the end of the postings of the most selective query term, and
+ * the other terms are checked per row: by binary search in their postings when
+ * they stand for a few vocabulary terms, otherwise against the row's own
+ * tokens. A query stops after the limit no matter how many rows match. Terms stay in the vocabulary
+ * after their last row is gone; FinanceTracker builds a fresh index after a
+ * load or compaction.
+ */
+class DescriptionIndex {
+    // A query term standing for more vocabulary terms is checked against the row's tokens instead
+    private static final int POSTING_CHECK_TERMS = 8;
+
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    // By term id, ascending row ids
+    private final List<IntList> postings = new ArrayList<>();
+    // Trigram of "$term$" to ascending term ids
+    private final Map<String, IntList> trigrams = new HashMap<>();
+    // First one and first two characters to ascending term ids
+    private final Map<String, IntList> prefixes = new HashMap<>();
+
+    void add(int row, String description) {
+        for (String token : tokens(description)) {
+            postings.get(termId(token)).addSorted(row);
+        }
+    }
+
+    void remove(int row, String description) {
+        for (String token : tokens(description)) {
+            Integer id = termIds.get(token);
+            if (id != null) {
+                postings.get(id).removeSorted(row);
+            }
+        }
+    }
+
+    private int termId(String term) {
+        Integer id = termIds.get(term);
+        if (id != null) {
+            return id;
+        }
+        int newId = terms.size();
+        termIds.put(term, newId);
+        terms.add(term);
+        postings.add(new IntList());
+        String padded = "$" + term + "$";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            IntList list = indexOf(trigrams, padded.substring(i, i + 3));
+            // A term repeating a trigram is listed once; its id is the newest, so it would be last
+            if (list.isEmpty() || list.get(list.size() - 1) != newId) {
+                list.add(newId);
+            }
+        }
+        indexOf(prefixes, term.substring(0, 1)).add(newId);
+        if (term.length() >= 2) {
+            indexOf(prefixes, term.substring(0, 2)).add(newId);
+        }
+        return newId;
+    }
+
+    private static IntList indexOf(Map<String, IntList> index, String key) {
+        return index.computeIfAbsent(key, k -> new IntList());
+    }
+
+    /*
+     * Row ids matching every token of the query, newest first, at most limit.
+     * descriptionOf reads a row's description, to check the other query terms.
+     */
+    IntList search(String query, int limit, IntFunction<String> descriptionOf) {
+        IntList result = new IntList();
+        if (limit <= 0) {
+            return result;
+        }
+        Match match = match(query);
+        IntSupplier candidates = match.candidates(true);
+        for (int row = candidates.getAsInt(); row >= 0 && result.size() < limit; row = candidates.getAsInt()) {
+            if (match.acceptsCandidate(row, descriptionOf)) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    Match match(String query) {
+        return new Match(tokens(query));
+    }
+
+    /*
+     * A parsed query: the vocabulary terms each query term stands for. Either
+     * walks the candidates, the postings of its most selective term, or tests
+     * rows found some other way, e.g. by TransactionQueryPlan through another
+     * index. A query without terms matches nothing.
+     */
+    final class Match {
+        // Per query term, ascending ids of the vocabulary terms it stands for
+        private final List<IntList> matchedTerms = new ArrayList<>();
+        // Per query term, its accepted tokens, or null to check it in the postings
+        private final List<Set<String>> acceptedTokens = new ArrayList<>();
+        private int driver = -1;
+        private long driverRows;
+
+        private Match(Set<String> queryTerms) {
+            long fewest = Long.MAX_VALUE;
+            for (String term : queryTerms) {
+                IntList matches = matchingTerms(term);
+                long rows = 0;
+                for (int i = 0; i < matches.size(); i++) {
+                    rows += postings.get(matches.get(i)).size();
+                }
+                if (rows < fewest) {
+                    fewest = rows;
+                    driver = matchedTerms.size();
+                }
+                matchedTerms.add(matches);
+                acceptedTokens.add(matches.size() <= POSTING_CHECK_TERMS ? null : termsOf(matches));
+            }
+            driverRows = driver < 0 ? 0 : fewest;
+        }
+
+        // Upper bound of the matching rows: the postings of the most selective term
+        long estimatedRows() {
+            return driverRows;
+        }
+
+        boolean test(int row, IntFunction<String> descriptionOf) {
+            return driverRows > 0 && matchesTerms(row, -1, descriptionOf);
+        }
+
+        // For rows from candidates(), which match the driver term already
+        boolean acceptsCandidate(int row, IntFunction<String> descriptionOf) {
+            return matchesTerms(row, driver, descriptionOf);
+        }
+
+        private boolean matchesTerms(int row, int skip, IntFunction<String> descriptionOf) {
+            Set<String> rowTokens = null;
+            for (int t = 0; t < matchedTerms.size(); t++) {
+                if (t == skip) {
+                    continue;
+                }
+                Set<String> accepted = acceptedTokens.get(t);
+                if (accepted == null) {
+                    if (!inPostings(row, matchedTerms.get(t))) {
+                        return false;
+                    }
+                } else {
+                    if (rowTokens == null) {
+                        rowTokens = tokens(descriptionOf.apply(row));
+                    }
+                    if (!containsAny(rowTokens, accepted)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /*
+         * The driver term's rows, each once, newest or oldest first; -1 when done.
+         * Its postings are merged lazily through a heap of {row, term index, position}.
+         */
+        IntSupplier candidates(boolean newestFirst) {
+            if (driverRows == 0) {
+                return () -> -1;
+            }
+            IntList driverTerms = matchedTerms.get(driver);
+            int step = newestFirst ? -1 : 1;
+            PriorityQueue<int[]> heads = new PriorityQueue<>(
+                (a, b) -> newestFirst ? Integer.compare(b[0], a[0]) : Integer.compare(a[0], b[0]));
+            for (int t = 0; t < driverTerms.size(); t++) {
+                IntList rows = postings.get(driverTerms.get(t));
+                if (!rows.isEmpty()) {
+                    int position = newestFirst ? rows.size() - 1 : 0;
+                    heads.add(new int[]{rows.get(position), t, position});
+                }
+            }
+            int[] lastRow = {-1};
+            return () -> {
+                while (!heads.isEmpty()) {
+                    int[] head = heads.poll();
+                    int row = head[0];
+                    IntList rows = postings.get(driverTerms.get(head[1]));
+                    head[2] += step;
+                    if (head[2] >= 0 && head[2] < rows.size()) {
+                        head[0] = rows.get(head[2]);
+                        heads.add(head);
+                    }
+                    // A row can be listed under several matching terms
+                    if (row != lastRow[0]) {
+                        lastRow[0] = row;
+                        return row;
+                    }
+                }
+                return -1;
+            };
+        }
+    }
+
+    private Set<String> termsOf(IntList termIds) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < termIds.size(); i++) {
+            result.add(terms.get(termIds.get(i)));
+        }
+        return result;
+    }
+
+    private boolean inPostings(int row, IntList termIds) {
+        for (int i = 0; i < termIds.size(); i++) {
+            if (postings.get(termIds.get(i)).containsSorted(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsAny(Set<String> rowTokens, Set<String> accepted) {
+        for (String token : rowTokens) {
+            if (accepted.contains(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Ascending ids of the vocabulary terms a query term stands for
+    private IntList matchingTerms(String term) {
+        if (term.length() <= 2) {
+            IntList matches = prefixes.get(term);
+            return matches != null ? matches : new IntList();
+        }
+        IntList matches = containing(term);
+        if (matches.isEmpty()) {
+            matches = similar(term, term.length() >= 8 ? 2 : 1);
+        }
+        return matches;
+    }
+
+    private IntList containing(String term) {
+        // Every trigram of the term occurs in a term containing it; the shortest list is checked
+        IntList shortest = null;
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            IntList list = trigrams.get(term.substring(i, i + 3));
+            if (list == null) {
+                return new IntList();
+            }
+            if (shortest == null || list.size() < shortest.size()) {
+                shortest = list;
+            }
+        }
+        IntList matches = new IntList();
+        for (int i = 0; i < shortest.size(); i++) {
+            if (terms.get(shortest.get(i)).contains(term)) {
+                matches.add(shortest.get(i));
+            }
+        }
+        return matches;
+    }
+
+    private IntList similar(String term, int maxEdits) {
+        // One edit changes at most three trigrams of "$term$", so a close term shares the rest
+        String padded = "$" + term + "$";
+        int trigramCount = padded.length() - 2;
+        int needed = Math.max(1, trigramCount - 3 * maxEdits);
+        Map<Integer, Integer> shared = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            String trigram = padded.substring(i, i + 3);
+            IntList list = seen.add(trigram) ? trigrams.get(trigram) : null;
+            if (list != null) {
+                for (int j = 0; j < list.size(); j++) {
+                    shared.merge(list.get(j), 1, Integer::sum);
+                }
+            }
+        }
+        IntList matches = new IntList();
+        shared.forEach((id, count) -> {
+            String candidate = terms.get(id);
+            if (count >= needed && Math.abs(candidate.length() - term.length()) <= maxEdits
+                    && withinEdits(term, candidate, maxEdits)) {
+                matches.add(id);
+            }
+        });
+        matches.sort();
+        return matches;
+    }
+
+    // Levenshtein distance no greater than maxEdits, giving up once a row of the table exceeds it
+    static boolean withinEdits(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int best = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                best = Math.min(best, current[j]);
+            }
+            if (best > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+
+    // Distinct normalized tokens, in order of appearance
+    static Set<String> tokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = text;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 127) {
+                normalized = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+                break;
+            }
+        }
+        normalized = normalized.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
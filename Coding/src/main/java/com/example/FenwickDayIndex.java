@@ -0,0 +1,93 @@
+// Performance update: Per-day amounts in Fenwick trees, for date-range totals in O(log days)
+package com.example;
+
+import java.util.Arrays;
+
+/*
+ * Cents per epoch day, kept in blocks of BLOCK_DAYS days. Only blocks that
+ * hold a day with rows exist, each a Fenwick (binary indexed) tree over its
+ * days, and a second Fenwick tree sums the blocks' totals in block order.
+ * Adding to a day and summing every day up to a given one both cost
+ * O(log blocks + log BLOCK_DAYS). Memory follows the blocks in use, not the
+ * span of the dates, so an outlier such as a mistyped year costs one block.
+ * A new block rebuilds the block totals, which is linear in the blocks.
+ */
+class FenwickDayIndex {
+    static final int BLOCK_DAYS = 1024;
+
+    // Block numbers (day / BLOCK_DAYS, rounded down) in ascending order
+    private int[] blocks = new int[0];
+    // 1-based: dayTrees[b][i] covers days [i - (i & -i), i) of block b
+    private long[][] dayTrees = new long[0][];
+    // 1-based, over the blocks' totals in the order of blocks
+    private long[] blockTree = new long[1];
+
+    void add(int day, long cents) {
+        int position = Arrays.binarySearch(blocks, Math.floorDiv(day, BLOCK_DAYS));
+        if (position < 0) {
+            position = insertBlock(-position - 1, Math.floorDiv(day, BLOCK_DAYS));
+        }
+        long[] days = dayTrees[position];
+        for (int i = Math.floorMod(day, BLOCK_DAYS) + 1; i <= BLOCK_DAYS; i += i & -i) {
+            days[i] += cents;
+        }
+        for (int i = position + 1; i <= blocks.length; i += i & -i) {
+            blockTree[i] += cents;
+        }
+    }
+
+    // Sum of every day up to and including the given one
+    long sumThrough(int day) {
+        int position = Arrays.binarySearch(blocks, Math.floorDiv(day, BLOCK_DAYS));
+        if (position < 0) {
+            return prefix(blockTree, -position - 1);
+        }
+        return prefix(blockTree, position) + prefix(dayTrees[position], Math.floorMod(day, BLOCK_DAYS) + 1);
+    }
+
+    // Both bounds inclusive
+    long sumBetween(int fromDay, int toDay) {
+        if (fromDay > toDay) {
+            return 0;
+        }
+        return sumThrough(toDay) - (fromDay == Integer.MIN_VALUE ? 0 : sumThrough(fromDay - 1));
+    }
+
+    // Sum of the first count entries of a 1-based Fenwick tree
+    private static long prefix(long[] tree, int count) {
+        long sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private int insertBlock(int position, int block) {
+        int count = blocks.length;
+        int[] grownBlocks = new int[count + 1];
+        long[][] grownTrees = new long[count + 1][];
+        System.arraycopy(blocks, 0, grownBlocks, 0, position);
+        System.arraycopy(dayTrees, 0, grownTrees, 0, position);
+        System.arraycopy(blocks, position, grownBlocks, position + 1, count - position);
+        System.arraycopy(dayTrees, position, grownTrees, position + 1, count - position);
+        grownBlocks[position] = block;
+        grownTrees[position] = new long[BLOCK_DAYS + 1];
+        blocks = grownBlocks;
+        dayTrees = grownTrees;
+
+        blockTree = new long[count + 2];
+        for (int i = 1; i <= count + 1; i++) {
+            blockTree[i] += prefix(dayTrees[i - 1], BLOCK_DAYS);
+            int parent = i + (i & -i);
+            if (parent <= count + 1) {
+                blockTree[parent] += blockTree[i];
+            }
+        }
+        return position;
+    }
+
+    // Days in the blocks in use, for tests
+    int capacity() {
+        return blocks.length * BLOCK_DAYS;
+    }
+}
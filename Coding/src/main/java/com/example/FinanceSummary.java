@@ -4,26 +4,44 @@ package com.example;
 import java.util.Map;
 //Prompt 1: Core logic
 public class FinanceSummary {
-    private double totalIncome;
-    private double totalExpenses;
-    private double netBalance;
+    // Performance update: Totals are exact cents
+    private long totalIncomeCents;
+    private long totalExpensesCents;
+    private long netBalanceCents;
     private Map<Category, Double> categoryBreakdown;
 
     public FinanceSummary(double totalIncome, double totalExpenses, double netBalance, Map<Category, Double> categoryBreakdown) {
-        this.totalIncome = totalIncome;
-        this.totalExpenses = totalExpenses;
-        this.netBalance = netBalance;
+        this.totalIncomeCents = Money.toCents(totalIncome);
+        this.totalExpensesCents = Money.toCents(totalExpenses);
+        this.netBalanceCents = Money.toCents(netBalance);
         this.categoryBreakdown = categoryBreakdown;
     }
 
-    public double getTotalIncome() { return totalIncome; }
-    public void setTotalIncome(double totalIncome) { this.totalIncome = totalIncome; }
+    private FinanceSummary(Map<Category, Double> categoryBreakdown) {
+        this.categoryBreakdown = categoryBreakdown;
+    }
+
+    // Performance update: Factory for exact totals (a long overload would capture int literals)
+    static FinanceSummary ofCents(long totalIncomeCents, long totalExpensesCents, Map<Category, Double> categoryBreakdown) {
+        FinanceSummary summary = new FinanceSummary(categoryBreakdown);
+        summary.totalIncomeCents = totalIncomeCents;
+        summary.totalExpensesCents = totalExpensesCents;
+        summary.netBalanceCents = totalIncomeCents - totalExpensesCents;
+        return summary;
+    }
+
+    public double getTotalIncome() { return Money.toAmount(totalIncomeCents); }
+    public void setTotalIncome(double totalIncome) { this.totalIncomeCents = Money.toCents(totalIncome); }
+
+    public double getTotalExpenses() { return Money.toAmount(totalExpensesCents); }
+    public void setTotalExpenses(double totalExpenses) { this.totalExpensesCents = Money.toCents(totalExpenses); }
 
-    public double getTotalExpenses() { return totalExpenses; }
-    public void setTotalExpenses(double totalExpenses) { this.totalExpenses = totalExpenses; }
+    public double getNetBalance() { return Money.toAmount(netBalanceCents); }
+    public void setNetBalance(double netBalance) { this.netBalanceCents = Money.toCents(netBalance); }
 
-    public double getNetBalance() { return netBalance; }
-    public void setNetBalance(double netBalance) { this.netBalance = netBalance; }
+    public long getTotalIncomeCents() { return totalIncomeCents; }
+    public long getTotalExpensesCents() { return totalExpensesCents; }
+    public long getNetBalanceCents() { return netBalanceCents; }
 
     public Map<Category, Double> getCategoryBreakdown() { return categoryBreakdown; }
     public void setCategoryBreakdown(Map<Category, Double> categoryBreakdown) { this.categoryBreakdown = categoryBreakdown; }
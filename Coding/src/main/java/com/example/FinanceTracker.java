@@ -7,256 +7,1265 @@ import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.*;
 //Prompt 2: Data model management (Json)
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import java.io.*;
-// Prompt 5: LocalDate TypeAdapter for Gson
-import com.google.gson.TypeAdapter;
-import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
+// Performance update: Streaming load
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class FinanceTracker {
+    // Performance update: Storage backends selectable per tracker
+    public enum StorageMode {
+        LIST,
+        COLUMNAR
+    }
+
     // Prompt 1: Data fields
-    private List<Transaction> transactions = new ArrayList<>();
+    // Performance update: Transactions live in a row-id addressed store instead of a plain list
+    private final StorageMode storageMode;
+    private TransactionStore store;
     private List<Category> categories = new ArrayList<>();
-    private List<SpendingLimit> spendingLimits = new ArrayList<>();
+    // Performance update: Limits keyed by category value, so the add path finds its limit in O(1);
+    // keys are re-hashed in renameCategory, which is why renames must go through the tracker.
+    // The engine also keeps each limit's month-to-date spend and reports threshold crossings.
+    private final SpendingLimitEngine limitEngine = new SpendingLimitEngine();
+
+    // Performance update: Date-ordered secondary index (epoch day to row ids) so range queries cost O(log n + k)
+    private NavigableMap<Integer, IntList> dateIndex = new TreeMap<>();
+    // Performance update: Ascending ids of the rows without a date, so date orders need not scan for them
+    private IntList undatedRows = new IntList();
+    // Performance update: Ascending row ids of each category, indexed by CategoryRegistry id
+    private List<IntList> categoryIndex = new ArrayList<>();
+    // Performance update: Income, expense and per-category totals per month, updated by delta
+    private Map<YearMonth, MonthlyAggregate> monthlyAggregates = new HashMap<>();
+    // Performance update: Running totals so the balance is an O(1) read
+    private long runningIncomeCents = 0;
+    private long runningExpensesCents = 0;
+    // Performance update: Income and expense cents per day, for date-range totals and balance-as-of queries.
+    // Per-category trees (by CategoryRegistry id) are built on first query and maintained from then on.
+    private FenwickDayIndex incomeByDay = new FenwickDayIndex();
+    private FenwickDayIndex expensesByDay = new FenwickDayIndex();
+    private final Map<Integer, FenwickDayIndex> categoryByDay = new ConcurrentHashMap<>();
+    // Performance update: Description search index, built on the first search and maintained from then on
+    private volatile DescriptionIndex descriptionIndex;
+    // Performance update: Mutations are appended here while a journal is open, see openJournal
+    private LedgerJournal journal;
+    // Performance update: Notified after every mutation, e.g. by the autosave service; not during load or replay
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+    private boolean replaying;
+    // Performance update: Background snapshots being written; the journal is not compacted meanwhile
+    private int snapshotsInFlight;
+    // Performance update: Readers (summaries, filters, balance, getters) share the read lock, so reports can run
+    // on other threads while one writer mutates. Reentrant, as journal replay calls back into the mutators and
+    // listeners may read the tracker while a mutation is being published.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+    // Performance update: Bulk adds of at least this many rows use every core by default
+    static final int PARALLEL_INGEST_ROWS = 100_000;
+    static final int MIN_ROWS_PER_WORKER = 4096;
+    // Balance as of the last completed mutation, so getCurrentBalance needs no lock
+    private volatile long publishedBalanceCents;
+    // Performance update: Completed writes that changed rows or indexes, so lazy query results can fail fast;
+    // writes touching only limits or listeners leave open cursors valid
+    private volatile long modCount;
+    private boolean rowsChanged;
+    // Performance update: The last amount-sorted query result, see rows(TransactionQueryPlan)
+    private volatile SortedRows sortedRows;
+
+    public FinanceTracker() {
+        this(StorageMode.LIST);
+    }
+
+    public FinanceTracker(StorageMode storageMode) {
+        this.storageMode = storageMode;
+        this.store = newStore(storageMode);
+    }
+
+    private static TransactionStore newStore(StorageMode storageMode) {
+        return storageMode == StorageMode.COLUMNAR ? new ColumnarTransactionStore() : new ListTransactionStore();
+    }
+
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
 
     // Prompt 1: Core methods
     public void addTransaction(Transaction transaction) {
-        transactions.add(transaction);
-        updateSpendingLimit(transaction, true);
+        writeLock.lock();
+        try {
+            // Before the row is indexed, so a recompute of the month does not count it twice
+            syncLimitMonth();
+            int id = store.add(transaction);
+            indexRow(id);
+            updateSpendingLimit(transaction, true);
+            if (journal != null) {
+                journal.recordAdd(id, transaction, categories);
+            }
+            changed();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Performance update: Bulk add. The rows are appended on this thread; their index and aggregate entries
+    // are then built per slice on worker threads above PARALLEL_INGEST_ROWS rows, and merged once.
+    // Change listeners are notified once for the whole batch.
+    public void addTransactions(Collection<Transaction> transactions) {
+        addTransactions(transactions, transactions.size() >= PARALLEL_INGEST_ROWS
+            ? Runtime.getRuntime().availableProcessors() : 1);
+    }
+
+    // workers bounds the number of slices; each slice gets at least MIN_ROWS_PER_WORKER rows
+    public void addTransactions(Collection<Transaction> transactions, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be at least 1");
+        }
+        writeLock.lock();
+        try {
+            if (transactions.isEmpty()) {
+                return;
+            }
+            syncLimitMonth();
+            int[] ids = new int[transactions.size()];
+            int count = 0;
+            for (Transaction transaction : transactions) {
+                int id = store.add(transaction);
+                ids[count++] = id;
+                updateSpendingLimit(transaction, true);
+                if (journal != null) {
+                    journal.recordAdd(id, transaction, categories);
+                }
+            }
+            indexRows(ids, workers);
+            changed();
+        } finally {
+            unlockWrite();
+        }
     }
 
     public void removeTransaction(Transaction transaction) {
-        transactions.remove(transaction);
-        updateSpendingLimit(transaction, false);
+        writeLock.lock();
+        try {
+            // Before the row leaves the indexes, so a recompute of the month does not miss it twice
+            syncLimitMonth();
+            boolean tracked = store.contains(transaction);
+            if (tracked) {
+                int id = transaction.getId();
+                unindexRow(id);
+                store.remove(id);
+                if (journal != null) {
+                    journal.recordRemove(id);
+                }
+                if (store.compactIfSparse()) {
+                    if (journal != null) {
+                        journal.rowsCompacted();
+                    }
+                    rebuildIndexes();
+                }
+            }
+            updateSpendingLimit(transaction, false);
+            if (tracked) {
+                changed();
+            }
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Performance update: Edits go through the tracker so its indexes stay in sync
+    public void updateTransaction(Transaction transaction, String description, double amount,
+                                  LocalDate date, TransactionType type, Category category) {
+        // Performance update: Rejects an amount cents cannot hold before the row leaves the indexes
+        long amountCents = Money.toCents(amount);
+        writeLock.lock();
+        try {
+            syncLimitMonth();
+            updateSpendingLimit(transaction, false);
+            boolean tracked = store.contains(transaction);
+            if (tracked) {
+                unindexRow(transaction.getId());
+            }
+            transaction.setDescription(description);
+            transaction.setAmountCents(amountCents);
+            transaction.setDate(date);
+            transaction.setType(type);
+            transaction.setCategory(category);
+            if (tracked) {
+                store.update(transaction.getId(), transaction);
+                indexRow(transaction.getId());
+                if (journal != null) {
+                    journal.recordUpdate(transaction.getId(), transaction, categories);
+                }
+            }
+            updateSpendingLimit(transaction, true);
+            if (tracked) {
+                changed();
+            }
+        } finally {
+            unlockWrite();
+        }
     }
 
     public void addCategory(Category category) {
-        categories.add(category);
+        writeLock.lock();
+        try {
+            categories.add(category);
+            if (journal != null) {
+                journal.recordAddCategory(category);
+            }
+            changed();
+        } finally {
+            unlockWrite();
+        }
     }
 
     public void renameCategory(Category category, String newName) {
-        category.setName(newName);
+        writeLock.lock();
+        try {
+            if (journal != null) {
+                journal.recordRenameCategory(category, newName, categories);
+            }
+            limitEngine.rename(category, newName);
+            syncLimitMonth();
+            changed();
+        } finally {
+            unlockWrite();
+        }
     }
 
     public void deleteCategory(Category category) {
-        categories.remove(category);
-        for (Transaction t : transactions) {
-            if (t.getCategory().equals(category)) {
-                t.setCategory(null);
+        writeLock.lock();
+        try {
+            if (journal != null) {
+                journal.recordDeleteCategory(category, categories);
             }
+            categories.remove(category);
+            // Performance update: Equal categories are found once in the registry, and only their rows are visited
+            boolean[] matches = store.categoryRegistry().idsEqualTo(category);
+            for (int categoryId = 0; categoryId < Math.min(matches.length, categoryIndex.size()); categoryId++) {
+                IntList rows = categoryIndex.get(categoryId);
+                if (matches[categoryId] && categoryId != CategoryRegistry.NONE && !rows.isEmpty()) {
+                    for (int i = 0; i < rows.size(); i++) {
+                        store.setCategory(rows.get(i), null);
+                    }
+                    categoryIndex.set(CategoryRegistry.NONE, IntList.mergeSorted(rowsOfCategory(CategoryRegistry.NONE), rows));
+                    categoryIndex.set(categoryId, new IntList());
+                    rowsChanged = true;
+                }
+            }
+            // Performance update: Deleted category's totals move to the uncategorized bucket
+            // (running balance totals do not depend on category, so they stay as they are)
+            for (MonthlyAggregate aggregate : monthlyAggregates.values()) {
+                aggregate.reassign(matches, CategoryRegistry.NONE);
+            }
+            // Their per-day trees are rebuilt on the next query
+            categoryByDay.keySet().removeIf(categoryId -> categoryId == CategoryRegistry.NONE
+                || categoryId < matches.length && matches[categoryId]);
+            limitEngine.remove(category);
+            changed();
+        } finally {
+            unlockWrite();
         }
-        spendingLimits.removeIf(sl -> sl.getCategory().equals(category));
     }
 
     public void setSpendingLimit(Category category, double limit) {
-        // Remove existing limit for this category if it exists
-        spendingLimits.removeIf(sl -> sl.getCategory().equals(category));
+        // Performance update: Rejects an amount cents cannot hold before anything changes
+        long limitCents = Money.toCents(limit);
+        writeLock.lock();
+        try {
+            if (journal != null) {
+                journal.recordSetLimit(category, limitCents, categories);
+            }
+            // Remove existing limit for this category if it exists
+            limitEngine.remove(category);
         
-        // Add new limit
-        if (limit > 0) {
-            spendingLimits.add(new SpendingLimit(category, limit));
+            // Add new limit
+            if (limit > 0) {
+                // Performance update: Starts from the month-to-date spend, without reporting thresholds already passed
+                syncLimitMonth();
+                long[] spentById = monthExpensesById(limitEngine.currentMonth());
+                boolean[] matches = store.categoryRegistry().idsEqualTo(category);
+                long spent = 0;
+                for (int categoryId = 0; categoryId < Math.min(matches.length, spentById.length); categoryId++) {
+                    if (matches[categoryId]) {
+                        spent += spentById[categoryId];
+                    }
+                }
+                limitEngine.put(new SpendingLimit(category, limit), spent);
+            }
+            changed();
+        } finally {
+            unlockWrite();
         }
     }
     
     // JavaFX update: Add method to remove spending limit
     public void removeSpendingLimit(Category category) {
-        spendingLimits.removeIf(sl -> sl.getCategory().equals(category));
+        writeLock.lock();
+        try {
+            if (journal != null) {
+                journal.recordRemoveLimit(category, categories);
+            }
+            limitEngine.remove(category);
+            changed();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Performance update: The limit set for a category (or an equal one), or null
+    public SpendingLimit getSpendingLimit(Category category) {
+        readLock.lock();
+        try {
+            return limitEngine.get(category);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Performance update: Threshold events, delivered in batches through the executor
+    // (e.g. Platform::runLater); at most one event per category in each batch
+    public void addSpendingLimitListener(SpendingLimitListener listener, java.util.concurrent.Executor executor) {
+        limitEngine.addListener(listener, executor);
+    }
+
+    public void removeSpendingLimitListener(SpendingLimitListener listener) {
+        limitEngine.removeListener(listener);
+    }
+
+    // Tests move the calendar month with a fixed clock
+    void setClock(java.time.Clock clock) {
+        limitEngine.setClock(clock);
+    }
+
+    // Performance update: Change notification
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Runnable listener) {
+        changeListeners.remove(listener);
+    }
+
+    // Publishes the balance once the outermost mutation is complete, never an intermediate value
+    private void unlockWrite() {
+        if (lock.getWriteHoldCount() == 1) {
+            publishedBalanceCents = runningIncomeCents - runningExpensesCents;
+            if (rowsChanged) {
+                rowsChanged = false;
+                modCount++;
+            }
+        }
+        writeLock.unlock();
+    }
+
+    private void changed() {
+        limitEngine.settle();
+        if (replaying) {
+            return;
+        }
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
     }
 
     public FinanceSummary getMonthlySummary(YearMonth month) {
-        double totalIncome = 0;
-        double totalExpenses = 0;
-        Map<Category, Double> categoryBreakdown = new HashMap<>();
-        for (Transaction t : transactions) {
-            if (YearMonth.from(t.getDate()).equals(month)) {
-                double amt = t.getAmount();
-                if (t.getType() == TransactionType.INCOME) {
-                    totalIncome += amt;
-                } else {
-                    totalExpenses += amt;
+        readLock.lock();
+        try {
+            // Performance update: Lookup of the maintained aggregate instead of a full history scan
+            MonthlyAggregate aggregate = monthlyAggregates.get(month);
+            if (aggregate == null) {
+                return new FinanceSummary(0, 0, 0, new HashMap<>());
+            }
+            return aggregate.toSummary(store.categoryRegistry());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Performance update: Multi-period reports read the maintained aggregates under one read lock, so every
+    // period comes from the same state; each month costs a map lookup, whatever the history size.
+    // Every month of the range is present, empty ones as zero summaries, as from getMonthlySummary.
+    public NavigableMap<YearMonth, FinanceSummary> getSummaries(YearMonth from, YearMonth to) {
+        readLock.lock();
+        try {
+            NavigableMap<YearMonth, FinanceSummary> summaries = new TreeMap<>();
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                summaries.put(month, getMonthlySummary(month));
+            }
+            return summaries;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Totals of the whole range as one summary, summed in cents so they equal the sum of the months
+    public FinanceSummary getSummary(YearMonth from, YearMonth to) {
+        readLock.lock();
+        try {
+            MonthlyAggregate total = new MonthlyAggregate();
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                MonthlyAggregate aggregate = monthlyAggregates.get(month);
+                if (aggregate != null) {
+                    total.addAll(aggregate);
                 }
-                categoryBreakdown.put(t.getCategory(),
-                    categoryBreakdown.getOrDefault(t.getCategory(), 0.0) + amt);
             }
+            return total.toSummary(store.categoryRegistry());
+        } finally {
+            readLock.unlock();
         }
-        double netBalance = totalIncome - totalExpenses;
-        return new FinanceSummary(totalIncome, totalExpenses, netBalance, categoryBreakdown);
+    }
+
+    // quarter is 1 to 4
+    public FinanceSummary getQuarterlySummary(int year, int quarter) {
+        if (quarter < 1 || quarter > 4) {
+            throw new IllegalArgumentException("quarter must be between 1 and 4: " + quarter);
+        }
+        YearMonth first = YearMonth.of(year, quarter * 3 - 2);
+        return getSummary(first, first.plusMonths(2));
+    }
+
+    public FinanceSummary getYearlySummary(int year) {
+        return getSummary(YearMonth.of(year, 1), YearMonth.of(year, 12));
     }
 
     public List<Transaction> filterTransactions(LocalDate start, LocalDate end, Category category) {
-        List<Transaction> filtered = new ArrayList<>();
-        for (Transaction t : transactions) {
-            // JavaFX update: Fix null pointer issues with date filtering
-            boolean inRange = true;
-            if (start != null && end != null) {
-                inRange = (t.getDate().isEqual(start) || t.getDate().isAfter(start)) &&
-                          (t.getDate().isEqual(end) || t.getDate().isBefore(end));
-            } else if (start != null) {
-                inRange = t.getDate().isEqual(start) || t.getDate().isAfter(start);
-            } else if (end != null) {
-                inRange = t.getDate().isEqual(end) || t.getDate().isBefore(end);
+        readLock.lock();
+        try {
+            List<Transaction> filtered = new ArrayList<>();
+            // Performance update: Category equality is decided once per registry id, not per row
+            boolean[] inCategory = category != null ? store.categoryRegistry().idsEqualTo(category) : null;
+            // Performance update: Use the date index whenever a bound is given, else the category index
+            if (start == null && end == null && inCategory != null) {
+                IntList ids = idsInCategories(inCategory);
+                for (int i = 0; i < ids.size(); i++) {
+                    filtered.add(store.get(ids.get(i)));
+                }
+            } else if (start != null || end != null) {
+                IntList ids = idsBetween(start, end);
+                for (int i = 0; i < ids.size(); i++) {
+                    addIfInCategory(filtered, ids.get(i), inCategory);
+                }
+            } else {
+                for (int id = 0; id < store.capacity(); id++) {
+                    if (store.isLive(id)) {
+                        addIfInCategory(filtered, id, inCategory);
+                    }
+                }
             }
-            
-            // JavaFX update: Fix null pointer issues with category filtering
-            boolean inCategory = true;
-            if (category != null) {
-                inCategory = t.getCategory() != null && t.getCategory().equals(category);
+            return filtered;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void addIfInCategory(List<Transaction> filtered, int id, boolean[] inCategory) {
+        // JavaFX update: Fix null pointer issues with category filtering
+        if (inCategory == null || inCategory[store.categoryId(id)]) {
+            filtered.add(store.get(id));
+        }
+    }
+
+    // Performance update: Total of one category over the whole history, from its postings only
+    public double getCategoryTotal(Category category) {
+        return Money.toAmount(getCategoryTotalCents(category));
+    }
+
+    public long getCategoryTotalCents(Category category) {
+        readLock.lock();
+        try {
+            IntList ids = idsInCategories(store.categoryRegistry().idsEqualTo(category));
+            long total = 0;
+            for (int i = 0; i < ids.size(); i++) {
+                total += store.amountCents(ids.get(i));
             }
-            
-            if (inRange && inCategory) {
-                filtered.add(t);
+            return total;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Performance update: Description search through an inverted index. Every word of the query must match a word
+    // of the description: by substring from three characters, by prefix below, and within one or two typos when
+    // nothing else matches. Newest transactions first, at most limit of them.
+    public List<Transaction> searchTransactions(String query, int limit) {
+        readLock.lock();
+        try {
+            IntList ids = descriptionIndex().search(query, limit, store::description);
+            List<Transaction> found = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                found.add(store.get(ids.get(i)));
             }
+            return found;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Performance update: Composable queries over date range, categories, type, amount range and description,
+    // with order and limit, planned against the indexes; see TransactionQuery
+    public TransactionQuery query() {
+        return new TransactionQuery(this);
+    }
+
+    private TransactionQueryPlan plan(TransactionQuery query) {
+        return new TransactionQueryPlan(query, store, dateIndex, undatedRows, categoryIndex,
+            query.description != null ? descriptionIndex() : null);
+    }
+
+    // Performance update: An amount-sorted result is kept until the rows change, so reopening the same query,
+    // as the table does on every refresh, reuses the sort; called under the read lock
+    private IntSupplier rows(TransactionQueryPlan plan) {
+        if (!plan.sortsMatches()) {
+            return plan.rows();
+        }
+        SortedRows cached = sortedRows;
+        if (cached == null || cached.modCount != modCount || !cached.plan.sameResultAs(plan)) {
+            cached = new SortedRows(plan, modCount, plan.sortedMatches());
+            sortedRows = cached;
+        }
+        return TransactionQueryPlan.listWalk(cached.ids);
+    }
+
+    private static final class SortedRows {
+        final TransactionQueryPlan plan;
+        final long modCount;
+        // Never changed once sorted, so readers may walk it concurrently
+        final IntList ids;
+
+        SortedRows(TransactionQueryPlan plan, long modCount, IntList ids) {
+            this.plan = plan;
+            this.modCount = modCount;
+            this.ids = ids;
+        }
+    }
+
+    // Lazy: each row is read under the read lock, released before it is handed on
+    Stream<Transaction> stream(TransactionQuery query) {
+        IntSupplier rows;
+        long estimate;
+        long expectedModCount;
+        readLock.lock();
+        try {
+            TransactionQueryPlan plan = plan(query);
+            rows = rows(plan);
+            estimate = plan.estimatedRows();
+            expectedModCount = modCount;
+        } finally {
+            readLock.unlock();
+        }
+        Spliterator<Transaction> spliterator = new Spliterators.AbstractSpliterator<>(estimate,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Transaction> action) {
+                Transaction next = null;
+                readLock.lock();
+                try {
+                    if (modCount != expectedModCount) {
+                        throw new ConcurrentModificationException("Tracker changed while a query was being read");
+                    }
+                    int id = rows.getAsInt();
+                    if (id >= 0) {
+                        next = store.get(id);
+                    }
+                } finally {
+                    readLock.unlock();
+                }
+                if (next == null) {
+                    return false;
+                }
+                action.accept(next);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    List<Transaction> list(TransactionQuery query) {
+        readLock.lock();
+        try {
+            IntSupplier rows = rows(plan(query));
+            List<Transaction> found = new ArrayList<>();
+            for (int id = rows.getAsInt(); id >= 0; id = rows.getAsInt()) {
+                found.add(store.get(id));
+            }
+            return found;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    long count(TransactionQuery query) {
+        readLock.lock();
+        try {
+            return plan(query).count();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Performance update: Counts up front and reads rows only as windows are asked for, see TransactionCursor
+    TransactionCursor cursor(TransactionQuery query) {
+        readLock.lock();
+        try {
+            TransactionQueryPlan plan = plan(query);
+            return new TransactionCursor(this, plan.count(), rows(plan), modCount);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    List<Transaction> readPage(TransactionCursor cursor, int offset, int size) {
+        readLock.lock();
+        try {
+            if (modCount != cursor.modCount()) {
+                throw new ConcurrentModificationException("Tracker changed since the cursor was opened");
+            }
+            IntList ids = cursor.rowsThrough((int) Math.min((long) offset + size, Integer.MAX_VALUE));
+            List<Transaction> page = new ArrayList<>(Math.max(0, Math.min(size, ids.size() - offset)));
+            for (int i = offset; i < ids.size() && i < offset + size; i++) {
+                page.add(store.get(ids.get(i)));
+            }
+            return page;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    boolean isUnchangedSince(long expectedModCount) {
+        return modCount == expectedModCount;
+    }
+
+    // The index a query would read its candidates from, for tests and benchmarks
+    TransactionQueryPlan.Source plannedSource(TransactionQuery query) {
+        readLock.lock();
+        try {
+            return plan(query).source();
+        } finally {
+            readLock.unlock();
         }
-        return filtered;
+    }
+
+    // Readers may race to build it under the read lock, hence the double check
+    private DescriptionIndex descriptionIndex() {
+        DescriptionIndex index = descriptionIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = descriptionIndex;
+                if (index == null) {
+                    index = new DescriptionIndex();
+                    for (int id = 0; id < store.capacity(); id++) {
+                        if (store.isLive(id)) {
+                            index.add(id, store.description(id));
+                        }
+                    }
+                    descriptionIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    // Performance update: Date-range totals from the per-day Fenwick trees in O(log days). Null bounds are open,
+    // both bounds are inclusive, and undated rows fall in no range. Anything that is not income counts as expense.
+    public double getTotalBetween(LocalDate start, LocalDate end, TransactionType type) {
+        return Money.toAmount(getTotalBetweenCents(start, end, type));
+    }
+
+    public long getTotalBetweenCents(LocalDate start, LocalDate end, TransactionType type) {
+        readLock.lock();
+        try {
+            return sumBetween(type == TransactionType.INCOME ? incomeByDay : expensesByDay, start, end);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Sum of the amounts of one category (and equal ones), as getCategoryTotal but within the dates
+    public double getTotalBetween(LocalDate start, LocalDate end, Category category) {
+        return Money.toAmount(getTotalBetweenCents(start, end, category));
+    }
+
+    public long getTotalBetweenCents(LocalDate start, LocalDate end, Category category) {
+        readLock.lock();
+        try {
+            boolean[] matches = store.categoryRegistry().idsEqualTo(category);
+            long total = 0;
+            for (int categoryId = 0; categoryId < matches.length; categoryId++) {
+                if (matches[categoryId]) {
+                    total += sumBetween(categoryDays(categoryId), start, end);
+                }
+            }
+            return total;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Income minus expenses of the rows dated on or before the date
+    public double getBalanceAsOf(LocalDate date) {
+        return Money.toAmount(getBalanceAsOfCents(date));
+    }
+
+    public long getBalanceAsOfCents(LocalDate date) {
+        readLock.lock();
+        try {
+            return sumBetween(incomeByDay, null, date) - sumBetween(expensesByDay, null, date);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private static long sumBetween(FenwickDayIndex days, LocalDate start, LocalDate end) {
+        int to = end != null ? (int) end.toEpochDay() : Integer.MAX_VALUE;
+        return start != null ? days.sumBetween((int) start.toEpochDay(), to) : days.sumThrough(to);
+    }
+
+    // Built from the category's postings on first use; may run under the read lock, hence the concurrent map
+    private FenwickDayIndex categoryDays(int categoryId) {
+        return categoryByDay.computeIfAbsent(categoryId, id -> {
+            FenwickDayIndex categoryDays = new FenwickDayIndex();
+            if (id < categoryIndex.size()) {
+                addRowsByDay(categoryDays, categoryIndex.get(id));
+            }
+            return categoryDays;
+        });
+    }
+
+    private void addRowsByDay(FenwickDayIndex days, IntList rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            int day = store.epochDay(rows.get(i));
+            if (day != TransactionStore.NO_DATE) {
+                days.add(day, store.amountCents(rows.get(i)));
+            }
+        }
+    }
+
+    private IntList rowsOfCategory(int categoryId) {
+        while (categoryIndex.size() <= categoryId) {
+            categoryIndex.add(new IntList());
+        }
+        return categoryIndex.get(categoryId);
+    }
+
+    // Ascending row ids of every marked category id; equal category objects are merged
+    private IntList idsInCategories(boolean[] categoryIds) {
+        IntList ids = new IntList(0);
+        for (int categoryId = 0; categoryId < Math.min(categoryIds.length, categoryIndex.size()); categoryId++) {
+            if (categoryIds[categoryId] && !categoryIndex.get(categoryId).isEmpty()) {
+                ids = ids.isEmpty() ? categoryIndex.get(categoryId) : IntList.mergeSorted(ids, categoryIndex.get(categoryId));
+            }
+        }
+        return ids;
+    }
+
+    // Performance update: Collect a date range of row ids from the index, in insertion order
+    private IntList idsBetween(LocalDate start, LocalDate end) {
+        // Each day's ids are ascending and row ids increase with insertion, so one k-way merge of the days
+        // restores the original list order in O(log days + n log k) for n ids over k days
+        return IntList.mergeAllSorted(daysBetween(start, end).values());
+    }
+
+    // The date index entries from start to end, both inclusive; a null bound leaves that side open
+    private NavigableMap<Integer, IntList> daysBetween(LocalDate start, LocalDate end) {
+        NavigableMap<Integer, IntList> range;
+        if (start != null && end != null) {
+            if (start.isAfter(end)) {
+                return Collections.emptyNavigableMap();
+            }
+            range = dateIndex.subMap((int) start.toEpochDay(), true, (int) end.toEpochDay(), true);
+        } else if (start != null) {
+            range = dateIndex.tailMap((int) start.toEpochDay(), true);
+        } else {
+            range = dateIndex.headMap((int) end.toEpochDay(), true);
+        }
+        return range;
     }
 
     public double getCurrentBalance() {
-        double income = 0, expense = 0;
-        for (Transaction t : transactions) {
-            if (t.getType() == TransactionType.INCOME) income += t.getAmount();
-            else expense += t.getAmount();
+        // Performance update: Maintained by every mutation, see adjustRunningTotals
+        return Money.toAmount(getCurrentBalanceCents());
+    }
+
+    public long getCurrentBalanceCents() {
+        return publishedBalanceCents;
+    }
+
+    // Performance update: Consistency check that recomputes the balance the slow way
+    double recalculateBalance() {
+        readLock.lock();
+        try {
+            long income = store.sumAmountCents(TransactionType.INCOME);
+            // Anything that is not income counts as expense, as in adjustRunningTotals
+            long expense = store.sumAmountCents() - income;
+            return Money.toAmount(income - expense);
+        } finally {
+            readLock.unlock();
         }
-        return income - expense;
     }
 
+    // Performance update: The limit engine keeps each limit's currentSpent at the month-to-date spend and reports
+    // crossed thresholds to the listeners as they happen, so this only recomputes the totals once the calendar
+    // month has changed; otherwise it takes nothing but the read lock
     public void checkSpendingLimits() {
-        Map<Category, Double> monthlyExpenses = new HashMap<>();
-        YearMonth currentMonth = YearMonth.now();
-        for (Transaction t : transactions) {
-            if (t.getType() == TransactionType.EXPENSE && YearMonth.from(t.getDate()).equals(currentMonth)) {
-                Category cat = t.getCategory();
-                monthlyExpenses.put(cat, monthlyExpenses.getOrDefault(cat, 0.0) + t.getAmount());
-            }
-        }
-        for (SpendingLimit sl : spendingLimits) {
-            double spent = monthlyExpenses.getOrDefault(sl.getCategory(), 0.0);
-            sl.setCurrentSpent(spent);
-            if (sl.getMonthlyLimit() > 0) {
-                if (spent >= sl.getMonthlyLimit()) {
-                    System.out.println("Warning: Spending limit exceeded for category: " + sl.getCategory().getName());
-                } else if (spent >= 0.8 * sl.getMonthlyLimit()) {
-                    System.out.println("Warning: 80% of spending limit reached for category: " + sl.getCategory().getName());
+        readLock.lock();
+        try {
+            if (!limitEngine.needsRecompute()) {
+                return;
+            }
+        } finally {
+            readLock.unlock();
+        }
+        writeLock.lock();
+        try {
+            syncLimitMonth();
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    // Performance update: Recomputes the month-to-date spend when the calendar month has changed (or after a load)
+    private void syncLimitMonth() {
+        if (limitEngine.needsRecompute()) {
+            YearMonth month = limitEngine.currentMonth();
+            limitEngine.recompute(month, store.categoryRegistry(), monthExpensesById(month));
+        }
+    }
+
+    // Performance update: Only the month's rows are read, through the date index, and summed by category id
+    private long[] monthExpensesById(YearMonth month) {
+        long[] spentById = new long[store.categoryRegistry().size()];
+        // A sum needs no order, so the days are read as they are, without the merge of idsBetween
+        for (IntList ids : daysBetween(month.atDay(1), month.atEndOfMonth()).values()) {
+            for (int i = 0; i < ids.size(); i++) {
+                int id = ids.get(i);
+                if (store.type(id) == TransactionType.EXPENSE) {
+                    spentById[store.categoryId(id)] += store.amountCents(id);
                 }
             }
         }
+        return spentById;
     }
 
     private void updateSpendingLimit(Transaction transaction, boolean add) {
         if (transaction.getType() == TransactionType.EXPENSE) {
-            for (SpendingLimit sl : spendingLimits) {
-                if (sl.getCategory().equals(transaction.getCategory())) {
-                    double current = sl.getCurrentSpent();
-                    if (add) {
-                        sl.setCurrentSpent(current + transaction.getAmount());
-                    } else {
-                        sl.setCurrentSpent(current - transaction.getAmount());
-                    }
+            // Performance update: One keyed lookup; the engine adjusts the month-to-date spend
+            // and reports a threshold crossed by this transaction
+            syncLimitMonth();
+            LocalDate date = transaction.getDate();
+            long cents = transaction.getAmountCents();
+            limitEngine.expenseChanged(add && !replaying ? transaction : null, transaction.getCategory(),
+                date != null ? (int) date.toEpochDay() : TransactionStore.NO_DATE, add ? cents : -cents);
+        }
+    }
+
+    // Performance update: Index and aggregate maintenance, driven by row columns
+    private void indexRow(int id) {
+        rowsChanged = true;
+        TransactionType type = store.type(id);
+        long cents = store.amountCents(id);
+        adjustRunningTotals(type, cents, 1);
+        rowsOfCategory(store.categoryId(id)).addSorted(id);
+        if (descriptionIndex != null) {
+            descriptionIndex.add(id, store.description(id));
+        }
+        int day = store.epochDay(id);
+        if (day == TransactionStore.NO_DATE) {
+            undatedRows.addSorted(id);
+        } else {
+            // Kept ascending, so an edited row returns to its place and queries can walk a day in row order
+            dateIndex.computeIfAbsent(day, d -> new IntList()).addSorted(id);
+            monthlyAggregates.computeIfAbsent(monthOf(day), m -> new MonthlyAggregate())
+                .add(type, cents, store.categoryId(id));
+            addDayTotals(store.categoryId(id), type, day, cents);
+        }
+    }
+
+    private void addDayTotals(int categoryId, TransactionType type, int day, long cents) {
+        (type == TransactionType.INCOME ? incomeByDay : expensesByDay).add(day, cents);
+        FenwickDayIndex categoryDays = categoryByDay.get(categoryId);
+        if (categoryDays != null) {
+            categoryDays.add(day, cents);
+        }
+    }
+
+    // Performance update: Indexes freshly appended rows, whose ids are above every indexed id
+    private void indexRows(int[] ids, int workers) {
+        rowsChanged = true;
+        int slices = Math.max(1, Math.min(workers, ids.length / MIN_ROWS_PER_WORKER));
+        IngestPartition[] partitions = new IngestPartition[slices];
+        TransactionStore rows = store;
+        IntStream.range(0, slices).parallel().forEach(slice -> partitions[slice] =
+            new IngestPartition(rows, ids, (int) ((long) ids.length * slice / slices),
+                (int) ((long) ids.length * (slice + 1) / slices)));
+        if (descriptionIndex != null) {
+            for (int id : ids) {
+                descriptionIndex.add(id, store.description(id));
+            }
+        }
+        // Merged in slice order, so appending keeps every row list ascending
+        for (IngestPartition partition : partitions) {
+            runningIncomeCents += partition.incomeCents;
+            runningExpensesCents += partition.expenseCents;
+            for (int categoryId = 0; categoryId < partition.categories.size(); categoryId++) {
+                if (!partition.categories.get(categoryId).isEmpty()) {
+                    rowsOfCategory(categoryId).addAll(partition.categories.get(categoryId));
+                }
+            }
+            undatedRows.addAll(partition.undated);
+            partition.days.forEach((day, dayRows) -> dateIndex.computeIfAbsent(day, d -> new IntList()).addAll(dayRows));
+            partition.months.forEach((month, aggregate) ->
+                monthlyAggregates.computeIfAbsent(month, m -> new MonthlyAggregate()).addAll(aggregate));
+            partition.dayCents.forEach((day, cents) -> {
+                incomeByDay.add(day, cents[0]);
+                expensesByDay.add(day, cents[1]);
+            });
+            categoryByDay.forEach((categoryId, categoryDays) -> {
+                if (categoryId < partition.categories.size()) {
+                    addRowsByDay(categoryDays, partition.categories.get(categoryId));
                 }
+            });
+        }
+    }
+
+    private void unindexRow(int id) {
+        rowsChanged = true;
+        TransactionType type = store.type(id);
+        long cents = store.amountCents(id);
+        adjustRunningTotals(type, cents, -1);
+        rowsOfCategory(store.categoryId(id)).removeSorted(id);
+        if (descriptionIndex != null) {
+            descriptionIndex.remove(id, store.description(id));
+        }
+        int day = store.epochDay(id);
+        if (day == TransactionStore.NO_DATE) {
+            undatedRows.removeSorted(id);
+            return;
+        }
+        IntList sameDay = dateIndex.get(day);
+        if (sameDay != null) {
+            sameDay.removeSorted(id);
+            if (sameDay.isEmpty()) {
+                dateIndex.remove(day);
+            }
+        }
+        addDayTotals(store.categoryId(id), type, day, -cents);
+        YearMonth month = monthOf(day);
+        MonthlyAggregate aggregate = monthlyAggregates.get(month);
+        if (aggregate != null) {
+            aggregate.remove(type, cents, store.categoryId(id));
+            if (aggregate.isEmpty()) {
+                monthlyAggregates.remove(month);
             }
         }
     }
 
+    private static YearMonth monthOf(int epochDay) {
+        return YearMonth.from(LocalDate.ofEpochDay(epochDay));
+    }
+
+    private void adjustRunningTotals(TransactionType type, long cents, int sign) {
+        if (type == TransactionType.INCOME) {
+            runningIncomeCents += sign * cents;
+        } else {
+            runningExpensesCents += sign * cents;
+        }
+    }
+
+    private void rebuildIndexes() {
+        rowsChanged = true;
+        dateIndex = new TreeMap<>();
+        undatedRows = new IntList();
+        categoryIndex = new ArrayList<>();
+        incomeByDay = new FenwickDayIndex();
+        expensesByDay = new FenwickDayIndex();
+        categoryByDay.clear();
+        // Row ids may have changed; the next search builds a fresh index
+        descriptionIndex = null;
+        monthlyAggregates = new HashMap<>();
+        runningIncomeCents = 0;
+        runningExpensesCents = 0;
+        for (int id = 0; id < store.capacity(); id++) {
+            if (store.isLive(id)) {
+                indexRow(id);
+            }
+        }
+    }
+
+    // Performance update: Returns a snapshot in insertion order; mutate through the tracker
     public List<Transaction> getTransactions() {
-        return transactions;
+        readLock.lock();
+        try {
+            return store.toList();
+        } finally {
+            readLock.unlock();
+        }
     }
 
+    // Performance update: A copy, so it can be iterated while another thread changes the categories
     public List<Category> getCategories() {
-        return categories;
+        readLock.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(categories));
+        } finally {
+            readLock.unlock();
+        }
     }
 
+    // Performance update: Read-only, in the order the limits were set; change them through the tracker
     public List<SpendingLimit> getSpendingLimits() {
-        return spendingLimits;
+        readLock.lock();
+        try {
+            return limitEngine.list();
+        } finally {
+            readLock.unlock();
+        }
     }
 
     // Prompt 2: Persistence methods using Gson
     public void saveToFile(String filePath) {
-        // Prompt 5: Register LocalDate adapter
-        Gson gson = new GsonBuilder()
-            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-            .setPrettyPrinting().create();
-        DataWrapper wrapper = new DataWrapper(transactions, categories, spendingLimits);
-        try (Writer writer = new FileWriter(filePath)) {
-            gson.toJson(wrapper, writer);
+        saveToFile(filePath, false);
+    }
+
+    // Performance update: Buffered streaming save; compact drops the indentation
+    public void saveToFile(String filePath, boolean compact) {
+        try {
+            save(Path.of(filePath), compact);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    // Only the copy of the ledger is taken under the write lock; it is written after the lock is released,
+    // so readers and edits carry on meanwhile
+    private void save(Path target, boolean compact) throws IOException {
+        LedgerSnapshot snapshot;
+        writeLock.lock();
+        try {
+            if (journal != null && journal.isFor(target)
+                    && (!journal.snapshotDue() || journal.hasFailed() || snapshotsInFlight > 0)) {
+                // The journal already holds the changes; the snapshot is only rewritten once it has grown
+                journal.checkpoint(store, categories, getSpendingLimits(), compact, snapshotsInFlight == 0);
+                return;
+            }
+            LedgerJournal owner = journal != null && journal.isFor(target) ? journal : null;
+            snapshot = LedgerSnapshot.capture(target, store, categories, getSpendingLimits(), owner, compact);
+            snapshotsInFlight++;
+        } finally {
+            unlockWrite();
+        }
+        boolean written = false;
+        try {
+            written = snapshot.write();
+        } finally {
+            snapshotFinished(snapshot, written);
+        }
+        if (!written && snapshot.getJournal() != null) {
+            // The journal moved on meanwhile; its records still have to reach the disk
+            writeLock.lock();
+            try {
+                if (journal != null && journal.isFor(target)) {
+                    journal.checkpoint(store, categories, getSpendingLimits(), compact, false);
+                }
+            } finally {
+                unlockWrite();
+            }
+        }
+    }
+
     public void loadFromFile(String filePath) {
-        // Prompt 5: Register LocalDate adapter
-        Gson gson = new GsonBuilder()
-            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-            .create();
-        try (Reader reader = new FileReader(filePath)) {
-            DataWrapper wrapper = gson.fromJson(reader, DataWrapper.class);
-            if (wrapper != null) {
-                this.transactions = wrapper.transactions != null ? wrapper.transactions : new ArrayList<>();
-                this.categories = wrapper.categories != null ? wrapper.categories : new ArrayList<>();
-                this.spendingLimits = wrapper.spendingLimits != null ? wrapper.spendingLimits : new ArrayList<>();
-                
-                // JavaFX update: Link categories in transactions to the same objects in categories list
-                linkCategoriesInTransactions();
+        loadFromFile(filePath, null);
+    }
+
+    // Performance update: Streaming load into a fresh store; progress receives the fraction of bytes read.
+    // A journal left next to the file is replayed over it, and an open journal is closed first.
+    public void loadFromFile(String filePath, DoubleConsumer progress) {
+        writeLock.lock();
+        try {
+            closeJournal(true);
+            replaying = true;
+            try {
+                Path file = Path.of(filePath);
+                long journalSequence = readSnapshot(file, progress);
+                if (journalSequence >= 0) {
+                    LedgerJournal.replay(LedgerJournal.journalFileFor(file), this, journalSequence);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                replaying = false;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+        } finally {
+            unlockWrite();
         }
     }
-    
-    // JavaFX update: Link categories in transactions to the same objects in categories list
-    private void linkCategoriesInTransactions() {
-        for (Transaction transaction : transactions) {
-            if (transaction.getCategory() != null) {
-                // Find the matching category in the categories list
-                for (Category category : categories) {
-                    if (category.getName().equals(transaction.getCategory().getName()) && 
-                        category.getType() == transaction.getCategory().getType()) {
-                        // Replace the transaction's category with the one from the categories list
-                        transaction.setCategory(category);
-                        break;
-                    }
+
+    // Returns the snapshot's journal sequence, or -1 when the file holds no document
+    private long readSnapshot(Path file, DoubleConsumer progress) throws IOException {
+        TransactionStore loadedStore = newStore(storageMode);
+        // Performance update: Binary snapshots are recognized by their magic number
+        if (LedgerBinarySnapshot.isBinary(file)) {
+            LedgerBinarySnapshot snapshot = new LedgerBinarySnapshot(loadedStore);
+            if (!snapshot.read(file, progress)) {
+                return -1;
+            }
+            useLoaded(loadedStore, snapshot.getCategories(), snapshot.getSpendingLimits());
+            return snapshot.getJournalSequence();
+        }
+        LedgerJsonReader reader = new LedgerJsonReader(loadedStore);
+        if (!reader.read(file, progress)) {
+            return -1;
+        }
+        // JavaFX update: Categories were linked to the shared objects while parsing
+        useLoaded(loadedStore, reader.getCategories(), reader.getSpendingLimits());
+        return reader.getJournalSequence();
+    }
+
+    private void useLoaded(TransactionStore loadedStore, List<Category> loadedCategories,
+                           List<SpendingLimit> loadedLimits) {
+        this.store = loadedStore;
+        this.categories = loadedCategories;
+        limitEngine.replaceAll(loadedLimits);
+        rebuildIndexes();
+    }
+
+    // Performance update: Binary snapshot for fast startup; loadFromFile reads either format
+    public void saveBinarySnapshot(String filePath) {
+        writeLock.lock();
+        try {
+            try {
+                if (journal != null && journal.isFor(Path.of(filePath))) {
+                    journal.checkpointAsBinary(store, categories, getSpendingLimits());
+                } else {
+                    LedgerBinarySnapshot.write(Path.of(filePath), store, categories, getSpendingLimits(), 0);
                 }
+            } catch (IOException e) {
+                e.printStackTrace();
             }
+        } finally {
+            unlockWrite();
         }
-        
-        // Also link categories in spending limits
-        for (SpendingLimit limit : spendingLimits) {
-            if (limit.getCategory() != null) {
-                for (Category category : categories) {
-                    if (category.getName().equals(limit.getCategory().getName()) && 
-                        category.getType() == limit.getCategory().getType()) {
-                        limit.setCategory(category);
-                        break;
-                    }
+    }
+
+    // Performance update: Loads the file plus its journal, then appends every mutation to the journal.
+    // saveToFile on the same path then only forces the journal to disk, compacting it now and then.
+    public void openJournal(String filePath) {
+        openJournal(filePath, null);
+    }
+
+    // Performance update: Reports the snapshot's read progress from 0 to 1, e.g. to a background load
+    public void openJournal(String filePath, DoubleConsumer progress) {
+        writeLock.lock();
+        try {
+            closeJournal(true);
+            Path file = Path.of(filePath);
+            replaying = true;
+            try {
+                long journalSequence = Files.exists(file) ? readSnapshot(file, progress) : -1;
+                if (journalSequence < 0) {
+                    store = newStore(storageMode);
+                    categories = new ArrayList<>();
+                    limitEngine.replaceAll(List.of());
+                    rebuildIndexes();
+                    journalSequence = 0;
                 }
+                journal = LedgerJournal.open(file, this, journalSequence, store);
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                replaying = false;
             }
+        } finally {
+            unlockWrite();
         }
     }
 
-    // Prompt 2: Helper class for JSON serialization
-    private static class DataWrapper {
-        List<Transaction> transactions;
-        List<Category> categories;
-        List<SpendingLimit> spendingLimits;
-        DataWrapper(List<Transaction> transactions, List<Category> categories, List<SpendingLimit> spendingLimits) {
-            this.transactions = transactions;
-            this.categories = categories;
-            this.spendingLimits = spendingLimits;
+    // Performance update: Stops journaling; without keepUnsaved, changes since the last save are dropped from disk.
+    // An autosave checkpoint counts as a save, so only the changes made after it are dropped.
+    public void closeJournal(boolean keepUnsaved) {
+        writeLock.lock();
+        try {
+            if (journal == null) {
+                return;
+            }
+            try {
+                journal.close(keepUnsaved);
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                journal = null;
+            }
+        } finally {
+            unlockWrite();
         }
     }
 
-    // Prompt 5: LocalDate TypeAdapter for Gson
-    private static class LocalDateAdapter extends TypeAdapter<LocalDate> {
-        @Override
-        public void write(JsonWriter out, LocalDate value) throws IOException {
-            out.value(value != null ? value.toString() : null);
+    public boolean isJournalOpen() {
+        readLock.lock();
+        try {
+            return journal != null;
+        } finally {
+            readLock.unlock();
         }
-        @Override
-        public LocalDate read(JsonReader in) throws IOException {
-            String s = in.nextString();
-            return s != null ? LocalDate.parse(s) : null;
+    }
+
+    // Performance update: For autosave, from any thread. With a journal open for the target, makes its records
+    // durable as saveToFile does, rewriting the snapshot only when the journal has grown; returns false, and
+    // does nothing, when no journal is open for the target
+    boolean checkpointJournal(Path target) throws IOException {
+        if (!isJournalOpenFor(target)) {
+            return false;
+        }
+        save(target, false);
+        return true;
+    }
+
+    private boolean isJournalOpenFor(Path target) {
+        readLock.lock();
+        try {
+            return journal != null && journal.isFor(target);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Performance update: Background snapshots. Both calls belong on the thread that mutates the tracker;
+    // only LedgerSnapshot.write runs elsewhere.
+    LedgerSnapshot captureSnapshot(Path target) throws IOException {
+        writeLock.lock();
+        try {
+            LedgerJournal owner = journal != null && journal.isFor(target) ? journal : null;
+            LedgerSnapshot snapshot = LedgerSnapshot.capture(target, store, categories, getSpendingLimits(), owner, false);
+            snapshotsInFlight++;
+            return snapshot;
+        } finally {
+            unlockWrite();
+        }
+    }
+
+    void snapshotFinished(LedgerSnapshot snapshot, boolean written) {
+        writeLock.lock();
+        try {
+            snapshotsInFlight--;
+            if (written && snapshot.getJournal() == journal) {
+                try {
+                    snapshot.written();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            unlockWrite();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+// Performance update: Index and aggregate entries of one slice of a bulk add, built on a worker thread
+package com.example;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * FinanceTracker.addTransactions appends the rows to the store on the calling
+ * thread and then splits their ids into contiguous slices. Each slice is read
+ * by one worker into its own totals, per-day and per-category row lists and
+ * monthly aggregates, so workers never share a counter; the tracker merges the
+ * partitions once, in slice order, which keeps every row list ascending.
+ * Workers only read the store, while the tracker holds its write lock.
+ */
+class IngestPartition {
+    long incomeCents;
+    long expenseCents;
+    // Epoch day to ascending row ids
+    final Map<Integer, IntList> days = new HashMap<>();
+    // Ascending ids of the rows without a date
+    final IntList undated = new IntList();
+    // Indexed by CategoryRegistry id, ascending row ids
+    final List<IntList> categories = new ArrayList<>();
+    final Map<YearMonth, MonthlyAggregate> months = new HashMap<>();
+    // Epoch day to {income cents, expense cents}, for the day totals index
+    final Map<Integer, long[]> dayCents = new HashMap<>();
+
+    IngestPartition(TransactionStore store, int[] ids, int from, int to) {
+        int lastDay = TransactionStore.NO_DATE;
+        IntList dayRows = null;
+        long[] dayTotals = null;
+        MonthlyAggregate month = null;
+        for (int i = from; i < to; i++) {
+            int id = ids[i];
+            TransactionType type = store.type(id);
+            long cents = store.amountCents(id);
+            int categoryId = store.categoryId(id);
+            // Anything that is not income counts as expense, as in FinanceTracker.adjustRunningTotals
+            if (type == TransactionType.INCOME) {
+                incomeCents += cents;
+            } else {
+                expenseCents += cents;
+            }
+            while (categories.size() <= categoryId) {
+                categories.add(new IntList());
+            }
+            categories.get(categoryId).add(id);
+            int day = store.epochDay(id);
+            if (day == TransactionStore.NO_DATE) {
+                undated.add(id);
+                continue;
+            }
+            // Imports tend to come in date order, so consecutive rows usually share the lookups
+            if (day != lastDay) {
+                dayRows = days.computeIfAbsent(day, d -> new IntList());
+                dayTotals = dayCents.computeIfAbsent(day, d -> new long[2]);
+                month = months.computeIfAbsent(YearMonth.from(LocalDate.ofEpochDay(day)), m -> new MonthlyAggregate());
+                lastDay = day;
+            }
+            dayRows.add(id);
+            dayTotals[type == TransactionType.INCOME ? 0 : 1] += cents;
+            month.add(type, cents, categoryId);
+        }
+    }
+}
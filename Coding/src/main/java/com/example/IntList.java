@@ -0,0 +1,179 @@
+// Performance update: Growable primitive int list used for index postings
+package com.example;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+class IntList {
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    void addAll(IntList other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(size + other.size, size * 2));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+    }
+
+    int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return values[index];
+    }
+
+    void set(int index, int value) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        values[index] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Removes the first occurrence of the value, keeping the order of the rest
+    boolean removeValue(int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Sorted postings: inserts keeping ascending order; appending past the end is the common case
+    void addSorted(int value) {
+        if (size == 0 || values[size - 1] < value) {
+            add(value);
+            return;
+        }
+        int at = Arrays.binarySearch(values, 0, size, value);
+        if (at < 0) {
+            at = -at - 1;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, at, values, at + 1, size - at);
+        values[at] = value;
+        size++;
+    }
+
+    // Sorted postings: removes the value found by binary search
+    boolean removeSorted(int value) {
+        int at = Arrays.binarySearch(values, 0, size, value);
+        if (at < 0) {
+            return false;
+        }
+        System.arraycopy(values, at + 1, values, at, size - at - 1);
+        size--;
+        return true;
+    }
+
+    // Sorted postings: membership by binary search
+    boolean containsSorted(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    // Merges two ascending lists into a new ascending list
+    static IntList mergeSorted(IntList a, IntList b) {
+        IntList merged = new IntList(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            merged.values[merged.size++] = a.values[i] <= b.values[j] ? a.values[i++] : b.values[j++];
+        }
+        while (i < a.size) {
+            merged.values[merged.size++] = a.values[i++];
+        }
+        while (j < b.size) {
+            merged.values[merged.size++] = b.values[j++];
+        }
+        return merged;
+    }
+
+    // Merges any number of ascending lists in one pass over a min-heap of their heads: O(n log k) for n values in k lists
+    static IntList mergeAllSorted(Collection<IntList> lists) {
+        IntList[] sources = lists.toArray(new IntList[0]);
+        int total = 0;
+        for (IntList list : sources) {
+            total += list.size;
+        }
+        IntList merged = new IntList(total);
+        int[] positions = new int[sources.length];
+        // heap holds the indexes of the sources not yet used up, ordered by their next value
+        int[] heap = new int[sources.length];
+        int heapSize = 0;
+        for (int source = 0; source < sources.length; source++) {
+            if (sources[source].size > 0) {
+                heap[heapSize++] = source;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i, sources, positions);
+        }
+        while (heapSize > 0) {
+            int source = heap[0];
+            merged.values[merged.size++] = sources[source].values[positions[source]++];
+            if (positions[source] == sources[source].size) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(heap, heapSize, 0, sources, positions);
+        }
+        return merged;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int at, IntList[] sources, int[] positions) {
+        while (true) {
+            int smallest = at;
+            for (int child = 2 * at + 1; child <= 2 * at + 2 && child < heapSize; child++) {
+                if (head(heap[child], sources, positions) < head(heap[smallest], sources, positions)) {
+                    smallest = child;
+                }
+            }
+            if (smallest == at) {
+                return;
+            }
+            int swap = heap[at];
+            heap[at] = heap[smallest];
+            heap[smallest] = swap;
+            at = smallest;
+        }
+    }
+
+    private static int head(int source, IntList[] sources, int[] positions) {
+        return sources[source].values[positions[source]];
+    }
+
+    void sort() {
+        Arrays.sort(values, 0, size);
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
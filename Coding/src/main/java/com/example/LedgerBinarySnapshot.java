@@ -0,0 +1,410 @@
+// Performance update: Versioned binary snapshot, loaded through a memory-mapped file
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleConsumer;
+import java.util.zip.CRC32C;
+
+/*
+ * Little-endian layout:
+ *
+ *   header        magic "FTLB", version (short), flags (short), journal sequence (long)
+ *   transactions  24 bytes each: amount cents (long), epoch day (int), category (int),
+ *                 description (int), type (byte), 3 bytes padding
+ *   categories    8 bytes each: name (int), type (byte), 3 bytes padding; the
+ *                 listed categories come first, then unlisted ones that rows refer to
+ *   limits        24 bytes each: category (int), padding (int), limit cents (long),
+ *                 spent cents (long)
+ *   strings       UTF-8 data, then one int offset per string plus the end offset
+ *   footer        section offsets and counts, CRC32C of every byte before it, magic "FTLE"
+ *
+ * Strings, categories and types are referenced by index, with -1 for null.
+ * The reader maps the whole file into one buffer, so a file is at most
+ * MAX_FILE_SIZE bytes; write saves a larger ledger as compact JSON instead,
+ * which loadFromFile tells apart by the magic number.
+ */
+class LedgerBinarySnapshot {
+    static final int MAGIC = 0x424C5446;          // "FTLB" read little-endian
+    private static final int FOOTER_MAGIC = 0x454C5446; // "FTLE"
+    static final short VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int FOOTER_SIZE = 5 * 8 + 7 * 4;
+    private static final int TRANSACTION_SIZE = 24;
+    private static final int CATEGORY_SIZE = 8;
+    private static final int LIMIT_SIZE = 24;
+    private static final int UNRESOLVED = -2;
+    // What one MappedByteBuffer can hold
+    static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final CategoryType[] CATEGORY_TYPES = CategoryType.values();
+
+    private final TransactionStore store;
+    private final List<Category> categories = new ArrayList<>();
+    private final List<SpendingLimit> spendingLimits = new ArrayList<>();
+    private long journalSequence;
+
+    LedgerBinarySnapshot(TransactionStore store) {
+        this.store = store;
+    }
+
+    List<Category> getCategories() {
+        return categories;
+    }
+
+    List<SpendingLimit> getSpendingLimits() {
+        return spendingLimits;
+    }
+
+    long getJournalSequence() {
+        return journalSequence;
+    }
+
+    static boolean isBinary(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < 4) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            return channel.read(magic, 0) == 4 && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    // Reading
+
+    boolean read(Path file, DoubleConsumer progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return false;
+            }
+            if (size < HEADER_SIZE + FOOTER_SIZE || size > MAX_FILE_SIZE) {
+                throw new IOException("Not a ledger snapshot: " + size + " bytes");
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            decode(map, (int) size, progress);
+            return true;
+        }
+    }
+
+    private void decode(ByteBuffer map, int size, DoubleConsumer progress) throws IOException {
+        if (map.getInt(0) != MAGIC || map.getInt(size - 4) != FOOTER_MAGIC) {
+            throw new IOException("Not a ledger snapshot");
+        }
+        short version = map.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(map.duplicate().position(0).limit(size - 8));
+        if ((int) crc.getValue() != map.getInt(size - 8)) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        journalSequence = map.getLong(8);
+
+        int footer = size - FOOTER_SIZE;
+        int transactionsOffset = (int) map.getLong(footer);
+        int categoriesOffset = (int) map.getLong(footer + 8);
+        int limitsOffset = (int) map.getLong(footer + 16);
+        int stringDataOffset = (int) map.getLong(footer + 24);
+        int stringOffsetsOffset = (int) map.getLong(footer + 32);
+        int transactionCount = map.getInt(footer + 40);
+        int categoryCount = map.getInt(footer + 44);
+        int listedCount = map.getInt(footer + 48);
+        int limitCount = map.getInt(footer + 52);
+        int stringCount = map.getInt(footer + 56);
+
+        // One bulk copy of the string data; each string is then decoded from the array
+        byte[] stringData = new byte[stringOffsetsOffset - stringDataOffset];
+        map.get(stringDataOffset, stringData);
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            int from = map.getInt(stringOffsetsOffset + 4 * i);
+            int to = map.getInt(stringOffsetsOffset + 4 * (i + 1));
+            strings[i] = new String(stringData, from, to - from, StandardCharsets.UTF_8);
+        }
+
+        Category[] table = new Category[categoryCount];
+        for (int i = 0; i < categoryCount; i++) {
+            int at = categoriesOffset + i * CATEGORY_SIZE;
+            table[i] = new Category(string(strings, map.getInt(at)), categoryType(map.get(at + 4)));
+            if (i < listedCount) {
+                categories.add(table[i]);
+            }
+        }
+
+        int reportEvery = Math.max(1, transactionCount / 100);
+        int lastDay = TransactionStore.NO_DATE;
+        LocalDate lastDate = null;
+        for (int i = 0; i < transactionCount; i++) {
+            int at = transactionsOffset + i * TRANSACTION_SIZE;
+            int day = map.getInt(at + 8);
+            if (day != lastDay) {
+                lastDate = day != TransactionStore.NO_DATE ? LocalDate.ofEpochDay(day) : null;
+                lastDay = day;
+            }
+            int category = map.getInt(at + 12);
+            byte type = map.get(at + 20);
+            Transaction t = new Transaction(string(strings, map.getInt(at + 16)), 0, lastDate,
+                type >= 0 ? TYPES[type] : null, category >= 0 ? table[category] : null);
+            t.setAmountCents(map.getLong(at));
+            store.add(t);
+            if (progress != null && i % reportEvery == 0) {
+                progress.accept((double) i / transactionCount);
+            }
+        }
+
+        for (int i = 0; i < limitCount; i++) {
+            int at = limitsOffset + i * LIMIT_SIZE;
+            int category = map.getInt(at);
+            SpendingLimit limit = new SpendingLimit(category >= 0 ? table[category] : null, 0);
+            limit.setMonthlyLimitCents(map.getLong(at + 8));
+            limit.setCurrentSpentCents(map.getLong(at + 16));
+            spendingLimits.add(limit);
+        }
+        if (progress != null) {
+            progress.accept(1.0);
+        }
+    }
+
+    private static String string(String[] strings, int index) {
+        return index >= 0 ? strings[index] : null;
+    }
+
+    private static CategoryType categoryType(byte ordinal) {
+        return ordinal >= 0 ? CATEGORY_TYPES[ordinal] : null;
+    }
+
+    // Writing
+
+    static void write(Path file, TransactionStore store, List<Category> categories,
+                      List<SpendingLimit> spendingLimits, long journalSequence) throws IOException {
+        write(file, store, categories, spendingLimits, journalSequence, MAX_FILE_SIZE);
+    }
+
+    // Falls back to compact JSON once the binary file would pass maxFileSize bytes
+    static void write(Path file, TransactionStore store, List<Category> categories,
+                      List<SpendingLimit> spendingLimits, long journalSequence, long maxFileSize) throws IOException {
+        try {
+            writeBinary(file, store, categories, spendingLimits, journalSequence, maxFileSize);
+        } catch (TooLargeException e) {
+            LedgerJsonWriter.write(file, true, store, categories, spendingLimits, journalSequence);
+        }
+    }
+
+    private static void writeBinary(Path file, TransactionStore store, List<Category> categories,
+                                    List<SpendingLimit> spendingLimits, long journalSequence,
+                                    long maxFileSize) throws IOException {
+        // Listed categories first; unlisted ones are numbered as rows and limits reach them
+        LedgerTypeAdapters.CategoryTable ids = new LedgerTypeAdapters.CategoryTable();
+        List<Category> table = new ArrayList<>(categories);
+        ids.assignAll(categories);
+        // Performance update: File ids are resolved once per registry id, rows then map through an array
+        CategoryRegistry registry = store.categoryRegistry();
+        int[] fileIds = new int[registry.size()];
+        Arrays.fill(fileIds, UNRESOLVED);
+        fileIds[CategoryRegistry.NONE] = -1;
+        for (int id = 0; id < store.capacity(); id++) {
+            if (store.isLive(id) && fileIds[store.categoryId(id)] == UNRESOLVED) {
+                Category category = registry.get(store.categoryId(id));
+                addUnlisted(ids, table, category);
+                fileIds[store.categoryId(id)] = ids.idOf(category);
+            }
+        }
+        for (SpendingLimit limit : spendingLimits) {
+            addUnlisted(ids, table, limit.getCategory());
+        }
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ChecksumWriter out = new ChecksumWriter(channel, maxFileSize);
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putShort((short) 0);
+            out.putLong(journalSequence);
+
+            long transactionsOffset = out.position();
+            for (int id = 0; id < store.capacity(); id++) {
+                if (store.isLive(id)) {
+                    TransactionType type = store.type(id);
+                    out.putLong(store.amountCents(id));
+                    out.putInt(store.epochDay(id));
+                    out.putInt(fileIds[store.categoryId(id)]);
+                    out.putInt(stringId(stringIds, strings, store.description(id)));
+                    out.putInt(type != null ? type.ordinal() : 0xFF);
+                }
+            }
+
+            long categoriesOffset = out.position();
+            for (Category category : table) {
+                out.putInt(stringId(stringIds, strings, category.getName()));
+                out.putInt(category.getType() != null ? category.getType().ordinal() : 0xFF);
+            }
+
+            long limitsOffset = out.position();
+            for (SpendingLimit limit : spendingLimits) {
+                out.putInt(limit.getCategory() != null ? ids.idOf(limit.getCategory()) : -1);
+                out.putInt(0);
+                out.putLong(limit.getMonthlyLimitCents());
+                out.putLong(limit.getCurrentSpentCents());
+            }
+
+            long stringDataOffset = out.position();
+            int[] offsets = new int[strings.size() + 1];
+            for (int i = 0; i < strings.size(); i++) {
+                byte[] bytes = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                out.putBytes(bytes);
+                offsets[i + 1] = offsets[i] + bytes.length;
+            }
+            long stringOffsetsOffset = out.position();
+            for (int offset : offsets) {
+                out.putInt(offset);
+            }
+
+            out.putLong(transactionsOffset);
+            out.putLong(categoriesOffset);
+            out.putLong(limitsOffset);
+            out.putLong(stringDataOffset);
+            out.putLong(stringOffsetsOffset);
+            out.putInt(store.size());
+            out.putInt(table.size());
+            out.putInt(categories.size());
+            out.putInt(spendingLimits.size());
+            out.putInt(strings.size());
+            out.putInt((int) out.checksum());
+            out.putInt(FOOTER_MAGIC);
+            out.flush();
+        }
+    }
+
+    private static void addUnlisted(LedgerTypeAdapters.CategoryTable ids, List<Category> table, Category category) {
+        if (category != null && ids.idOf(category) < 0) {
+            ids.assign(category);
+            table.add(category);
+        }
+    }
+
+    private static int stringId(Map<String, Integer> stringIds, List<String> strings, String value) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = stringIds.putIfAbsent(value, strings.size());
+        if (id == null) {
+            strings.add(value);
+            return strings.size() - 1;
+        }
+        return id;
+    }
+
+    // Converters between the JSON file layout and this format
+
+    static void convertFromJson(Path json, Path binary) throws IOException {
+        TransactionStore store = new ColumnarTransactionStore();
+        LedgerJsonReader reader = new LedgerJsonReader(store);
+        if (!reader.read(json, null)) {
+            throw new IOException("No ledger in " + json);
+        }
+        write(binary, store, reader.getCategories(), reader.getSpendingLimits(), reader.getJournalSequence());
+    }
+
+    static void convertToJson(Path binary, Path json, boolean compact) throws IOException {
+        TransactionStore store = new ColumnarTransactionStore();
+        LedgerBinarySnapshot snapshot = new LedgerBinarySnapshot(store);
+        if (!snapshot.read(binary, null)) {
+            throw new IOException("No ledger in " + binary);
+        }
+        LedgerJsonWriter.write(json, compact, store, snapshot.getCategories(), snapshot.getSpendingLimits(),
+            snapshot.getJournalSequence());
+    }
+
+    // Thrown by the writer past its size bound, before the reader could fail on the file
+    private static class TooLargeException extends IOException {
+        TooLargeException(long size) {
+            super("Snapshot over " + size + " bytes");
+        }
+    }
+
+    // Buffered little-endian output that checksums everything it writes, up to maxSize bytes
+    private static class ChecksumWriter {
+        private final FileChannel channel;
+        private final long maxSize;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+        private long written;
+
+        ChecksumWriter(FileChannel channel, long maxSize) {
+            this.channel = channel;
+            this.maxSize = maxSize;
+        }
+
+        long position() {
+            return written + buffer.position();
+        }
+
+        void putShort(short value) throws IOException {
+            ensure(2);
+            buffer.putShort(value);
+        }
+
+        void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, n);
+                offset += n;
+            }
+        }
+
+        // Covers every byte put so far
+        long checksum() throws IOException {
+            flush();
+            return crc.getValue();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        // Every byte passes through here, the footer's last ones included
+        void flush() throws IOException {
+            if (position() > maxSize) {
+                throw new TooLargeException(maxSize);
+            }
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,472 @@
+// Performance update: Append-only mutation journal next to the JSON snapshot
+package com.example;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/*
+ * Every mutation is appended to "<data file>.journal" as one JSON line when it
+ * happens, so a save only has to force those bytes to disk. Once the journal
+ * outgrows half of the snapshot, a save writes a fresh snapshot (temp file plus
+ * rename) and truncates the journal, which keeps the amortized cost of a save
+ * proportional to the change.
+ *
+ * Records name transactions by key: the position of the row in the snapshot,
+ * then one new key per add. Keys survive store compaction, so the journal can
+ * be replayed into either storage backend. Each record carries a sequence
+ * number and the snapshot stores the last one it includes, so records left
+ * behind by a crash between the rename and the truncate are skipped.
+ */
+class LedgerJournal {
+    static final String SUFFIX = ".journal";
+    private static final long MIN_COMPACTION_BYTES = 64 * 1024;
+
+    private final Path snapshotFile;
+    private FileChannel channel;
+    private final LedgerTypeAdapters.CategoryTable table = new LedgerTypeAdapters.CategoryTable();
+    private final LedgerTypeAdapters.TransactionAdapter transactionAdapter = new LedgerTypeAdapters.TransactionAdapter(table);
+
+    // Journal key of each store row, or -1 for removed rows
+    private IntList keyOfRow;
+    private int nextKey;
+    private long sequence;
+    private long length;
+    private long savedLength;
+    private long snapshotLength;
+    // Snapshots keep the format the data file already has
+    private boolean binary;
+    private boolean failed;
+    // Bumped whenever the journal is cut or abandoned; a background snapshot from an older
+    // generation is stale and must neither replace the data file nor cut the journal
+    private volatile int generation;
+
+    private LedgerJournal(Path snapshotFile, FileChannel channel, Replay replay, TransactionStore store) throws IOException {
+        this.snapshotFile = snapshotFile;
+        this.channel = channel;
+        this.sequence = replay.sequence;
+        // A torn last record from a crash is cut off before anything new is appended
+        channel.truncate(replay.validLength);
+        channel.position(replay.validLength);
+        this.length = replay.validLength;
+        this.savedLength = replay.validLength;
+        this.snapshotLength = Files.exists(snapshotFile) ? Files.size(snapshotFile) : 0;
+        this.binary = LedgerBinarySnapshot.isBinary(snapshotFile);
+        this.keyOfRow = new IntList(Math.max(store.capacity(), 16));
+        for (int id = 0; id < store.capacity(); id++) {
+            keyOfRow.add(-1);
+        }
+        for (int key = 0; key < replay.rowsByKey.size(); key++) {
+            Transaction t = replay.rowsByKey.get(key);
+            if (t != null) {
+                keyOfRow.set(t.getId(), key);
+            }
+        }
+        this.nextKey = replay.rowsByKey.size();
+    }
+
+    static Path journalFileFor(Path snapshotFile) {
+        return snapshotFile.resolveSibling(snapshotFile.getFileName() + SUFFIX);
+    }
+
+    // Replays any existing journal into the tracker and starts appending to it
+    static LedgerJournal open(Path snapshotFile, FinanceTracker tracker, long snapshotSequence,
+                              TransactionStore store) throws IOException {
+        Replay replay = replay(journalFileFor(snapshotFile), tracker, snapshotSequence);
+        FileChannel channel = FileChannel.open(journalFileFor(snapshotFile),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new LedgerJournal(snapshotFile, channel, replay, store);
+    }
+
+    boolean isFor(Path file) {
+        return snapshotFile.toAbsolutePath().normalize().equals(file.toAbsolutePath().normalize());
+    }
+
+    // Bytes appended since the last snapshot
+    long length() {
+        return length;
+    }
+
+    // Recording; the category table is refreshed from the current list so ids match on replay
+
+    void recordAdd(int row, Transaction transaction, List<Category> categories) {
+        while (keyOfRow.size() <= row) {
+            keyOfRow.add(-1);
+        }
+        int key = nextKey++;
+        keyOfRow.set(row, key);
+        append(categories, out -> {
+            out.name("op").value("add");
+            out.name("key").value(key);
+            out.name("transaction");
+            transactionAdapter.write(out, transaction);
+        });
+    }
+
+    void recordUpdate(int row, Transaction transaction, List<Category> categories) {
+        int key = keyOfRow.get(row);
+        append(categories, out -> {
+            out.name("op").value("update");
+            out.name("key").value(key);
+            out.name("transaction");
+            transactionAdapter.write(out, transaction);
+        });
+    }
+
+    void recordRemove(int row) {
+        int key = keyOfRow.get(row);
+        keyOfRow.set(row, -1);
+        append(null, out -> {
+            out.name("op").value("remove");
+            out.name("key").value(key);
+        });
+    }
+
+    // The list store closes gaps by dropping removed rows in order, so the keys do the same
+    void rowsCompacted() {
+        IntList compacted = new IntList(Math.max(keyOfRow.size(), 16));
+        for (int i = 0; i < keyOfRow.size(); i++) {
+            if (keyOfRow.get(i) >= 0) {
+                compacted.add(keyOfRow.get(i));
+            }
+        }
+        keyOfRow = compacted;
+    }
+
+    void recordAddCategory(Category category) {
+        append(null, out -> {
+            out.name("op").value("addCategory");
+            out.name("category").beginObject();
+            LedgerTypeAdapters.writeFields(out, category);
+            out.endObject();
+        });
+    }
+
+    void recordRenameCategory(Category category, String newName, List<Category> categories) {
+        append(categories, out -> {
+            out.name("op").value("renameCategory");
+            LedgerTypeAdapters.writeCategoryReference(out, table, category);
+            out.name("name").value(newName);
+        });
+    }
+
+    void recordDeleteCategory(Category category, List<Category> categories) {
+        append(categories, out -> {
+            out.name("op").value("deleteCategory");
+            LedgerTypeAdapters.writeCategoryReference(out, table, category);
+        });
+    }
+
+    void recordSetLimit(Category category, long limitCents, List<Category> categories) {
+        append(categories, out -> {
+            out.name("op").value("setLimit");
+            LedgerTypeAdapters.writeCategoryReference(out, table, category);
+            out.name("limit").jsonValue(Money.toPlainString(limitCents));
+        });
+    }
+
+    void recordRemoveLimit(Category category, List<Category> categories) {
+        append(categories, out -> {
+            out.name("op").value("removeLimit");
+            LedgerTypeAdapters.writeCategoryReference(out, table, category);
+        });
+    }
+
+    private interface RecordBody {
+        void write(JsonWriter out) throws IOException;
+    }
+
+    private void append(List<Category> categories, RecordBody body) {
+        if (failed) {
+            return;
+        }
+        if (categories != null) {
+            table.assignAll(categories);
+        }
+        try {
+            StringWriter text = new StringWriter(128);
+            try (JsonWriter out = new JsonWriter(text)) {
+                out.beginObject();
+                out.name("seq").value(++sequence);
+                body.write(out);
+                out.endObject();
+            }
+            text.append('\n');
+            ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                length += channel.write(bytes);
+            }
+        } catch (IOException e) {
+            // The next save writes a full snapshot instead of trusting a partial journal
+            failed = true;
+            e.printStackTrace();
+        }
+    }
+
+    // Makes everything recorded so far durable; rewrites the snapshot once the journal is large,
+    // unless a background snapshot of this file is already being written
+    void checkpoint(TransactionStore store, List<Category> categories, List<SpendingLimit> spendingLimits,
+                    boolean compact, boolean snapshotAllowed) throws IOException {
+        if (snapshotDue() && snapshotAllowed) {
+            writeSnapshot(store, categories, spendingLimits, compact);
+        } else {
+            channel.force(false);
+        }
+        savedLength = length;
+    }
+
+    boolean snapshotDue() {
+        return failed || !Files.exists(snapshotFile) || length > Math.max(MIN_COMPACTION_BYTES, snapshotLength / 2);
+    }
+
+    // Only a rewrite under the lock recovers from a failed append; a rebased snapshot would not cut the journal
+    boolean hasFailed() {
+        return failed;
+    }
+
+    // Writes a binary snapshot now; later compactions keep that format
+    void checkpointAsBinary(TransactionStore store, List<Category> categories,
+                            List<SpendingLimit> spendingLimits) throws IOException {
+        binary = true;
+        writeSnapshot(store, categories, spendingLimits, true);
+        savedLength = length;
+    }
+
+    private void writeSnapshot(TransactionStore store, List<Category> categories, List<SpendingLimit> spendingLimits,
+                               boolean compact) throws IOException {
+        synchronized (this) {
+            LedgerSnapshot.replaceAtomically(snapshotFile, ".tmp", temp -> {
+                if (binary) {
+                    LedgerBinarySnapshot.write(temp, store, categories, spendingLimits, sequence);
+                } else {
+                    LedgerJsonWriter.write(temp, compact, store, categories, spendingLimits, sequence);
+                }
+            });
+            generation++;
+        }
+        snapshotLength = Files.size(snapshotFile);
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(false);
+        length = 0;
+        failed = false;
+        renumberKeys(store);
+    }
+
+    // A reload numbers the live rows densely in row order
+    private void renumberKeys(TransactionStore store) {
+        int key = 0;
+        for (int id = 0; id < keyOfRow.size(); id++) {
+            keyOfRow.set(id, store.isLive(id) ? key++ : -1);
+        }
+        nextKey = key;
+    }
+
+    /*
+     * For a snapshot written in the background: from this record on, keys are
+     * numbered the way a load of that snapshot numbers the rows, and replay
+     * renumbers at the same point. Returns the sequence number the snapshot
+     * must carry.
+     */
+    long recordRebase(TransactionStore store) {
+        renumberKeys(store);
+        append(null, out -> out.name("op").value("rebase"));
+        return sequence;
+    }
+
+    int generation() {
+        return generation;
+    }
+
+    // Renames a background snapshot into place unless the journal moved on while it was written
+    synchronized boolean publish(Path temp, int snapshotGeneration) throws IOException {
+        if (snapshotGeneration != generation) {
+            return false;
+        }
+        LedgerSnapshot.moveOver(temp, snapshotFile);
+        return true;
+    }
+
+    // Once a background snapshot is in place, the records it contains are cut from the front
+    void dropThrough(long offset, int snapshotGeneration) throws IOException {
+        if (snapshotGeneration != generation || failed || offset <= 0) {
+            return;
+        }
+        snapshotLength = Files.size(snapshotFile);
+        ByteBuffer tail = ByteBuffer.allocate((int) (length - offset));
+        while (tail.hasRemaining() && channel.read(tail, offset + tail.position()) >= 0) {
+            // read until the tail is complete
+        }
+        tail.flip();
+        Path journalFile = journalFileFor(snapshotFile);
+        LedgerSnapshot.replaceAtomically(journalFile, ".tmp", temp -> Files.write(temp, toArray(tail)));
+        channel.close();
+        channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        length -= offset;
+        savedLength = Math.max(savedLength - offset, 0);
+        synchronized (this) {
+            generation++;
+        }
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    // Closes the journal; unless kept, records made since the last checkpoint are dropped
+    void close(boolean keepUnsaved) throws IOException {
+        synchronized (this) {
+            generation++;
+        }
+        try {
+            if (!keepUnsaved && !failed) {
+                channel.truncate(savedLength);
+            }
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Replay
+
+    static class Replay {
+        final List<Transaction> rowsByKey;
+        long sequence;
+        long validLength;
+
+        Replay(List<Transaction> rowsByKey, long sequence) {
+            this.rowsByKey = rowsByKey;
+            this.sequence = sequence;
+        }
+    }
+
+    // Applies the records newer than the snapshot through the tracker's own mutation methods
+    static Replay replay(Path journalFile, FinanceTracker tracker, long snapshotSequence) throws IOException {
+        Replay replay = new Replay(new ArrayList<>(tracker.getTransactions()), snapshotSequence);
+        if (!Files.exists(journalFile)) {
+            return replay;
+        }
+        LedgerTypeAdapters.CategoryTable table = new LedgerTypeAdapters.CategoryTable();
+        LedgerTypeAdapters.TransactionAdapter adapter = new LedgerTypeAdapters.TransactionAdapter(table);
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(
+                Files.newInputStream(journalFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    replay.validLength += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                    continue;
+                }
+                try {
+                    table.assignAll(tracker.getCategories());
+                    applyRecord(line, tracker, replay, table, adapter);
+                } catch (IOException | RuntimeException e) {
+                    // Anything after a torn or unreadable record is not trusted
+                    System.err.println("Warning: journal replay stopped at byte " + replay.validLength + ": " + e);
+                    break;
+                }
+                replay.validLength += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+        }
+        return replay;
+    }
+
+    private static void applyRecord(String line, FinanceTracker tracker, Replay replay,
+                                    LedgerTypeAdapters.CategoryTable table,
+                                    LedgerTypeAdapters.TransactionAdapter adapter) throws IOException {
+        long seq = -1;
+        String op = null;
+        int key = -1;
+        Transaction transaction = null;
+        Category category = null;
+        String name = null;
+        long limitCents = 0;
+        try (JsonReader in = new JsonReader(new StringReader(line))) {
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "seq" -> seq = in.nextLong();
+                    case "op" -> op = in.nextString();
+                    case "key" -> key = in.nextInt();
+                    case "transaction" -> transaction = adapter.read(in);
+                    case "categoryId" -> category = table.byId(in.nextInt());
+                    case "category" -> category = table.shared(LedgerTypeAdapters.readCategoryFields(in));
+                    case "name" -> name = in.nextString();
+                    case "limit" -> limitCents = Money.parseCents(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        }
+        if (op == null || seq < 0) {
+            throw new IOException("Incomplete journal record");
+        }
+        if (seq <= replay.sequence) {
+            // Already contained in the snapshot
+            return;
+        }
+        List<Transaction> rows = replay.rowsByKey;
+        switch (op) {
+            case "add" -> {
+                if (key != rows.size() || transaction == null) {
+                    throw new IOException("Journal add out of step at key " + key);
+                }
+                tracker.addTransaction(transaction);
+                rows.add(transaction);
+            }
+            case "update" -> {
+                Transaction row = liveRow(rows, key);
+                if (transaction == null) {
+                    throw new IOException("Journal update without a transaction");
+                }
+                tracker.updateTransaction(row, transaction.getDescription(), transaction.getAmount(),
+                    transaction.getDate(), transaction.getType(), transaction.getCategory());
+            }
+            case "remove" -> {
+                tracker.removeTransaction(liveRow(rows, key));
+                rows.set(key, null);
+            }
+            case "addCategory" -> tracker.addCategory(listedOrNew(tracker.getCategories(), category));
+            case "renameCategory" -> tracker.renameCategory(category, name);
+            case "deleteCategory" -> tracker.deleteCategory(category);
+            case "setLimit" -> tracker.setSpendingLimit(category, Money.toAmount(limitCents));
+            case "removeLimit" -> tracker.removeSpendingLimit(category);
+            case "rebase" -> rows.removeIf(Objects::isNull);
+            default -> throw new IOException("Unknown journal operation " + op);
+        }
+        replay.sequence = seq;
+    }
+
+    private static Transaction liveRow(List<Transaction> rows, int key) throws IOException {
+        if (key < 0 || key >= rows.size() || rows.get(key) == null) {
+            throw new IOException("Journal refers to missing row " + key);
+        }
+        return rows.get(key);
+    }
+
+    // An added category is a new object unless earlier records already referred to it unlisted
+    private static Category listedOrNew(List<Category> categories, Category shared) {
+        for (Category listed : categories) {
+            if (listed == shared) {
+                return new Category(shared.getName(), shared.getType());
+            }
+        }
+        return shared;
+    }
+}
@@ -0,0 +1,139 @@
+// Performance update: Streaming loader for finance_data.json
+package com.example;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+/*
+ * Parses the ledger file token by token and appends each transaction to the
+ * target store as soon as it is read, so no intermediate object graph is built.
+ * Categories embedded in transactions and limits are resolved through a
+ * (type, name) hash lookup while parsing, which replaces the old nested-loop
+ * relinking; in the older embedded layout the categories array may come before
+ * or after the transactions, while "categoryId" references need it first.
+ */
+class LedgerJsonReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionStore store;
+    private final LedgerTypeAdapters.CategoryTable categoryTable = new LedgerTypeAdapters.CategoryTable();
+    private final LedgerTypeAdapters.CategoryAdapter categoryAdapter = new LedgerTypeAdapters.CategoryAdapter(categoryTable);
+    private final LedgerTypeAdapters.TransactionAdapter transactionAdapter = new LedgerTypeAdapters.TransactionAdapter(categoryTable);
+    private final LedgerTypeAdapters.SpendingLimitAdapter limitAdapter = new LedgerTypeAdapters.SpendingLimitAdapter(categoryTable);
+    private final List<SpendingLimit> spendingLimits = new ArrayList<>();
+    private long journalSequence;
+
+    LedgerJsonReader(TransactionStore store) {
+        this.store = store;
+    }
+
+    List<Category> getCategories() {
+        return categoryTable.getListedCategories();
+    }
+
+    List<SpendingLimit> getSpendingLimits() {
+        return spendingLimits;
+    }
+
+    long getJournalSequence() {
+        return journalSequence;
+    }
+
+    // Returns false when the file holds no document, matching the old null-wrapper case
+    boolean read(Path file, DoubleConsumer progress) throws IOException {
+        long size = Files.size(file);
+        if (size == 0) {
+            return false;
+        }
+        try (CountingInputStream counting = new CountingInputStream(Files.newInputStream(file), size, progress);
+             JsonReader in = new JsonReader(new BufferedReader(
+                 new InputStreamReader(counting, StandardCharsets.UTF_8), BUFFER_SIZE))) {
+            if (in.peek() == JsonToken.NULL) {
+                return false;
+            }
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "transactions" -> readArray(in, () -> store.add(transactionAdapter.read(in)));
+                    case "categories" -> readArray(in, () -> categoryAdapter.read(in));
+                    case "spendingLimits" -> readArray(in, () -> spendingLimits.add(limitAdapter.read(in)));
+                    case "journalSequence" -> journalSequence = in.nextLong();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (progress != null) {
+                progress.accept(1.0);
+            }
+            return true;
+        }
+    }
+
+    private interface ElementReader {
+        void read() throws IOException;
+    }
+
+    private static void readArray(JsonReader in, ElementReader element) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            element.read();
+        }
+        in.endArray();
+    }
+
+    // Reports the fraction of the file consumed, at most once per percent
+    private static class CountingInputStream extends FilterInputStream {
+        private final long total;
+        private final DoubleConsumer progress;
+        private long count;
+        private long nextReport;
+
+        CountingInputStream(InputStream in, long total, DoubleConsumer progress) {
+            super(in);
+            this.total = total;
+            this.progress = progress;
+            this.nextReport = total / 100;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                advance(n);
+            }
+            return n;
+        }
+
+        private void advance(int n) {
+            count += n;
+            if (progress != null && count >= nextReport && count < total) {
+                progress.accept((double) count / total);
+                nextReport = count + total / 100;
+            }
+        }
+    }
+}
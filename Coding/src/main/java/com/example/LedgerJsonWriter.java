@@ -0,0 +1,72 @@
+// Performance update: Streaming writer for finance_data.json
+package com.example;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/*
+ * Writes the ledger straight from the store through a buffered JsonWriter, with
+ * no intermediate wrapper or reflective pass. Categories go first so that
+ * transactions and limits can refer to them by id. Compact output drops the
+ * indentation; pretty output keeps the two-space layout of the old files.
+ */
+class LedgerJsonWriter {
+    static final int FORMAT_VERSION = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private LedgerJsonWriter() {
+    }
+
+    static void write(Path file, boolean compact, TransactionStore store, List<Category> categories,
+                      List<SpendingLimit> spendingLimits) throws IOException {
+        write(file, compact, store, categories, spendingLimits, 0);
+    }
+
+    // journalSequence is the last journal record the snapshot contains, or 0 without a journal
+    static void write(Path file, boolean compact, TransactionStore store, List<Category> categories,
+                      List<SpendingLimit> spendingLimits, long journalSequence) throws IOException {
+        LedgerTypeAdapters.CategoryTable table = new LedgerTypeAdapters.CategoryTable();
+        for (Category category : categories) {
+            table.assign(category);
+        }
+        LedgerTypeAdapters.CategoryAdapter categoryAdapter = new LedgerTypeAdapters.CategoryAdapter(table);
+        LedgerTypeAdapters.TransactionAdapter transactionAdapter = new LedgerTypeAdapters.TransactionAdapter(table);
+        LedgerTypeAdapters.SpendingLimitAdapter limitAdapter = new LedgerTypeAdapters.SpendingLimitAdapter(table);
+
+        try (JsonWriter out = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE))) {
+            if (!compact) {
+                out.setIndent("  ");
+            }
+            out.beginObject();
+            out.name("version").value(FORMAT_VERSION);
+            if (journalSequence > 0) {
+                out.name("journalSequence").value(journalSequence);
+            }
+            out.name("categories").beginArray();
+            for (Category category : categories) {
+                categoryAdapter.write(out, category);
+            }
+            out.endArray();
+            out.name("transactions").beginArray();
+            for (int id = 0, n = store.capacity(); id < n; id++) {
+                if (store.isLive(id)) {
+                    transactionAdapter.write(out, store.get(id));
+                }
+            }
+            out.endArray();
+            out.name("spendingLimits").beginArray();
+            for (SpendingLimit limit : spendingLimits) {
+                limitAdapter.write(out, limit);
+            }
+            out.endArray();
+            out.endObject();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+// Performance update: Point-in-time copy of a ledger that can be written from another thread
+package com.example;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Captured on the thread that owns the tracker, or under its write lock. Rows
+ * are copied into columns and categories and limits into fresh objects, so
+ * later edits, renames and limit updates on the live ledger cannot leak into a
+ * write in progress. Autosave writes one on a virtual thread; saveToFile writes
+ * one after releasing the lock.
+ */
+class LedgerSnapshot {
+    private final Path target;
+    private final TransactionStore rows;
+    private final List<Category> categories;
+    private final List<SpendingLimit> spendingLimits;
+    private final boolean binary;
+    private final boolean compact;
+    // Journal open for the target at capture time, or null
+    private final LedgerJournal journal;
+    private final long journalSequence;
+    private final long journalOffset;
+    private final int journalGeneration;
+
+    private LedgerSnapshot(Path target, TransactionStore rows, List<Category> categories,
+                           List<SpendingLimit> spendingLimits, boolean binary, boolean compact,
+                           LedgerJournal journal, long journalSequence, long journalOffset, int journalGeneration) {
+        this.target = target;
+        this.rows = rows;
+        this.categories = categories;
+        this.spendingLimits = spendingLimits;
+        this.binary = binary;
+        this.compact = compact;
+        this.journal = journal;
+        this.journalSequence = journalSequence;
+        this.journalOffset = journalOffset;
+        this.journalGeneration = journalGeneration;
+    }
+
+    // With a journal, a rebase record marks the point the snapshot covers
+    static LedgerSnapshot capture(Path target, TransactionStore store, List<Category> categories,
+                                  List<SpendingLimit> spendingLimits, LedgerJournal journal,
+                                  boolean compact) throws IOException {
+        long journalSequence = 0;
+        long journalOffset = 0;
+        int journalGeneration = 0;
+        if (journal != null) {
+            journalSequence = journal.recordRebase(store);
+            journalOffset = journal.length();
+            journalGeneration = journal.generation();
+        }
+        Map<Category, Category> copies = new IdentityHashMap<>();
+        List<Category> categoryCopies = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            categoryCopies.add(copies.computeIfAbsent(category, LedgerSnapshot::copyOf));
+        }
+        TransactionStore rows = store.copyRows(c -> c != null ? copies.computeIfAbsent(c, LedgerSnapshot::copyOf) : null);
+        List<SpendingLimit> limitCopies = new ArrayList<>(spendingLimits.size());
+        for (SpendingLimit limit : spendingLimits) {
+            Category category = limit.getCategory();
+            SpendingLimit copy = new SpendingLimit(category != null ? copies.computeIfAbsent(category, LedgerSnapshot::copyOf) : null, 0);
+            copy.setMonthlyLimitCents(limit.getMonthlyLimitCents());
+            copy.setCurrentSpentCents(limit.getCurrentSpentCents());
+            limitCopies.add(copy);
+        }
+        return new LedgerSnapshot(target, rows, categoryCopies, limitCopies,
+            LedgerBinarySnapshot.isBinary(target), compact, journal, journalSequence, journalOffset, journalGeneration);
+    }
+
+    private static Category copyOf(Category category) {
+        return new Category(category.getName(), category.getType());
+    }
+
+    Path getTarget() {
+        return target;
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    LedgerJournal getJournal() {
+        return journal;
+    }
+
+    // On the owner thread once the snapshot is in place: the journal records it contains are dropped
+    void written() throws IOException {
+        if (journal != null) {
+            journal.dropThrough(journalOffset, journalGeneration);
+        }
+    }
+
+    /*
+     * Safe to call off the owner thread; the target is replaced atomically.
+     * Returns false when the journal was compacted or closed meanwhile, in
+     * which case the data file is left alone.
+     */
+    boolean write() throws IOException {
+        // Autosave and saveToFile can write the same target at once, so each snapshot has its own temp file
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            if (binary) {
+                LedgerBinarySnapshot.write(temp, rows, categories, spendingLimits, journalSequence);
+            } else {
+                LedgerJsonWriter.write(temp, compact, rows, categories, spendingLimits, journalSequence);
+            }
+            forceToDisk(temp);
+            if (journal != null) {
+                return journal.publish(temp, journalGeneration);
+            }
+            moveOver(temp, target);
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    interface SnapshotWriter {
+        void write(Path file) throws IOException;
+    }
+
+    // Writes to a sibling temp file, forces it to disk, then renames it over the target
+    static void replaceAtomically(Path target, String tempSuffix, SnapshotWriter writer) throws IOException {
+        // Autosave and saveToFile can write the same target at once, so each snapshot has its own temp file
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            writer.write(temp);
+            forceToDisk(temp);
+            moveOver(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void forceToDisk(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    static void moveOver(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+// Performance update: Hand-written Gson adapters for the ledger file
+package com.example;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * The categories array is written once with an "id" per entry, and transactions
+ * and limits refer to it through "categoryId". Categories that are not listed
+ * are still embedded as {name, type} objects, which is also the only form older
+ * files use, so both layouts read through the same adapters.
+ */
+final class LedgerTypeAdapters {
+    private LedgerTypeAdapters() {
+    }
+
+    // Category ids and the (type, name) linking shared by the adapters of one read or write
+    static class CategoryTable {
+        private final List<Category> byId = new ArrayList<>();
+        private final Map<Category, Integer> idsByIdentity = new IdentityHashMap<>();
+        private final Map<Category, Integer> idsByValue = new HashMap<>();
+        private final Map<CategoryType, Map<String, Category>> canonical = new EnumMap<>(CategoryType.class);
+        private final Set<Category> listed = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<Category> listedCategories = new ArrayList<>();
+
+        List<Category> getListedCategories() {
+            return listedCategories;
+        }
+
+        // Ids become the positions in the given list; the (type, name) linking is kept
+        void assignAll(List<Category> categories) {
+            byId.clear();
+            idsByIdentity.clear();
+            idsByValue.clear();
+            for (Category category : categories) {
+                assign(category);
+            }
+        }
+
+        // Writing: gives a listed category the next id
+        void assign(Category category) {
+            int id = byId.size();
+            byId.add(category);
+            idsByIdentity.put(category, id);
+            if (category.getName() != null && category.getType() != null) {
+                idsByValue.putIfAbsent(category, id);
+            }
+        }
+
+        // Writing: the id a reference should use, or -1 to embed the category instead
+        int idOf(Category category) {
+            Integer id = idsByIdentity.get(category);
+            if (id == null && category.getName() != null && category.getType() != null) {
+                // An equal unlisted object is linked to the first listed one on load anyway
+                id = idsByValue.get(category);
+            }
+            return id != null ? id : -1;
+        }
+
+        // Reading: an id from a "categoryId" field
+        Category byId(int id) throws IOException {
+            if (id < 0 || id >= byId.size() || byId.get(id) == null) {
+                throw new IOException("Unknown category id " + id);
+            }
+            return byId.get(id);
+        }
+
+        // Reading: an entry of the categories array reuses the shared object unless it is already listed
+        Category list(Category parsed, int id) {
+            Category shared = shared(parsed);
+            // A duplicate entry stays a separate object, as it did with reflective loading
+            Category category = listed.add(shared) ? shared : parsed;
+            listedCategories.add(category);
+            if (id >= 0) {
+                while (byId.size() <= id) {
+                    byId.add(null);
+                }
+                byId.set(id, category);
+            }
+            return category;
+        }
+
+        // Reading: an embedded {name, type} object resolves to the one shared Category for that key
+        Category shared(Category parsed) {
+            if (parsed.getType() == null) {
+                return parsed;
+            }
+            Map<String, Category> byName = canonical.computeIfAbsent(parsed.getType(), t -> new HashMap<>());
+            return byName.computeIfAbsent(parsed.getName(), n -> parsed);
+        }
+    }
+
+    // Entries of the categories array: {id, name, type}
+    static class CategoryAdapter extends TypeAdapter<Category> {
+        private final CategoryTable table;
+
+        CategoryAdapter(CategoryTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public void write(JsonWriter out, Category category) throws IOException {
+            out.beginObject();
+            out.name("id").value(table.idOf(category));
+            writeFields(out, category);
+            out.endObject();
+        }
+
+        @Override
+        public Category read(JsonReader in) throws IOException {
+            int id = -1;
+            String name = null;
+            CategoryType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String field = in.nextName();
+                if (skipNull(in)) {
+                    continue;
+                }
+                switch (field) {
+                    case "id" -> id = in.nextInt();
+                    case "name" -> name = in.nextString();
+                    case "type" -> type = CategoryType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return table.list(new Category(name, type), id);
+        }
+    }
+
+    static class TransactionAdapter extends TypeAdapter<Transaction> {
+        private final CategoryTable table;
+        // Consecutive transactions usually share a date, so the last conversion is reused both ways
+        private String lastDateText;
+        private LocalDate lastDate;
+
+        TransactionAdapter(CategoryTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public void write(JsonWriter out, Transaction transaction) throws IOException {
+            out.beginObject();
+            if (transaction.getDescription() != null) {
+                out.name("description").value(transaction.getDescription());
+            }
+            out.name("amount").jsonValue(Money.toPlainString(transaction.getAmountCents()));
+            if (transaction.getDate() != null) {
+                out.name("date").value(formatDate(transaction.getDate()));
+            }
+            if (transaction.getType() != null) {
+                out.name("type").value(transaction.getType().name());
+            }
+            writeCategoryReference(out, table, transaction.getCategory());
+            out.endObject();
+        }
+
+        @Override
+        public Transaction read(JsonReader in) throws IOException {
+            String description = null;
+            long cents = 0;
+            LocalDate date = null;
+            TransactionType type = null;
+            Category category = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (skipNull(in)) {
+                    continue;
+                }
+                switch (name) {
+                    case "description" -> description = in.nextString();
+                    case "amount" -> cents = Money.parseCents(in.nextString());
+                    case "date" -> date = parseDate(in.nextString());
+                    case "type" -> type = TransactionType.valueOf(in.nextString());
+                    case "categoryId" -> category = table.byId(in.nextInt());
+                    case "category" -> category = table.shared(readCategoryFields(in));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            Transaction transaction = new Transaction(description, 0, date, type, category);
+            transaction.setAmountCents(cents);
+            return transaction;
+        }
+
+        private String formatDate(LocalDate date) {
+            if (!date.equals(lastDate)) {
+                lastDateText = date.toString();
+                lastDate = date;
+            }
+            return lastDateText;
+        }
+
+        private LocalDate parseDate(String text) {
+            if (!text.equals(lastDateText)) {
+                lastDate = parseIsoDate(text);
+                lastDateText = text;
+            }
+            return lastDate;
+        }
+    }
+
+    static class SpendingLimitAdapter extends TypeAdapter<SpendingLimit> {
+        private final CategoryTable table;
+
+        SpendingLimitAdapter(CategoryTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public void write(JsonWriter out, SpendingLimit limit) throws IOException {
+            out.beginObject();
+            writeCategoryReference(out, table, limit.getCategory());
+            out.name("monthlyLimit").jsonValue(Money.toPlainString(limit.getMonthlyLimitCents()));
+            out.name("currentSpent").jsonValue(Money.toPlainString(limit.getCurrentSpentCents()));
+            out.endObject();
+        }
+
+        @Override
+        public SpendingLimit read(JsonReader in) throws IOException {
+            SpendingLimit limit = new SpendingLimit(null, 0);
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (skipNull(in)) {
+                    continue;
+                }
+                switch (name) {
+                    case "categoryId" -> limit.setCategory(table.byId(in.nextInt()));
+                    case "category" -> limit.setCategory(table.shared(readCategoryFields(in)));
+                    case "monthlyLimit" -> limit.setMonthlyLimitCents(Money.parseCents(in.nextString()));
+                    case "currentSpent" -> limit.setCurrentSpentCents(Money.parseCents(in.nextString()));
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return limit;
+        }
+    }
+
+    static void writeCategoryReference(JsonWriter out, CategoryTable table, Category category) throws IOException {
+        if (category == null) {
+            return;
+        }
+        int id = table.idOf(category);
+        if (id >= 0) {
+            out.name("categoryId").value(id);
+        } else {
+            out.name("category").beginObject();
+            writeFields(out, category);
+            out.endObject();
+        }
+    }
+
+    static void writeFields(JsonWriter out, Category category) throws IOException {
+        if (category.getName() != null) {
+            out.name("name").value(category.getName());
+        }
+        if (category.getType() != null) {
+            out.name("type").value(category.getType().name());
+        }
+    }
+
+    static Category readCategoryFields(JsonReader in) throws IOException {
+        String name = null;
+        CategoryType type = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if (skipNull(in)) {
+                continue;
+            }
+            switch (field) {
+                case "name" -> name = in.nextString();
+                case "type" -> type = CategoryType.valueOf(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Category(name, type);
+    }
+
+    private static boolean skipNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    // Fast path for the yyyy-MM-dd form LocalDate.toString() writes
+    static LocalDate parseIsoDate(String text) {
+        if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(text);
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int d = text.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,134 @@
+// Performance update: Default backend holding Transaction objects by row id
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ListTransactionStore implements TransactionStore {
+    // Removed rows are null until the next compaction
+    private List<Transaction> rows = new ArrayList<>();
+    // Performance update: Category id of each row, kept beside the objects
+    private IntList categoryIds = new IntList();
+    private CategoryRegistry categories = new CategoryRegistry();
+    private int live = 0;
+
+    @Override
+    public int add(Transaction transaction) {
+        int id = rows.size();
+        transaction.setId(id);
+        rows.add(transaction);
+        categoryIds.add(categories.intern(transaction.getCategory()));
+        live++;
+        return id;
+    }
+
+    @Override
+    public void update(int id, Transaction transaction) {
+        // The row is the transaction object itself, so its fields are already current
+        rows.set(id, transaction);
+        categoryIds.set(id, categories.intern(transaction.getCategory()));
+    }
+
+    @Override
+    public void remove(int id) {
+        if (rows.set(id, null) != null) {
+            live--;
+        }
+    }
+
+    @Override
+    public boolean contains(Transaction transaction) {
+        int id = transaction.getId();
+        return id >= 0 && id < rows.size() && rows.get(id) == transaction;
+    }
+
+    @Override
+    public boolean isLive(int id) {
+        return rows.get(id) != null;
+    }
+
+    @Override
+    public int size() {
+        return live;
+    }
+
+    @Override
+    public int capacity() {
+        return rows.size();
+    }
+
+    @Override
+    public Transaction get(int id) {
+        return rows.get(id);
+    }
+
+    @Override
+    public int epochDay(int id) {
+        Transaction t = rows.get(id);
+        return t.getDate() != null ? (int) t.getDate().toEpochDay() : NO_DATE;
+    }
+
+    @Override
+    public long amountCents(int id) {
+        return rows.get(id).getAmountCents();
+    }
+
+    @Override
+    public TransactionType type(int id) {
+        return rows.get(id).getType();
+    }
+
+    @Override
+    public String description(int id) {
+        return rows.get(id).getDescription();
+    }
+
+    @Override
+    public Category category(int id) {
+        return rows.get(id).getCategory();
+    }
+
+    @Override
+    public int categoryId(int id) {
+        return categoryIds.get(id);
+    }
+
+    @Override
+    public CategoryRegistry categoryRegistry() {
+        return categories;
+    }
+
+    @Override
+    public void setCategory(int id, Category category) {
+        rows.get(id).setCategory(category);
+        categoryIds.set(id, categories.intern(category));
+    }
+
+    @Override
+    public boolean compactIfSparse() {
+        if (rows.size() <= 2 * live + 64) {
+            return false;
+        }
+        List<Transaction> compacted = new ArrayList<>(live);
+        IntList compactedIds = new IntList(Math.max(live, 16));
+        for (int id = 0; id < rows.size(); id++) {
+            Transaction t = rows.get(id);
+            if (t != null) {
+                t.setId(compacted.size());
+                compacted.add(t);
+                compactedIds.add(categoryIds.get(id));
+            }
+        }
+        rows = compacted;
+        categoryIds = compactedIds;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        rows = new ArrayList<>();
+        categoryIds = new IntList();
+        categories = new CategoryRegistry();
+        live = 0;
+    }
+}
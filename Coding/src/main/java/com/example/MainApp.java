@@ -2,6 +2,7 @@
 package com.example;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -12,6 +13,8 @@ import javafx.geometry.Insets;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
@@ -19,19 +22,34 @@ import java.util.Optional;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.Map;
-import java.util.HashMap;
 import java.time.Month;
 import javafx.scene.control.cell.PropertyValueFactory;
 
 public class MainApp extends Application {
     // JavaFX update: Enhanced UI fields
-    private FinanceTracker tracker = new FinanceTracker();
-    private ObservableList<Transaction> transactionList = FXCollections.observableArrayList();
+    // Performance update: -Dfinance.storage=columnar selects the struct-of-arrays backend
+    private FinanceTracker tracker = new FinanceTracker(
+        FinanceTracker.StorageMode.valueOf(System.getProperty("finance.storage", "list").toUpperCase()));
+    // Performance update: Summaries, table queries and file work run here, off the JavaFX Application Thread
+    private final BackgroundTasks tasks = new BackgroundTasks(Platform::runLater,
+        e -> showAlert("Error: " + e.getMessage()));
+    // Performance update: Saves and loads share one key, so they run one after another and are never interrupted
+    private static final String FILE = "file";
+    // Performance update: Handlers mark the views a change affects; each is recomputed once per pulse
+    private static final String CATEGORIES = "categories";
+    private static final String TABLE = "table";
+    private static final String BALANCE = "balance";
+    private static final String LIMITS = "limits";
+    private static final String SUMMARY = "summary";
+    private final RefreshScheduler refreshes = new RefreshScheduler(Platform::runLater);
+    // Performance update: Paged view of the current query, see PagedTransactionList
+    private PagedTransactionList transactionList = new PagedTransactionList(tasks);
     private ObservableList<Category> categoryList = FXCollections.observableArrayList();
     private ObservableList<SpendingLimit> spendingLimitList = FXCollections.observableArrayList(); // JavaFX update: Add spending limits list
     private TableView<Transaction> table = new TableView<>();
     private final String DATA_FILE = "finance_data.json";
+    // Performance update: Background autosave, see startAutosave
+    private AutosaveService autosave;
     
     // JavaFX update: UI components for balance and summary
     private Label balanceLabel;
@@ -41,8 +59,12 @@ public class MainApp extends Application {
     private ComboBox<Category> categoryFilter;
     private DatePicker startDateFilter;
     private DatePicker endDateFilter;
+    // Performance update: Description search, answered by the tracker's index on every keystroke
+    private TextField searchField;
     private TextArea breakdownArea; // JavaFX update: Add reference to breakdown area
     private TableView<CategorySummary> summaryTable; // JavaFX update: Add reference to summary table
+    // Performance update: Disabled while a load replaces the ledger
+    private TabPane tabPane;
 
     @Override
     public void start(Stage primaryStage) {
@@ -50,7 +72,7 @@ public class MainApp extends Application {
         setupTransactionTable();
         
         // JavaFX update: Create main layout with tabs
-        TabPane tabPane = new TabPane();
+        tabPane = new TabPane();
         
         // JavaFX update: Transactions tab
         Tab transactionsTab = new Tab("Transactions", createTransactionsTab());
@@ -80,13 +102,31 @@ public class MainApp extends Application {
         warningLabel.setTextFill(Color.RED);
         warningLabel.setVisible(false);
         
+        refreshes.register(CATEGORIES, () -> {
+            categoryList.setAll(tracker.getCategories());
+            updateCategoryFilters();
+        });
+        refreshes.register(TABLE, transactionList::refresh);
+        refreshes.register(BALANCE, this::updateBalanceDisplay);
+        refreshes.register(LIMITS, this::updateSpendingLimits);
+        refreshes.register(SUMMARY, this::updateSummaryDisplay);
         updateBalanceDisplay();
+
+        // Performance update: Shown while background work runs; determinate when one task reports progress
+        ProgressIndicator busyIndicator = new ProgressIndicator();
+        busyIndicator.setPrefSize(24, 24);
+        busyIndicator.visibleProperty().bind(tasks.runningProperty());
+        busyIndicator.progressProperty().bind(tasks.progressProperty());
+        HBox statusBar = new HBox(10, balanceLabel, busyIndicator);
         
-        root.getChildren().addAll(balanceLabel, warningLabel, tabPane);
+        root.getChildren().addAll(statusBar, warningLabel, tabPane);
         
+        // Performance update: Threshold crossings arrive as events from the tracker, batched per delivery
+        tracker.addSpendingLimitListener(this::showSpendingLimitWarnings, Platform::runLater);
+
         // JavaFX update: Initial load and setup
-        loadData();
         setupFilters();
+        loadData(() -> { });
         
         primaryStage.setTitle("Personal Finance Tracker");
         primaryStage.setScene(new Scene(root, 1200, 700));
@@ -96,10 +136,15 @@ public class MainApp extends Application {
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("Save Before Exit");
             alert.setHeaderText("Do you want to save your data before closing?");
-            alert.setContentText("Your changes will be lost if you don't save.");
+            // Performance update: Autosave has already kept everything up to its last save, so only the changes
+            // since then can be discarded
+            boolean autosaving = autosave != null;
+            alert.setContentText(autosaving
+                ? "Autosave is on: changes made since the last autosave will be lost if you don't save."
+                : "Your changes will be lost if you don't save.");
             
             ButtonType saveButton = new ButtonType("Save & Exit");
-            ButtonType exitButton = new ButtonType("Exit Without Saving");
+            ButtonType exitButton = new ButtonType(autosaving ? "Exit, Discarding Changes Since Autosave" : "Exit Without Saving");
             ButtonType cancelButton = new ButtonType("Cancel");
             
             alert.getButtonTypes().setAll(saveButton, exitButton, cancelButton);
@@ -108,11 +153,18 @@ public class MainApp extends Application {
             if (result.isPresent()) {
                 if (result.get() == saveButton) {
                     // Save and exit
+                    stopBackgroundWork();
+                    stopAutosave();
                     tracker.saveToFile(DATA_FILE);
+                    tracker.closeJournal(true);
                     showInfo("Data saved successfully!");
                     // Allow the window to close
                 } else if (result.get() == exitButton) {
                     // Exit without saving
+                    // Performance update: Drop the journal records made since the last save or autosave, as the dialog says
+                    stopBackgroundWork();
+                    stopAutosave();
+                    tracker.closeJournal(false);
                     // Allow the window to close
                 } else {
                     // Cancel - prevent the window from closing
@@ -128,13 +180,19 @@ public class MainApp extends Application {
     }
 
     // JavaFX update: Setup transaction table with color coding
+    // Performance update: The paged list's stand-in for rows it cannot read until its refresh arrives
+    private static boolean isLoading(Transaction t) {
+        return t == PagedTransactionList.LOADING;
+    }
+
     private void setupTransactionTable() {
         TableColumn<Transaction, String> descCol = new TableColumn<>("Description");
         descCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(cell.getValue().getDescription()));
         descCol.setPrefWidth(200);
         
         TableColumn<Transaction, String> amountCol = new TableColumn<>("Amount");
-        amountCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(String.format("$%.2f", cell.getValue().getAmount())));
+        amountCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+            isLoading(cell.getValue()) ? "" : String.format("$%.2f", cell.getValue().getAmount())));
         amountCol.setCellFactory(col -> new TableCell<Transaction, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
@@ -145,7 +203,7 @@ public class MainApp extends Application {
                 } else {
                     setText(item);
                     Transaction t = getTableView().getItems().get(getIndex());
-                    if (t.getType() == TransactionType.INCOME) {
+                    if (t != null && t.getType() == TransactionType.INCOME) {
                         setTextFill(Color.GREEN);
                     } else {
                         setTextFill(Color.RED);
@@ -156,11 +214,13 @@ public class MainApp extends Application {
         amountCol.setPrefWidth(100);
         
         TableColumn<Transaction, String> dateCol = new TableColumn<>("Date");
-        dateCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(cell.getValue().getDate().toString()));
+        dateCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+            isLoading(cell.getValue()) ? "" : cell.getValue().getDate().toString()));
         dateCol.setPrefWidth(100);
         
         TableColumn<Transaction, String> typeCol = new TableColumn<>("Type");
-        typeCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(cell.getValue().getType().toString()));
+        typeCol.setCellValueFactory(cell -> new javafx.beans.property.SimpleStringProperty(
+            isLoading(cell.getValue()) ? "" : cell.getValue().getType().toString()));
         typeCol.setPrefWidth(80);
         
         TableColumn<Transaction, String> catCol = new TableColumn<>("Category");
@@ -170,6 +230,24 @@ public class MainApp extends Application {
         
         table.getColumns().addAll(descCol, amountCol, dateCol, typeCol, catCol);
         table.setItems(transactionList);
+        // Performance update: Date and amount sorts run in the query; the paged list cannot be sorted in place
+        descCol.setSortable(false);
+        typeCol.setSortable(false);
+        catCol.setSortable(false);
+        table.setSortPolicy(tv -> {
+            TransactionQuery.Order order = TransactionQuery.Order.INSERTION;
+            if (!tv.getSortOrder().isEmpty()) {
+                TableColumn<Transaction, ?> column = tv.getSortOrder().get(0);
+                boolean ascending = column.getSortType() == TableColumn.SortType.ASCENDING;
+                if (column == dateCol) {
+                    order = ascending ? TransactionQuery.Order.DATE_ASCENDING : TransactionQuery.Order.DATE_DESCENDING;
+                } else if (column == amountCol) {
+                    order = ascending ? TransactionQuery.Order.AMOUNT_ASCENDING : TransactionQuery.Order.AMOUNT_DESCENDING;
+                }
+            }
+            transactionList.setOrder(order);
+            return true;
+        });
         
         // JavaFX update: Add double-click to edit transactions
         table.setRowFactory(tv -> {
@@ -276,18 +354,12 @@ public class MainApp extends Application {
                 }
                 
                 tracker.addTransaction(t);
-                transactionList.add(t);
                 
                 // JavaFX update: Clear fields and update displays
                 descField.clear();
                 amountField.clear();
-                updateBalanceDisplay();
-                updateSummaryDisplay();
-                spendingLimitList.setAll(tracker.getSpendingLimits()); // JavaFX update: Refresh spending limits
-                tracker.checkSpendingLimits();
-                
-                // JavaFX update: Check for spending limit warnings
-                checkSpendingLimitsOnTransaction(t);
+                refreshes.invalidate(TABLE, BALANCE, SUMMARY, LIMITS);
+                // Performance update: Warnings are shown by the spending limit listener
                 
             } catch (NumberFormatException ex) {
                 showAlert("Invalid amount format. Please enter a valid number (e.g., 25.50)");
@@ -314,35 +386,28 @@ public class MainApp extends Application {
         Button removeBtn = new Button("Remove Selected");
         removeBtn.setOnAction(e -> {
             Transaction t = table.getSelectionModel().getSelectedItem();
-            if (t != null) {
+            if (t != null && !isLoading(t)) {
                 tracker.removeTransaction(t);
-                transactionList.remove(t);
-                updateBalanceDisplay();
-                updateSummaryDisplay();
-                spendingLimitList.setAll(tracker.getSpendingLimits()); // JavaFX update: Refresh spending limits
-                tracker.checkSpendingLimits();
+                refreshes.invalidate(TABLE, BALANCE, SUMMARY, LIMITS);
             }
         });
         
         Button editBtn = new Button("Edit Selected");
         editBtn.setOnAction(e -> {
             Transaction t = table.getSelectionModel().getSelectedItem();
-            if (t != null) {
+            if (t != null && !isLoading(t)) {
                 showEditTransactionDialog(t);
             }
         });
         
         Button saveBtn = new Button("Save Data");
-        saveBtn.setOnAction(e -> {
+        saveBtn.setOnAction(e -> tasks.submitInOrder(FILE, progress -> {
             tracker.saveToFile(DATA_FILE);
-            showInfo("Data saved successfully!");
-        });
+            return null;
+        }, done -> showInfo("Data saved successfully!")));
         
         Button loadBtn = new Button("Load Data");
-        loadBtn.setOnAction(e -> {
-            loadData();
-            showInfo("Data loaded successfully!");
-        });
+        loadBtn.setOnAction(e -> loadData(() -> showInfo("Data loaded successfully!")));
         
         actionBox.getChildren().addAll(removeBtn, editBtn, saveBtn, loadBtn);
         
@@ -366,7 +431,8 @@ public class MainApp extends Application {
             startDateFilter.setValue(null);
             endDateFilter.setValue(null);
             categoryFilter.getSelectionModel().selectFirst();
-            transactionList.setAll(tracker.getTransactions());
+            searchField.clear();
+            transactionList.setQuery(tracker.query());
         });
         
         filterBox.getChildren().addAll(
@@ -375,8 +441,16 @@ public class MainApp extends Application {
             new Label("Category:"), categoryFilter,
             filterBtn, clearFilterBtn
         );
-        
-        tab.getChildren().addAll(inputGrid, actionBox, filterBox, table);
+
+        // Performance update: Search box, combined with the filters above
+        HBox searchBox = new HBox(10);
+        searchField = new TextField();
+        searchField.setPromptText("Search descriptions");
+        searchField.setPrefWidth(300);
+        searchField.textProperty().addListener((obs, oldText, text) -> applyFilters());
+        searchBox.getChildren().addAll(new Label("Search:"), searchField);
+        
+        tab.getChildren().addAll(inputGrid, actionBox, filterBox, searchBox, table);
         return tab;
     }
 
@@ -408,9 +482,8 @@ public class MainApp extends Application {
             CategoryType type = catTypeBox.getValue();
             Category newCat = new Category(name, type);
             tracker.addCategory(newCat);
-            categoryList.add(newCat);
             catNameField.clear();
-            updateCategoryFilters();
+            refreshes.invalidate(CATEGORIES);
         });
         
         categoryGrid.add(new Label("Name:"), 0, 0);
@@ -494,7 +567,7 @@ public class MainApp extends Application {
         addLimitBtn.setOnAction(e -> {
             showAddLimitDialog();
             // JavaFX update: Refresh spending limits list after adding
-            spendingLimitList.setAll(tracker.getSpendingLimits());
+            refreshes.invalidate(LIMITS);
         });
         
         Button removeLimitBtn = new Button("Remove Selected Limit");
@@ -544,23 +617,24 @@ public class MainApp extends Application {
         categoryCol.setCellValueFactory(new PropertyValueFactory<>("categoryName"));
         categoryCol.setPrefWidth(150);
         
-        TableColumn<CategorySummary, String> typeCol = new TableColumn<>("Type");
+        TableColumn<CategorySummary, CategoryType> typeCol = new TableColumn<>("Type");
         typeCol.setCellValueFactory(new PropertyValueFactory<>("type"));
         typeCol.setPrefWidth(80);
         
-        TableColumn<CategorySummary, String> totalCol = new TableColumn<>("Total");
+        // Performance update: The numeric columns hold numbers, formatted only for the cells on screen
+        TableColumn<CategorySummary, Double> totalCol = new TableColumn<>("Total");
         totalCol.setCellValueFactory(new PropertyValueFactory<>("total"));
-        totalCol.setCellFactory(col -> new TableCell<CategorySummary, String>() {
+        totalCol.setCellFactory(col -> new TableCell<CategorySummary, Double>() {
             @Override
-            protected void updateItem(String item, boolean empty) {
+            protected void updateItem(Double item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) {
                     setText(null);
                     setStyle("");
                 } else {
-                    setText(item);
+                    setText(String.format("$%.2f", item));
                     CategorySummary summary = getTableView().getItems().get(getIndex());
-                    if (summary.getType().equals("INCOME")) {
+                    if (summary.getType() == CategoryType.INCOME) {
                         setStyle("-fx-text-fill: green; -fx-font-weight: bold;");
                     } else {
                         setStyle("-fx-text-fill: red; -fx-font-weight: bold;");
@@ -570,31 +644,35 @@ public class MainApp extends Application {
         });
         totalCol.setPrefWidth(100);
         
-        TableColumn<CategorySummary, String> limitCol = new TableColumn<>("Spending Limit");
+        TableColumn<CategorySummary, Double> limitCol = new TableColumn<>("Spending Limit");
         limitCol.setCellValueFactory(new PropertyValueFactory<>("spendingLimit"));
+        limitCol.setCellFactory(col -> new TableCell<CategorySummary, Double>() {
+            @Override
+            protected void updateItem(Double item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty ? null : item == null ? "N/A" : String.format("$%.2f", item));
+            }
+        });
         limitCol.setPrefWidth(120);
         
-        TableColumn<CategorySummary, String> usageCol = new TableColumn<>("Usage %");
+        TableColumn<CategorySummary, Double> usageCol = new TableColumn<>("Usage %");
         usageCol.setCellValueFactory(new PropertyValueFactory<>("usagePercentage"));
-        usageCol.setCellFactory(col -> new TableCell<CategorySummary, String>() {
+        usageCol.setCellFactory(col -> new TableCell<CategorySummary, Double>() {
             @Override
-            protected void updateItem(String item, boolean empty) {
+            protected void updateItem(Double item, boolean empty) {
                 super.updateItem(item, empty);
-                if (empty || item == null) {
+                if (empty) {
                     setText(null);
                     setStyle("");
+                } else if (item == null) {
+                    setText("N/A");
+                    setStyle("-fx-text-fill: black;");
                 } else {
-                    setText(item);
-                    CategorySummary summary = getTableView().getItems().get(getIndex());
-                    if (summary.getUsagePercentage() != null && !summary.getUsagePercentage().equals("N/A")) {
-                        double percentage = Double.parseDouble(summary.getUsagePercentage().replace("%", ""));
-                        if (percentage > 100) {
-                            setStyle("-fx-text-fill: #d32f2f; -fx-font-weight: bold;");
-                        } else if (percentage >= 80) {
-                            setStyle("-fx-text-fill: #f57c00; -fx-font-weight: bold;");
-                        } else {
-                            setStyle("-fx-text-fill: black;");
-                        }
+                    setText(String.format("%.1f%%", item));
+                    if (item > 100) {
+                        setStyle("-fx-text-fill: #d32f2f; -fx-font-weight: bold;");
+                    } else if (item >= 80) {
+                        setStyle("-fx-text-fill: #f57c00; -fx-font-weight: bold;");
                     } else {
                         setStyle("-fx-text-fill: black;");
                     }
@@ -628,86 +706,40 @@ public class MainApp extends Application {
         monthFilter.getSelectionModel().select(YearMonth.now().getMonth());
     }
     
+    // Performance update: Computed in the background; picking another month cancels the stale request
     private void updateSummaryDisplay() {
         YearMonth selectedMonth = YearMonth.of(yearFilter.getValue(), monthFilter.getValue());
-        if (selectedMonth != null) {
+        tasks.submit(SUMMARY, progress -> {
             FinanceSummary summary = tracker.getMonthlySummary(selectedMonth);
-            
-            // JavaFX update: Format summary with colors
-            StringBuilder summaryText = new StringBuilder();
-            summaryText.append("Month: ").append(selectedMonth.toString()).append("\n\n");
-            summaryText.append("Total Income: $").append(String.format("%.2f", summary.getTotalIncome())).append("\n");
-            summaryText.append("Total Expenses: $").append(String.format("%.2f", summary.getTotalExpenses())).append("\n");
-            summaryText.append("Net Balance: $").append(String.format("%.2f", summary.getNetBalance()));
-            
-            summaryLabel.setText(summaryText.toString());
-            
-            // JavaFX update: Set colors for income and expenses
-            if (summary.getTotalIncome() > 0) {
-                summaryLabel.setStyle("-fx-text-fill: green;");
-            } else if (summary.getTotalExpenses() > 0) {
-                summaryLabel.setStyle("-fx-text-fill: red;");
-            } else {
-                summaryLabel.setStyle("-fx-text-fill: black;");
-            }
-            
-            // JavaFX update: Populate summary table
-            populateSummaryTable(selectedMonth);
-        }
+            return new MonthView(summary, CategorySummary.rowsOf(summary, tracker::getSpendingLimit));
+        }, view -> showSummary(selectedMonth, view.summary(), view.rows()));
     }
-    
-    // JavaFX update: Populate summary table with category data
-    private void populateSummaryTable(YearMonth month) {
-        ObservableList<CategorySummary> tableData = FXCollections.observableArrayList();
-        
-        // Get transactions for the selected month
-        List<Transaction> monthTransactions = tracker.filterTransactions(
-            month.atDay(1), 
-            month.atEndOfMonth(), 
-            null
-        );
-        
-        // Group transactions by category
-        Map<Category, List<Transaction>> categoryGroups = new HashMap<>();
-        for (Transaction t : monthTransactions) {
-            Category cat = t.getCategory();
-            if (cat != null) {
-                categoryGroups.computeIfAbsent(cat, k -> new ArrayList<>()).add(t);
-            }
-        }
-        
-        // Create table rows for each category
-        for (Category category : categoryGroups.keySet()) {
-            List<Transaction> transactions = categoryGroups.get(category);
-            double total = transactions.stream().mapToDouble(Transaction::getAmount).sum();
-            
-            // Find spending limit for this category
-            SpendingLimit limit = tracker.getSpendingLimits().stream()
-                .filter(sl -> sl.getCategory().equals(category))
-                .findFirst()
-                .orElse(null);
-            
-            String spendingLimitText = limit != null ? String.format("$%.2f", limit.getMonthlyLimit()) : "N/A";
-            String usagePercentageText = "N/A";
-            
-            if (limit != null && limit.getMonthlyLimit() > 0) {
-                double percentage = (total / limit.getMonthlyLimit()) * 100;
-                usagePercentageText = String.format("%.1f%%", percentage);
-            }
-            
-            CategorySummary summary = new CategorySummary(
-                category.getName(),
-                category.getType().toString(),
-                String.format("$%.2f", total),
-                spendingLimitText,
-                usagePercentageText
-            );
-            
-            tableData.add(summary);
+
+    private record MonthView(FinanceSummary summary, List<CategorySummary> rows) {
+    }
+
+    private void showSummary(YearMonth selectedMonth, FinanceSummary summary, List<CategorySummary> rows) {
+        // JavaFX update: Format summary with colors
+        StringBuilder summaryText = new StringBuilder();
+        summaryText.append("Month: ").append(selectedMonth.toString()).append("\n\n");
+        summaryText.append("Total Income: $").append(String.format("%.2f", summary.getTotalIncome())).append("\n");
+        summaryText.append("Total Expenses: $").append(String.format("%.2f", summary.getTotalExpenses())).append("\n");
+        summaryText.append("Net Balance: $").append(String.format("%.2f", summary.getNetBalance()));
+        
+        summaryLabel.setText(summaryText.toString());
+        
+        // JavaFX update: Set colors for income and expenses
+        if (summary.getTotalIncome() > 0) {
+            summaryLabel.setStyle("-fx-text-fill: green;");
+        } else if (summary.getTotalExpenses() > 0) {
+            summaryLabel.setStyle("-fx-text-fill: red;");
+        } else {
+            summaryLabel.setStyle("-fx-text-fill: black;");
         }
         
-        // Update the table
-        summaryTable.setItems(tableData);
+        // JavaFX update: Populate summary table
+        // Performance update: Only the rows whose numbers changed are replaced
+        CategorySummary.applyTo(summaryTable.getItems(), rows);
     }
     
     // JavaFX update: Generate detailed category breakdown
@@ -717,15 +749,49 @@ public class MainApp extends Application {
     }
     
     // JavaFX update: Helper methods
-    private void loadData() {
-        tracker.loadFromFile(DATA_FILE);
-        transactionList.setAll(tracker.getTransactions());
-        categoryList.setAll(tracker.getCategories());
-        spendingLimitList.setAll(tracker.getSpendingLimits()); // Load spending limits
-        updateBalanceDisplay();
-        updateSummaryDisplay();
+    private void loadData(Runnable onLoaded) {
+        // Performance update: Reload the saved state and journal every change from here on. The file is read in the
+        // background with the tabs disabled, as the tracker is locked for writing until the load completes.
+        stopAutosave();
+        tabPane.setDisable(true);
+        tasks.cancel(TABLE);
+        tasks.cancel(SUMMARY);
+        tasks.submitInOrder(FILE, progress -> {
+            tracker.closeJournal(false);
+            tracker.openJournal(DATA_FILE, progress);
+            return null;
+        }, done -> {
+            tabPane.setDisable(false);
+            startAutosave();
+            transactionList.setQuery(tracker.query());
+            refreshes.invalidate(CATEGORIES, BALANCE, SUMMARY, LIMITS);
+            onLoaded.run();
+        });
     }
     
+    // Performance update: -Dfinance.autosave=false disables it; debounce and latency bound in milliseconds
+    private void startAutosave() {
+        if (!Boolean.parseBoolean(System.getProperty("finance.autosave", "true"))) {
+            return;
+        }
+        Duration debounce = Duration.ofMillis(Long.getLong("finance.autosave.debounceMs",
+            AutosaveService.DEFAULT_DEBOUNCE.toMillis()));
+        Duration maxLatency = Duration.ofMillis(Long.getLong("finance.autosave.maxLatencyMs",
+            AutosaveService.DEFAULT_MAX_LATENCY.toMillis()));
+        autosave = new AutosaveService(tracker, Path.of(DATA_FILE), Platform::runLater, debounce, maxLatency);
+    }
+
+    private void stopBackgroundWork() {
+        tasks.close();
+    }
+
+    private void stopAutosave() {
+        if (autosave != null) {
+            autosave.close();
+            autosave = null;
+        }
+    }
+
     private void setupFilters() {
         updateCategoryFilters();
     }
@@ -763,59 +829,35 @@ public class MainApp extends Application {
     }
     
     private void updateBalanceDisplay() {
+        // Performance update: The balance is a lock-free read
         double balance = tracker.getCurrentBalance();
         String color = balance >= 0 ? "green" : "red";
         balanceLabel.setText(String.format("Current Balance: $%.2f", balance));
         balanceLabel.setStyle(String.format("-fx-text-fill: %s;", color));
-
-        // JavaFX update: Check for spending limit warnings
-        tracker.checkSpendingLimits(); // Update current spent amounts
-        spendingLimitList.setAll(tracker.getSpendingLimits()); // JavaFX update: Refresh spending limits
         
         // JavaFX update: Only show warnings when adding transactions, not on startup
         // Removed automatic warning popup from balance display
     }
+
+    // Performance update: Split from updateBalanceDisplay; the spent totals are refreshed in the background
+    private void updateSpendingLimits() {
+        // JavaFX update: Check for spending limit warnings
+        tasks.submit(LIMITS, progress -> {
+            tracker.checkSpendingLimits(); // Performance update: Recomputes the spent amounts after a month change
+            return tracker.getSpendingLimits();
+        }, spendingLimitList::setAll); // JavaFX update: Refresh spending limits
+    }
     
-    // JavaFX update: Check spending limits when adding transactions
-    private void checkSpendingLimitsOnTransaction(Transaction transaction) {
-        tracker.checkSpendingLimits(); // Update current spent amounts
-        
-        // JavaFX update: Only check the category of the current transaction
-        if (transaction.getCategory() == null) {
-            return;
-        }
-        
-        for (SpendingLimit limit : tracker.getSpendingLimits()) {
-            if (limit.getCategory().equals(transaction.getCategory())) {
-                double currentSpent = limit.getCurrentSpent();
-                double monthlyLimit = limit.getMonthlyLimit();
-                
-                if (monthlyLimit > 0 && currentSpent > 0) {
-                    double percentage = (currentSpent / monthlyLimit) * 100;
-                    
-                    if (percentage > 100) {
-                        // Show a popup alert for limit exceeded warning
-                        Alert alert = new Alert(Alert.AlertType.WARNING);
-                        alert.setTitle("Spending Limit Warning");
-                        alert.setHeaderText("Spending Limit Exceeded");
-                        alert.setContentText("LIMIT EXCEEDED: " + limit.getCategory().getName() +
-                                          " ($" + String.format("%.2f", currentSpent) +
-                                          "/$" + String.format("%.2f", monthlyLimit) + ")");
-                        alert.showAndWait();
-                    } else if (percentage >= 80) {
-                        // Show a popup alert for approaching limit warning
-                        Alert alert = new Alert(Alert.AlertType.WARNING);
-                        alert.setTitle("Spending Limit Warning");
-                        alert.setHeaderText("Approaching Spending Limit");
-                        alert.setContentText("APPROACHING LIMIT: " + limit.getCategory().getName() +
-                                          " ($" + String.format("%.2f", currentSpent) +
-                                          "/$" + String.format("%.2f", monthlyLimit) + ")");
-                        alert.showAndWait();
-                    }
-                }
-                break; // Only check the current transaction's category
-            }
-        }
+    // Performance update: One non-blocking alert per batch of threshold events, only for the transaction that crossed
+    private void showSpendingLimitWarnings(List<SpendingLimitEvent> events) {
+        boolean exceeded = events.stream()
+            .anyMatch(event -> event.getThreshold() == SpendingLimitEvent.Threshold.EXCEEDED);
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Spending Limit Warning");
+        alert.setHeaderText(exceeded ? "Spending Limit Exceeded" : "Approaching Spending Limit");
+        alert.setContentText(events.stream().map(SpendingLimitEvent::toString)
+            .collect(java.util.stream.Collectors.joining("\n")));
+        alert.show();
     }
     
     // JavaFX update: Check if adding a transaction will exceed spending limit
@@ -824,15 +866,15 @@ public class MainApp extends Application {
             return false;
         }
         
-        for (SpendingLimit limit : tracker.getSpendingLimits()) {
-            if (limit.getCategory().equals(transaction.getCategory())) {
-                double currentSpent = limit.getCurrentSpent();
-                double monthlyLimit = limit.getMonthlyLimit();
-                double newTotal = currentSpent + transaction.getAmount();
-                
-                if (monthlyLimit > 0 && newTotal > monthlyLimit) {
-                    return true;
-                }
+        // Performance update: Keyed lookup of the category's limit
+        SpendingLimit limit = tracker.getSpendingLimit(transaction.getCategory());
+        if (limit != null) {
+            // Performance update: Compare exact cents
+            long monthlyLimit = limit.getMonthlyLimitCents();
+            long newTotal = limit.getCurrentSpentCents() + transaction.getAmountCents();
+            
+            if (monthlyLimit > 0 && newTotal > monthlyLimit) {
+                return true;
             }
         }
         return false;
@@ -850,8 +892,12 @@ public class MainApp extends Application {
             return;
         }
         
-        List<Transaction> filtered = tracker.filterTransactions(start, end, category);
-        transactionList.setAll(filtered);
+        // Performance update: The table pages through the query instead of holding every match
+        TransactionQuery query = tracker.query().between(start, end).descriptionMatches(searchField.getText());
+        if (category != null) {
+            query.inCategories(category);
+        }
+        transactionList.setQuery(query);
     }
     
     // JavaFX update: Add transaction editing dialog
@@ -935,23 +981,20 @@ public class MainApp extends Application {
                     TransactionType type = TransactionType.valueOf(catBox.getValue().getType().name());
                     Category category = catBox.getValue();
                     
-                    // JavaFX update: Update the transaction
-                    transaction.setDescription(desc);
-                    transaction.setAmount(amount);
-                    transaction.setDate(date);
-                    transaction.setType(type);
-                    transaction.setCategory(category);
+                    // Performance update: Update through the tracker so its indexes stay in sync
+                    tracker.updateTransaction(transaction, desc, amount, date, type, category);
                     
                     // JavaFX update: Refresh displays
-                    table.refresh();
-                    updateBalanceDisplay();
-                    updateSummaryDisplay();
-                    spendingLimitList.setAll(tracker.getSpendingLimits()); // JavaFX update: Refresh spending limits
+                    refreshes.invalidate(TABLE, BALANCE, SUMMARY, LIMITS);
                     
                     return transaction;
                 } catch (NumberFormatException e) {
                     showAlert("Invalid amount format");
                     return null;
+                } catch (IllegalArgumentException e) {
+                    // Performance update: Money rejects NaN, infinities and amounts out of range
+                    showAlert(e.getMessage());
+                    return null;
                 }
             }
             return null;
@@ -970,14 +1013,9 @@ public class MainApp extends Application {
         result.ifPresent(newName -> {
             if (!newName.trim().isEmpty()) {
                 tracker.renameCategory(category, newName.trim());
-                categoryList.setAll(tracker.getCategories());
-                updateCategoryFilters();
                 
                 // JavaFX update: Force refresh of transaction table to show updated category names
-                List<Transaction> currentTransactions = new ArrayList<>(transactionList);
-                transactionList.clear();
-                transactionList.addAll(currentTransactions);
-                table.refresh();
+                refreshes.invalidate(CATEGORIES, TABLE, SUMMARY, LIMITS);
             }
         });
     }
@@ -991,12 +1029,7 @@ public class MainApp extends Application {
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
             tracker.deleteCategory(category);
-            categoryList.setAll(tracker.getCategories());
-            transactionList.setAll(tracker.getTransactions());
-            spendingLimitList.setAll(tracker.getSpendingLimits()); // JavaFX update: Refresh spending limits
-            updateCategoryFilters();
-            updateBalanceDisplay();
-            updateSummaryDisplay();
+            refreshes.invalidate(CATEGORIES, TABLE, BALANCE, SUMMARY, LIMITS);
         }
     }
     
@@ -1075,6 +1108,10 @@ public class MainApp extends Application {
                 } catch (NumberFormatException e) {
                     showAlert("Invalid limit format");
                     return null;
+                } catch (IllegalArgumentException e) {
+                    // Performance update: Money rejects NaN, infinities and amounts out of range
+                    showAlert(e.getMessage());
+                    return null;
                 }
             }
             return null;
@@ -1093,9 +1130,7 @@ public class MainApp extends Application {
         if (result.isPresent() && result.get() == ButtonType.OK) {
             tracker.removeSpendingLimit(limit.getCategory());
             spendingLimitList.remove(limit);
-            updateCategoryFilters(); // Refresh category filters to remove the removed category
-            updateBalanceDisplay();
-            updateSummaryDisplay();
+            refreshes.invalidate(CATEGORIES, BALANCE, SUMMARY); // Refresh category filters to remove the removed category
         }
     }
     
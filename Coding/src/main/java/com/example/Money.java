@@ -0,0 +1,89 @@
+// Performance update: Exact fixed-point money; amounts are held as long cents throughout the model
+package com.example;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public final class Money {
+    private Money() {
+    }
+
+    // Largest amount whose cents a double still holds exactly (2^53 cents is about 90 trillion)
+    static final double MAX_AMOUNT = 90_000_000_000_000.0;
+
+    // Rounds half up to the nearest cent, so 1.005 becomes 101 cents rather than 100.
+    // NaN, infinities and amounts beyond MAX_AMOUNT either way are rejected.
+    public static long toCents(double amount) {
+        if (!Double.isFinite(amount) || Math.abs(amount) > MAX_AMOUNT) {
+            throw new IllegalArgumentException("Amount out of range: " + amount);
+        }
+        double scaled = amount * 100;
+        long rounded = Math.round(scaled);
+        if (Math.abs(scaled - rounded) < 1e-6) {
+            return rounded;
+        }
+        // Off the fast path: go through the shortest decimal form of the double
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    public static long parseCents(String text) {
+        // Fast path for plain decimals with at most two fraction digits, like "120.5" or "-3500.00"
+        int length = text.length();
+        int i = 0;
+        boolean negative = length > 0 && text.charAt(0) == '-';
+        if (negative) {
+            i++;
+        }
+        int start = i;
+        long cents = 0;
+        while (i < length && isAsciiDigit(text.charAt(i)) && i - start < 15) {
+            cents = cents * 10 + (text.charAt(i++) - '0');
+        }
+        boolean hasWhole = i > start;
+        int fractionDigits = 0;
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            while (i < length && isAsciiDigit(text.charAt(i)) && fractionDigits < 2) {
+                cents = cents * 10 + (text.charAt(i++) - '0');
+                fractionDigits++;
+            }
+        }
+        if (i == length && hasWhole) {
+            for (; fractionDigits < 2; fractionDigits++) {
+                cents *= 10;
+            }
+            return negative ? -cents : cents;
+        }
+        return new BigDecimal(text.trim()).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // Same text as toDecimal(cents).toPlainString() without the BigDecimal, for the file writer
+    static String toPlainString(long cents) {
+        if (cents == Long.MIN_VALUE) {
+            return toDecimal(cents).toPlainString();
+        }
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        StringBuilder text = new StringBuilder(24);
+        if (cents < 0) {
+            text.append('-');
+        }
+        text.append(abs / 100).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+}
@@ -0,0 +1,99 @@
+// Performance update: Per-month totals maintained by delta behind FinanceTracker.getMonthlySummary
+package com.example;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+class MonthlyAggregate {
+    private long totalIncomeCents;
+    private long totalExpensesCents;
+    private int count;
+    // Performance update: Indexed by CategoryRegistry id instead of a map keyed by category;
+    // renaming a category keeps its id, so its totals stay where they are
+    private long[] categoryCents = new long[8];
+    private int[] categoryCounts = new int[8];
+
+    void add(TransactionType type, long cents, int categoryId) {
+        apply(type, cents, categoryId, 1);
+    }
+
+    void remove(TransactionType type, long cents, int categoryId) {
+        apply(type, cents, categoryId, -1);
+    }
+
+    private void apply(TransactionType type, long cents, int categoryId, int sign) {
+        long amt = sign * cents;
+        if (type == TransactionType.INCOME) {
+            totalIncomeCents += amt;
+        } else {
+            totalExpensesCents += amt;
+        }
+        count += sign;
+
+        ensureSlot(categoryId);
+        categoryCents[categoryId] += amt;
+        categoryCounts[categoryId] += sign;
+    }
+
+    private void ensureSlot(int categoryId) {
+        if (categoryId >= categoryCents.length) {
+            int length = Math.max(categoryId + 1, categoryCents.length * 2);
+            categoryCents = Arrays.copyOf(categoryCents, length);
+            categoryCounts = Arrays.copyOf(categoryCounts, length);
+        }
+    }
+
+    // Adds another month's totals, e.g. one built by a worker during a bulk add
+    void addAll(MonthlyAggregate other) {
+        totalIncomeCents += other.totalIncomeCents;
+        totalExpensesCents += other.totalExpensesCents;
+        count += other.count;
+        ensureSlot(other.categoryCents.length - 1);
+        for (int id = 0; id < other.categoryCents.length; id++) {
+            categoryCents[id] += other.categoryCents[id];
+            categoryCounts[id] += other.categoryCounts[id];
+        }
+    }
+
+    // Moves the totals of every marked id (see CategoryRegistry.idsEqualTo) to another id
+    void reassign(boolean[] from, int to) {
+        long cents = 0;
+        int moved = 0;
+        for (int id = 0; id < Math.min(from.length, categoryCents.length); id++) {
+            if (from[id] && id != to) {
+                cents += categoryCents[id];
+                moved += categoryCounts[id];
+                categoryCents[id] = 0;
+                categoryCounts[id] = 0;
+            }
+        }
+        if (moved != 0) {
+            ensureSlot(to);
+            categoryCents[to] += cents;
+            categoryCounts[to] += moved;
+        }
+    }
+
+    // Exact total of one category id this month
+    long categoryCents(int categoryId) {
+        return categoryId < categoryCents.length ? categoryCents[categoryId] : 0;
+    }
+
+    boolean isEmpty() {
+        return count <= 0;
+    }
+
+    FinanceSummary toSummary(CategoryRegistry categories) {
+        Map<Category, Long> centsByCategory = new HashMap<>();
+        for (int id = 0; id < categoryCounts.length; id++) {
+            if (categoryCounts[id] > 0) {
+                // Distinct but equal category objects collapse into one entry, as in the old scan
+                centsByCategory.merge(categories.get(id), categoryCents[id], Long::sum);
+            }
+        }
+        Map<Category, Double> categoryBreakdown = new HashMap<>();
+        centsByCategory.forEach((category, cents) -> categoryBreakdown.put(category, Money.toAmount(cents)));
+        return FinanceSummary.ofCents(totalIncomeCents, totalExpensesCents, categoryBreakdown);
+    }
+}
@@ -0,0 +1,181 @@
+// Performance update: Rows of the Transactions table, fetched a page at a time from a TransactionCursor
+package com.example;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * A read-only list whose size is the query's total count. TableView only asks
+ * for the rows it shows, so opening a query costs the count plus one screen
+ * of rows, whatever the number of matches. Pages are cached, least recently
+ * used first out. refresh() reopens the cursor after the tracker changed and
+ * reports one replace-everything change; the removed rows are passed as
+ * placeholders rather than read back. Given BackgroundTasks, the cursor is
+ * opened, and the rows counted, on a worker, and a newer refresh cancels an
+ * older one still counting. Pages are read on workers too: a page not cached
+ * shows the LOADING row and arrives as a change over its rows, so the thread
+ * asking for rows never waits for the tracker's lock, e.g. during an import.
+ * Once a page read finds the tracker changed, the list keeps its size and
+ * cached pages, shows the LOADING row for pages it has not read, and
+ * refreshes the way refresh() does, so the new count arrives as a change.
+ */
+class PagedTransactionList extends ObservableListBase<Transaction> {
+    static final int PAGE_SIZE = 100;
+    private static final int CACHED_PAGES = 16;
+    // Stands in for rows that cannot be read until the refresh arrives; never edited or removed
+    static final Transaction LOADING = new Transaction("Loading...", 0, LocalDate.EPOCH, TransactionType.EXPENSE, null);
+
+    // Null to open cursors on the calling thread
+    private final BackgroundTasks tasks;
+    private TransactionQuery query;
+    private TransactionQuery.Order order = TransactionQuery.Order.INSERTION;
+    private TransactionCursor cursor;
+    private int size;
+    // Set once the cursor is found out of date, until a refresh shows a new one
+    private boolean stale;
+    private boolean refreshPosted;
+    // Pages being read on a worker for the current cursor
+    private final Set<Integer> loading = new HashSet<>();
+    private final Map<Integer, List<Transaction>> pages = new LinkedHashMap<>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Transaction>> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    PagedTransactionList() {
+        this(null);
+    }
+
+    PagedTransactionList(BackgroundTasks tasks) {
+        this.tasks = tasks;
+    }
+
+    void setQuery(TransactionQuery query) {
+        this.query = query;
+        refresh();
+    }
+
+    // Sorting happens in the query, so column sorting never reads every row
+    void setOrder(TransactionQuery.Order order) {
+        this.order = order;
+        refresh();
+    }
+
+    void refresh() {
+        if (query == null) {
+            return;
+        }
+        // A copy, as the worker reads it while the UI may already set the next order
+        TransactionQuery ordered = query.copy().orderBy(order);
+        if (tasks == null) {
+            show(ordered.cursor());
+        } else {
+            tasks.submit("table", progress -> ordered.cursor(), this::show);
+        }
+    }
+
+    private void show(TransactionCursor opened) {
+        int oldSize = size;
+        cursor = opened;
+        size = (int) Math.min(cursor.getTotalCount(), Integer.MAX_VALUE);
+        pages.clear();
+        for (int page : loading) {
+            tasks.cancel(pageKey(page));
+        }
+        loading.clear();
+        stale = false;
+        refreshPosted = false;
+        if (oldSize == 0 && size == 0) {
+            return;
+        }
+        beginChange();
+        nextReplace(0, size, Collections.<Transaction>nCopies(oldSize, null));
+        endChange();
+    }
+
+    @Override
+    public Transaction get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+        int page = index / PAGE_SIZE;
+        List<Transaction> rows = pages.get(page);
+        if (rows == null && !stale) {
+            if (tasks != null) {
+                load(page);
+            } else {
+                rows = readPage(cursor, page);
+                if (rows != null) {
+                    pages.put(page, rows);
+                } else {
+                    outOfDate();
+                }
+            }
+        }
+        int at = index - page * PAGE_SIZE;
+        return rows != null && at < rows.size() ? rows.get(at) : LOADING;
+    }
+
+    private void load(int page) {
+        if (!loading.add(page)) {
+            return;
+        }
+        TransactionCursor reading = cursor;
+        tasks.submit(pageKey(page), progress -> readPage(reading, page), rows -> {
+            // A refresh since then cancelled the read, so this is still the cursor shown
+            loading.remove(page);
+            if (rows == null) {
+                outOfDate();
+                return;
+            }
+            pages.put(page, rows);
+            int from = page * PAGE_SIZE;
+            int to = Math.min(size, from + rows.size());
+            if (from < to) {
+                beginChange();
+                nextReplace(from, to, Collections.nCopies(to - from, LOADING));
+                endChange();
+            }
+        });
+    }
+
+    private static String pageKey(int page) {
+        return "table page " + page;
+    }
+
+    // Null once the tracker has changed since the cursor was opened; safe on any thread
+    private static List<Transaction> readPage(TransactionCursor cursor, int page) {
+        try {
+            return cursor.page(page * PAGE_SIZE, PAGE_SIZE);
+        } catch (ConcurrentModificationException e) {
+            return null;
+        }
+    }
+
+    private void outOfDate() {
+        stale = true;
+        if (!refreshPosted) {
+            refreshPosted = true;
+            if (tasks == null) {
+                // Not while the table is asking for rows
+                Platform.runLater(this::refresh);
+            } else if (!tasks.isRunning("table")) {
+                refresh();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,112 @@
+// Performance update: Coalesces the UI's view refreshes to at most one per view and pulse
+package com.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/*
+ * Views register under a name with the action that recomputes them. Event
+ * handlers only mark the views a change affects as dirty; the first mark
+ * posts one flush to the pulse executor (Platform::runLater in the app), and
+ * the flush recomputes each dirty view once, in registration order. A handler
+ * that marks the balance, the limits and the summary, and a listener marking
+ * them again before the pulse, therefore cost one recomputation of each.
+ * Everything here belongs to the UI thread.
+ */
+class RefreshScheduler {
+    private final Executor pulse;
+    // Recompute actions in registration order, and which of them are dirty
+    private final Map<String, Runnable> views = new LinkedHashMap<>();
+    private final Map<String, Boolean> dirty = new LinkedHashMap<>();
+    private boolean posted;
+    private long requests;
+    private long recomputes;
+    private long avoided;
+    private long flushes;
+
+    RefreshScheduler(Executor pulse) {
+        this.pulse = pulse;
+    }
+
+    void register(String view, Runnable recompute) {
+        views.put(view, recompute);
+        dirty.put(view, false);
+    }
+
+    void invalidate(String... names) {
+        for (String name : names) {
+            Boolean wasDirty = dirty.put(name, true);
+            if (wasDirty == null) {
+                dirty.remove(name);
+                throw new IllegalArgumentException("Unknown view: " + name);
+            }
+            requests++;
+            if (wasDirty) {
+                avoided++;
+            }
+        }
+        if (!posted) {
+            posted = true;
+            pulse.execute(this::flush);
+        }
+    }
+
+    // Recomputes the dirty views now; views marked while flushing wait for the next pulse
+    void flush() {
+        posted = false;
+        flushes++;
+        for (Map.Entry<String, Runnable> view : views.entrySet()) {
+            if (dirty.put(view.getKey(), false)) {
+                recomputes++;
+                view.getValue().run();
+            }
+        }
+    }
+
+    boolean isDirty(String view) {
+        return Boolean.TRUE.equals(dirty.get(view));
+    }
+
+    Metrics getMetrics() {
+        return new Metrics(requests, recomputes, avoided, flushes);
+    }
+
+    static final class Metrics {
+        private final long requests;
+        private final long recomputes;
+        private final long avoided;
+        private final long flushes;
+
+        Metrics(long requests, long recomputes, long avoided, long flushes) {
+            this.requests = requests;
+            this.recomputes = recomputes;
+            this.avoided = avoided;
+            this.flushes = flushes;
+        }
+
+        // Views marked dirty, counting every mark
+        long getRequests() {
+            return requests;
+        }
+
+        long getRecomputes() {
+            return recomputes;
+        }
+
+        // Marks that found the view already dirty, so cost nothing
+        long getAvoided() {
+            return avoided;
+        }
+
+        long getFlushes() {
+            return flushes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d refresh requests, %d recomputed, %d avoided, in %d pulses",
+                requests, recomputes, avoided, flushes);
+        }
+    }
+}
@@ -1,23 +1,31 @@
 // Prompt 3: Moved to com.example package for Maven structure
 package com.example;
+
 //Prompt 1: Core logic
 public class SpendingLimit {
     private Category category;
-    private double monthlyLimit;
-    private double currentSpent;
+    // Performance update: Exact cents; LedgerTypeAdapters keeps the decimal "monthlyLimit" and "currentSpent" in JSON
+    private long monthlyLimitCents;
+    private long currentSpentCents;
 
     public SpendingLimit(Category category, double monthlyLimit) {
         this.category = category;
-        this.monthlyLimit = monthlyLimit;
-        this.currentSpent = 0;
+        this.monthlyLimitCents = Money.toCents(monthlyLimit);
+        this.currentSpentCents = 0;
     }
 
     public Category getCategory() { return category; }
     public void setCategory(Category category) { this.category = category; }
 
-    public double getMonthlyLimit() { return monthlyLimit; }
-    public void setMonthlyLimit(double monthlyLimit) { this.monthlyLimit = monthlyLimit; }
+    public double getMonthlyLimit() { return Money.toAmount(monthlyLimitCents); }
+    public void setMonthlyLimit(double monthlyLimit) { this.monthlyLimitCents = Money.toCents(monthlyLimit); }
+
+    public double getCurrentSpent() { return Money.toAmount(currentSpentCents); }
+    public void setCurrentSpent(double currentSpent) { this.currentSpentCents = Money.toCents(currentSpent); }
+
+    public long getMonthlyLimitCents() { return monthlyLimitCents; }
+    public void setMonthlyLimitCents(long monthlyLimitCents) { this.monthlyLimitCents = monthlyLimitCents; }
 
-    public double getCurrentSpent() { return currentSpent; }
-    public void setCurrentSpent(double currentSpent) { this.currentSpent = currentSpent; }
+    public long getCurrentSpentCents() { return currentSpentCents; }
+    public void setCurrentSpentCents(long currentSpentCents) { this.currentSpentCents = currentSpentCents; }
 }
\ No newline at end of file
@@ -0,0 +1,266 @@
+// Performance update: Keyed spending limits with incremental month-to-date spend and threshold events
+package com.example;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/*
+ * Holds the limits keyed by category value and, for each, the expenses of the
+ * current calendar month. FinanceTracker reports every expense delta, so the
+ * month-to-date spend is adjusted in O(1) and a threshold (80% or 100% of the
+ * limit) is detected on the transaction that crosses it. Lowering the spend
+ * only re-arms a threshold once the mutation is complete (settle), so an edit
+ * that leaves the spend where it was does not report it again. Each limit's
+ * currentSpent is kept at the month-to-date spend, so reading it needs no
+ * check first; a loaded limit keeps the saved value until the first recompute.
+ *
+ * Events are queued per listener and handed to its executor in one batch, at
+ * most one per category, so a bulk import produces one delivery. When the
+ * month changes, the month-to-date totals are recomputed from the new month's
+ * rows before the next delta is applied.
+ */
+class SpendingLimitEngine {
+    private static final int BELOW = 0;
+    private static final int WARNING = 1;
+    private static final int EXCEEDED = 2;
+
+    private static class Entry {
+        final SpendingLimit limit;
+        long monthCents;
+        // Highest threshold already reported for this month
+        int reportedLevel;
+        boolean touched;
+
+        Entry(SpendingLimit limit) {
+            this.limit = limit;
+        }
+
+        int level() {
+            long limitCents = limit.getMonthlyLimitCents();
+            if (limitCents <= 0) {
+                return BELOW;
+            }
+            // Exact comparisons in cents (80% as spent * 5 >= limit * 4)
+            if (monthCents >= limitCents) {
+                return EXCEEDED;
+            }
+            return monthCents * 5 >= limitCents * 4 ? WARNING : BELOW;
+        }
+    }
+
+    private static class Subscription {
+        final SpendingLimitListener listener;
+        final Executor executor;
+        // Keyed by entry identity, so a category renamed in between keeps its slot
+        private final Map<Entry, SpendingLimitEvent> pending = new LinkedHashMap<>();
+        private boolean scheduled;
+
+        Subscription(SpendingLimitListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        synchronized void offer(Entry entry, SpendingLimitEvent event) {
+            SpendingLimitEvent queued = pending.get(entry);
+            if (queued == null || event.getThreshold().compareTo(queued.getThreshold()) >= 0) {
+                pending.put(entry, event);
+            }
+            if (!scheduled) {
+                scheduled = true;
+                executor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            List<SpendingLimitEvent> events;
+            synchronized (this) {
+                events = new ArrayList<>(pending.values());
+                pending.clear();
+                scheduled = false;
+            }
+            if (!events.isEmpty()) {
+                listener.thresholdsCrossed(events);
+            }
+        }
+    }
+
+    private final Map<Category, Entry> limits = new LinkedHashMap<>();
+    // Built lazily, possibly by several readers at once, so it is published through a volatile field
+    private volatile List<SpendingLimit> view;
+    private final List<Entry> touched = new ArrayList<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private Clock clock = Clock.systemDefaultZone();
+    // Month the totals belong to, null until computed
+    private YearMonth month;
+    private int monthStartDay;
+    private int monthEndDay;
+
+    // Limits
+
+    SpendingLimit get(Category category) {
+        Entry entry = category != null ? limits.get(category) : null;
+        return entry != null ? entry.limit : null;
+    }
+
+    // Read-only, in the order the limits were set
+    List<SpendingLimit> list() {
+        List<SpendingLimit> current = view;
+        if (current == null) {
+            List<SpendingLimit> list = new ArrayList<>(limits.size());
+            for (Entry entry : limits.values()) {
+                list.add(entry.limit);
+            }
+            current = Collections.unmodifiableList(list);
+            view = current;
+        }
+        return current;
+    }
+
+    // Adding or changing a limit reports nothing; only transactions cross thresholds
+    void put(SpendingLimit limit, long monthCents) {
+        remove(limit.getCategory());
+        Entry entry = new Entry(limit);
+        entry.monthCents = monthCents;
+        limit.setCurrentSpentCents(monthCents);
+        entry.reportedLevel = entry.level();
+        limits.put(limit.getCategory(), entry);
+        view = null;
+    }
+
+    boolean remove(Category category) {
+        Entry entry = limits.remove(category);
+        if (entry == null) {
+            return false;
+        }
+        view = null;
+        return true;
+    }
+
+    /*
+     * The category's hash changes with its name, so its limit is re-keyed. A
+     * category has at most one limit: renamed onto a name that already has
+     * one, the category takes that limit, and its own is dropped. Which rows
+     * each limit covers changes either way, so the month-to-date totals are
+     * recomputed on the next sync, and the kept limit counts the renamed
+     * category's expenses too.
+     */
+    void rename(Category category, String newName) {
+        Entry entry = limits.remove(category);
+        category.setName(newName);
+        if (entry != null) {
+            limits.putIfAbsent(entry.limit.getCategory(), entry);
+            view = null;
+        }
+        invalidateMonth();
+    }
+
+    // After a load; the month-to-date totals are recomputed on the next sync
+    void replaceAll(List<SpendingLimit> loaded) {
+        limits.clear();
+        for (SpendingLimit limit : loaded) {
+            limits.putIfAbsent(limit.getCategory(), new Entry(limit));
+        }
+        view = null;
+        invalidateMonth();
+    }
+
+    // Month handling
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+        invalidateMonth();
+    }
+
+    void invalidateMonth() {
+        month = null;
+    }
+
+    YearMonth currentMonth() {
+        return YearMonth.now(clock);
+    }
+
+    // True when the totals must be recomputed for currentMonth()
+    boolean needsRecompute() {
+        return month == null || !month.equals(currentMonth());
+    }
+
+    // spentById holds the month's expense cents per CategoryRegistry id; thresholds already reached stay reported
+    void recompute(YearMonth newMonth, CategoryRegistry registry, long[] spentById) {
+        month = newMonth;
+        monthStartDay = (int) newMonth.atDay(1).toEpochDay();
+        monthEndDay = (int) newMonth.atEndOfMonth().toEpochDay();
+        for (Entry entry : limits.values()) {
+            boolean[] matches = registry.idsEqualTo(entry.limit.getCategory());
+            long cents = 0;
+            for (int id = 0; id < Math.min(matches.length, spentById.length); id++) {
+                if (matches[id]) {
+                    cents += spentById[id];
+                }
+            }
+            entry.monthCents = cents;
+            entry.limit.setCurrentSpentCents(cents);
+            entry.reportedLevel = entry.level();
+            entry.touched = false;
+        }
+        touched.clear();
+    }
+
+    // Deltas
+
+    /*
+     * One expense row of the category changed by deltaCents. cause is the
+     * transaction being added or edited in, or null for removals and replays,
+     * which never report a crossing.
+     */
+    void expenseChanged(Transaction cause, Category category, int epochDay, long deltaCents) {
+        Entry entry = category != null ? limits.get(category) : null;
+        if (entry == null) {
+            return;
+        }
+        if (month == null || epochDay < monthStartDay || epochDay > monthEndDay) {
+            return;
+        }
+        entry.monthCents += deltaCents;
+        entry.limit.setCurrentSpentCents(entry.monthCents);
+        if (!entry.touched) {
+            entry.touched = true;
+            touched.add(entry);
+        }
+        int level = entry.level();
+        if (cause != null && level > entry.reportedLevel) {
+            entry.reportedLevel = level;
+            SpendingLimitEvent event = new SpendingLimitEvent(entry.limit.getCategory(),
+                level == EXCEEDED ? SpendingLimitEvent.Threshold.EXCEEDED : SpendingLimitEvent.Threshold.WARNING,
+                entry.monthCents, entry.limit.getMonthlyLimitCents(), month, cause);
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(entry, event);
+            }
+        }
+    }
+
+    // End of a mutation: thresholds the spend has dropped below can be reported again
+    void settle() {
+        for (Entry entry : touched) {
+            entry.reportedLevel = entry.level();
+            entry.touched = false;
+        }
+        touched.clear();
+    }
+
+    // Listeners
+
+    void addListener(SpendingLimitListener listener, Executor executor) {
+        subscriptions.add(new Subscription(listener, executor));
+    }
+
+    void removeListener(SpendingLimitListener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+}
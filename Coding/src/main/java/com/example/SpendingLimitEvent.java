@@ -0,0 +1,46 @@
+// Performance update: A spending limit threshold crossed by one transaction
+package com.example;
+
+import java.time.YearMonth;
+
+public class SpendingLimitEvent {
+    public enum Threshold {
+        // 80% of the monthly limit
+        WARNING,
+        EXCEEDED
+    }
+
+    private final Category category;
+    private final Threshold threshold;
+    private final long spentCents;
+    private final long limitCents;
+    private final YearMonth month;
+    private final Transaction transaction;
+
+    SpendingLimitEvent(Category category, Threshold threshold, long spentCents, long limitCents,
+                       YearMonth month, Transaction transaction) {
+        this.category = category;
+        this.threshold = threshold;
+        this.spentCents = spentCents;
+        this.limitCents = limitCents;
+        this.month = month;
+        this.transaction = transaction;
+    }
+
+    public Category getCategory() { return category; }
+    public Threshold getThreshold() { return threshold; }
+    // Month-to-date expenses of the category right after the transaction
+    public long getSpentCents() { return spentCents; }
+    public long getLimitCents() { return limitCents; }
+    public double getSpent() { return Money.toAmount(spentCents); }
+    public double getLimit() { return Money.toAmount(limitCents); }
+    public YearMonth getMonth() { return month; }
+    // The transaction whose add or edit crossed the threshold
+    public Transaction getTransaction() { return transaction; }
+
+    @Override
+    public String toString() {
+        return (threshold == Threshold.EXCEEDED ? "LIMIT EXCEEDED: " : "APPROACHING LIMIT: ")
+            + category.getName() + " ($" + Money.toPlainString(spentCents) + "/$" + Money.toPlainString(limitCents) + ")";
+    }
+}
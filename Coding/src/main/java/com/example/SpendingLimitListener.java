@@ -0,0 +1,9 @@
+// Performance update: Receives spending limit threshold crossings
+package com.example;
+
+import java.util.List;
+
+public interface SpendingLimitListener {
+    // Crossings queued since the last call, at most one per category (the highest threshold reached)
+    void thresholdsCrossed(List<SpendingLimitEvent> events);
+}
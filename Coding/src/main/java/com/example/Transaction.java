@@ -6,14 +6,17 @@ import java.time.LocalDate;
 //Prompt 1: Core logic
 public class Transaction {
     private String description;
-    private double amount;
+    // Performance update: Exact cents; still read and written as a decimal "amount" in JSON, see LedgerTypeAdapters
+    private long amountCents;
     private LocalDate date;
     private TransactionType type; // EXPENSE or INCOME
     private Category category;
+    // Performance update: Row id in the owning FinanceTracker's store, increasing with insertion (not persisted)
+    private transient int id = -1;
 
     public Transaction(String description, double amount, LocalDate date, TransactionType type, Category category) {
         this.description = description;
-        this.amount = amount;
+        this.amountCents = Money.toCents(amount);
         this.date = date;
         this.type = type;
         this.category = category;
@@ -22,8 +25,11 @@ public class Transaction {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
-    public double getAmount() { return amount; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public double getAmount() { return Money.toAmount(amountCents); }
+    public void setAmount(double amount) { this.amountCents = Money.toCents(amount); }
+
+    public long getAmountCents() { return amountCents; }
+    public void setAmountCents(long amountCents) { this.amountCents = amountCents; }
 
     public LocalDate getDate() { return date; }
     public void setDate(LocalDate date) { this.date = date; }
@@ -33,4 +39,7 @@ public class Transaction {
 
     public Category getCategory() { return category; }
     public void setCategory(Category category) { this.category = category; }
+
+    int getId() { return id; }
+    void setId(int id) { this.id = id; }
 }
\ No newline at end of file
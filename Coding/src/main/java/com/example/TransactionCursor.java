@@ -0,0 +1,66 @@
+// Performance update: Windows of a query's result, fetched on demand, with the total count
+package com.example;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/*
+ * Opened by TransactionQuery.cursor(): counts the matching rows, without
+ * creating their transactions, and plans the query, but reads no rows yet.
+ * page(offset, size) then pulls matching row ids from the plan up to the end
+ * of the window, remembers them so earlier windows are found again by
+ * position, and creates transactions only for the window. Paging through in
+ * order costs one window each; a jump to the end reads the row ids on the way
+ * once. A cursor belongs to the tracker state it was opened on: after any
+ * change to the tracker, page throws ConcurrentModificationException and a
+ * new cursor must be opened.
+ */
+public final class TransactionCursor {
+    private final FinanceTracker tracker;
+    private final long totalCount;
+    private final IntSupplier rows;
+    private final long modCount;
+    // Matching row ids by position, as far as pulled from rows
+    private final IntList seen = new IntList();
+
+    TransactionCursor(FinanceTracker tracker, long totalCount, IntSupplier rows, long modCount) {
+        this.tracker = tracker;
+        this.totalCount = totalCount;
+        this.rows = rows;
+        this.modCount = modCount;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    // False once the tracker has changed since the cursor was opened
+    public boolean isCurrent() {
+        return tracker.isUnchangedSince(modCount);
+    }
+
+    // Up to size transactions from position offset on; fewer at the end. Callable from any thread,
+    // one window at a time, as the row ids pulled so far are shared
+    public synchronized List<Transaction> page(int offset, int size) {
+        if (offset < 0 || size < 0) {
+            throw new IllegalArgumentException("Bad window: offset " + offset + ", size " + size);
+        }
+        return tracker.readPage(this, offset, size);
+    }
+
+    // Called by the tracker under its read lock, after checking modCount
+    IntList rowsThrough(int end) {
+        while (seen.size() < end) {
+            int id = rows.getAsInt();
+            if (id < 0) {
+                break;
+            }
+            seen.add(id);
+        }
+        return seen;
+    }
+
+    long modCount() {
+        return modCount;
+    }
+}
@@ -0,0 +1,132 @@
+// Performance update: Composable transaction query, planned against the tracker's indexes
+package com.example;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/*
+ * Built by FinanceTracker.query() and refined by chaining; every filter is
+ * optional and they all must hold. Running it plans once against the indexes
+ * (see TransactionQueryPlan): the most selective of the date, category and
+ * description indexes supplies candidate rows, the other filters are checked
+ * on each candidate's stored fields, and transactions are created only for
+ * rows that pass. stream() and iterator() are lazy and fail fast with a
+ * ConcurrentModificationException if the tracker changes while they are
+ * being consumed, as are the windows of cursor(); list() and count() run
+ * under one read lock.
+ */
+public final class TransactionQuery {
+    public enum Order {
+        // Order of addition, as getTransactions and filterTransactions return them
+        INSERTION,
+        // Undated transactions first; same-day transactions in insertion order
+        DATE_ASCENDING,
+        // The exact reverse of DATE_ASCENDING
+        DATE_DESCENDING,
+        // Equal amounts in insertion order
+        AMOUNT_ASCENDING,
+        AMOUNT_DESCENDING
+    }
+
+    private final FinanceTracker tracker;
+    LocalDate start;
+    LocalDate end;
+    // Null for any category; a null element stands for uncategorized transactions
+    List<Category> categories;
+    TransactionType type;
+    Long minCents;
+    Long maxCents;
+    String description;
+    Order order = Order.INSERTION;
+    int limit = Integer.MAX_VALUE;
+
+    TransactionQuery(FinanceTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    // Same filters, order and limit, for refining without touching this one
+    public TransactionQuery copy() {
+        TransactionQuery copy = new TransactionQuery(tracker);
+        copy.start = start;
+        copy.end = end;
+        copy.categories = categories != null ? new ArrayList<>(categories) : null;
+        copy.type = type;
+        copy.minCents = minCents;
+        copy.maxCents = maxCents;
+        copy.description = description;
+        copy.order = order;
+        copy.limit = limit;
+        return copy;
+    }
+
+    // Both bounds inclusive, null bounds open; undated transactions fall in no range, unless both are null,
+    // which drops the date filter
+    public TransactionQuery between(LocalDate start, LocalDate end) {
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    // Transactions in any of the categories, compared by value; pass null for uncategorized ones
+    public TransactionQuery inCategories(Category... categories) {
+        this.categories = new ArrayList<>(Arrays.asList(categories));
+        return this;
+    }
+
+    public TransactionQuery ofType(TransactionType type) {
+        this.type = type;
+        return this;
+    }
+
+    // Both bounds inclusive, null bounds open
+    public TransactionQuery amountBetween(Double min, Double max) {
+        this.minCents = min != null ? Money.toCents(min) : null;
+        this.maxCents = max != null ? Money.toCents(max) : null;
+        return this;
+    }
+
+    // Same matching as FinanceTracker.searchTransactions; a blank query matches everything
+    public TransactionQuery descriptionMatches(String query) {
+        this.description = query == null || query.isBlank() ? null : query;
+        return this;
+    }
+
+    public TransactionQuery orderBy(Order order) {
+        this.order = order;
+        return this;
+    }
+
+    public TransactionQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public Stream<Transaction> stream() {
+        return tracker.stream(this);
+    }
+
+    public Iterator<Transaction> iterator() {
+        return stream().iterator();
+    }
+
+    public List<Transaction> list() {
+        return tracker.list(this);
+    }
+
+    // The total count now and windows of rows on demand, e.g. for a table that pages as it scrolls
+    public TransactionCursor cursor() {
+        return tracker.cursor(this);
+    }
+
+    // Counts matching rows without creating their transactions; at most the limit
+    public long count() {
+        return tracker.count(this);
+    }
+}
@@ -0,0 +1,417 @@
+// Performance update: Index choice and row iteration for one run of a TransactionQuery
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/*
+ * Made by FinanceTracker under its read lock. Each index that can answer one
+ * of the query's filters estimates how many rows it would yield: the date
+ * index sums its day lists over the range, the category index its postings,
+ * the description index the postings of its most selective term. The smallest
+ * estimate, or a scan of the store if none beats it, supplies the candidate
+ * row ids; all filters are then checked on the stored fields of each one.
+ *
+ * Rows come out lazily, through an IntSupplier returning -1 when done, as long
+ * as the order allows: insertion order from ascending candidates, and date
+ * order by walking the date index's days forward or backward, with the
+ * undated rows ahead of them (behind, descending), whichever index supplies
+ * the candidates of a count; the planner prefers the date index for such
+ * queries with a limit whenever the walk to the limit looks shorter than
+ * reading another source through. Amount orders collect the matching ids
+ * first, keeping only the first limit of them in a bounded heap when there is
+ * a limit; sameResultAs lets the tracker reuse that sort while nothing has
+ * changed. Row ids and the index lists are read while iterating, so the
+ * caller must detect mutations.
+ */
+class TransactionQueryPlan {
+    enum Source {
+        SCAN,
+        DATES,
+        CATEGORIES,
+        DESCRIPTION
+    }
+
+    private final TransactionStore store;
+    private final IntFunction<String> descriptionOf;
+    private final NavigableMap<Integer, IntList> dateIndex;
+    // Ascending ids of the rows without a date, which the date index leaves out
+    private final IntList undatedRows;
+    private final List<IntList> categoryIndex;
+    private final TransactionQuery.Order order;
+    private final int limit;
+
+    private final boolean dated;
+    private final int startDay;
+    private final int endDay;
+    // Indexed by CategoryRegistry id; null for any category
+    private final boolean[] categoryIds;
+    private final TransactionType type;
+    private final long minCents;
+    private final long maxCents;
+    private final DescriptionIndex.Match description;
+    private final String descriptionQuery;
+
+    private final Source source;
+    private final long estimatedRows;
+
+    TransactionQueryPlan(TransactionQuery query, TransactionStore store, NavigableMap<Integer, IntList> dateIndex,
+                         IntList undatedRows, List<IntList> categoryIndex, DescriptionIndex descriptionIndex) {
+        this.store = store;
+        this.descriptionOf = store::description;
+        this.dateIndex = dateIndex;
+        this.undatedRows = undatedRows;
+        this.categoryIndex = categoryIndex;
+        this.order = query.order;
+        this.limit = query.limit;
+        dated = query.start != null || query.end != null;
+        startDay = query.start != null ? (int) query.start.toEpochDay() : Integer.MIN_VALUE;
+        endDay = query.end != null ? (int) query.end.toEpochDay() : Integer.MAX_VALUE;
+        categoryIds = query.categories != null ? categoryIds(store.categoryRegistry(), query.categories) : null;
+        type = query.type;
+        minCents = query.minCents != null ? query.minCents : Long.MIN_VALUE;
+        maxCents = query.maxCents != null ? query.maxCents : Long.MAX_VALUE;
+        description = query.description != null ? descriptionIndex.match(query.description) : null;
+        descriptionQuery = query.description;
+
+        Source best = Source.SCAN;
+        long fewest = store.size();
+        if (categoryIds != null) {
+            long rows = 0;
+            for (int id = 0; id < Math.min(categoryIds.length, categoryIndex.size()); id++) {
+                if (categoryIds[id]) {
+                    rows += categoryIndex.get(id).size();
+                }
+            }
+            if (rows < fewest) {
+                best = Source.CATEGORIES;
+                fewest = rows;
+            }
+        }
+        if (description != null && description.estimatedRows() < fewest) {
+            best = Source.DESCRIPTION;
+            fewest = description.estimatedRows();
+        }
+        if (dated) {
+            // Counting stops once the range is known not to be the smallest
+            long rows = 0;
+            for (IntList sameDay : dayRange().values()) {
+                rows += sameDay.size();
+                if (rows >= fewest) {
+                    break;
+                }
+            }
+            // Walking the days in order stops at the limit: if the other filters keep about fewest / size of
+            // the rows, that takes about limit * size / fewest rows, against fewest for any other source
+            boolean walksInOrder = limit != Integer.MAX_VALUE && (order == TransactionQuery.Order.DATE_ASCENDING
+                || order == TransactionQuery.Order.DATE_DESCENDING);
+            double walk = walksInOrder && fewest > 0 ? (double) limit * store.size() / fewest : Double.MAX_VALUE;
+            if (rows < fewest || walk < fewest) {
+                best = Source.DATES;
+                fewest = Math.min(rows, fewest);
+            }
+        }
+        source = best;
+        estimatedRows = fewest;
+    }
+
+    private static boolean[] categoryIds(CategoryRegistry registry, List<Category> categories) {
+        boolean[] ids = new boolean[registry.size()];
+        for (Category category : categories) {
+            boolean[] equal = registry.idsEqualTo(category);
+            for (int id = 0; id < equal.length; id++) {
+                ids[id] |= equal[id];
+            }
+        }
+        return ids;
+    }
+
+    Source source() {
+        return source;
+    }
+
+    // Upper bound of the matching rows, before the limit
+    long estimatedRows() {
+        return Math.min(estimatedRows, limit);
+    }
+
+    // Amount orders cannot be walked from an index, see sortedMatches
+    boolean sortsMatches() {
+        return order == TransactionQuery.Order.AMOUNT_ASCENDING || order == TransactionQuery.Order.AMOUNT_DESCENDING;
+    }
+
+    // True when both plans select and order the same rows, as resolved against the store's categories
+    boolean sameResultAs(TransactionQueryPlan other) {
+        return store == other.store && order == other.order && limit == other.limit
+            && startDay == other.startDay && endDay == other.endDay && dated == other.dated
+            && Arrays.equals(categoryIds, other.categoryIds) && type == other.type
+            && minCents == other.minCents && maxCents == other.maxCents
+            && Objects.equals(descriptionQuery, other.descriptionQuery);
+    }
+
+    // The matching row ids in the query's order, at most limit of them
+    IntSupplier rows() {
+        if (sortsMatches()) {
+            return listWalk(sortedMatches());
+        }
+        if (order == TransactionQuery.Order.INSERTION) {
+            return walk(ascendingCandidates(), source);
+        }
+        return walk(dateOrder(order == TransactionQuery.Order.DATE_DESCENDING), Source.DATES);
+    }
+
+    // The candidates, supplied by from, that pass every filter, stopping at the limit
+    private IntSupplier walk(IntSupplier candidates, Source from) {
+        int[] emitted = {0};
+        return () -> {
+            if (emitted[0] >= limit) {
+                return -1;
+            }
+            for (int id = candidates.getAsInt(); id >= 0; id = candidates.getAsInt()) {
+                if (test(id, from)) {
+                    emitted[0]++;
+                    return id;
+                }
+            }
+            return -1;
+        };
+    }
+
+    // Matching rows without their transactions, at most limit
+    long count() {
+        if (limit == 0) {
+            return 0;
+        }
+        if (!dated && categoryIds == null && type == null && minCents == Long.MIN_VALUE
+                && maxCents == Long.MAX_VALUE && description == null) {
+            return Math.min(store.size(), limit);
+        }
+        // When the source's lists answer every filter, their sizes are the count
+        if (type == null && minCents == Long.MIN_VALUE && maxCents == Long.MAX_VALUE && description == null
+                && (source == Source.DATES && categoryIds == null || source == Source.CATEGORIES && !dated)) {
+            long count = 0;
+            for (IntList rows : sourceLists()) {
+                count += rows.size();
+            }
+            return Math.min(count, limit);
+        }
+        IntSupplier candidates = anyOrderCandidates();
+        long count = 0;
+        for (int id = candidates.getAsInt(); id >= 0 && count < limit; id = candidates.getAsInt()) {
+            if (test(id, source)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Filters the source of the candidate already applied are skipped
+    private boolean test(int id, Source from) {
+        if (dated && from != Source.DATES) {
+            int day = store.epochDay(id);
+            if (day == TransactionStore.NO_DATE || day < startDay || day > endDay) {
+                return false;
+            }
+        }
+        if (categoryIds != null) {
+            int categoryId = store.categoryId(id);
+            if (categoryId >= categoryIds.length || !categoryIds[categoryId]) {
+                return false;
+            }
+        }
+        if (type != null && store.type(id) != type) {
+            return false;
+        }
+        if (minCents != Long.MIN_VALUE || maxCents != Long.MAX_VALUE) {
+            long cents = store.amountCents(id);
+            if (cents < minCents || cents > maxCents) {
+                return false;
+            }
+        }
+        if (description != null) {
+            return from == Source.DESCRIPTION
+                ? description.acceptsCandidate(id, descriptionOf) : description.test(id, descriptionOf);
+        }
+        return true;
+    }
+
+    // Candidate row ids from the chosen source, ascending
+    private IntSupplier ascendingCandidates() {
+        switch (source) {
+            case DATES:
+            case CATEGORIES:
+                return mergeAscending(sourceLists());
+            case DESCRIPTION:
+                return description.candidates(false);
+            default: {
+                int[] next = {0};
+                return () -> {
+                    while (next[0] < store.capacity()) {
+                        int id = next[0]++;
+                        if (store.isLive(id)) {
+                            return id;
+                        }
+                    }
+                    return -1;
+                };
+            }
+        }
+    }
+
+    // The ascending row lists of the date range's days or of the wanted categories
+    private List<IntList> sourceLists() {
+        if (source == Source.DATES) {
+            return new ArrayList<>(dayRange().values());
+        }
+        List<IntList> lists = new ArrayList<>();
+        for (int id = 0; id < Math.min(categoryIds.length, categoryIndex.size()); id++) {
+            if (categoryIds[id] && !categoryIndex.get(id).isEmpty()) {
+                lists.add(categoryIndex.get(id));
+            }
+        }
+        return lists;
+    }
+
+    /*
+     * Ascending lists merged lazily through a heap of {row, list index, position},
+     * so the first rows of a wide date range cost O(days) rather than a sort.
+     * Row ids are unique across the lists of one source.
+     */
+    private static IntSupplier mergeAscending(List<IntList> lists) {
+        if (lists.size() == 1) {
+            return listWalk(lists.get(0));
+        }
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> Integer.compare(a[0], b[0]));
+        for (int i = 0; i < lists.size(); i++) {
+            if (!lists.get(i).isEmpty()) {
+                heads.add(new int[]{lists.get(i).get(0), i, 0});
+            }
+        }
+        return () -> {
+            int[] head = heads.poll();
+            if (head == null) {
+                return -1;
+            }
+            int row = head[0];
+            IntList rows = lists.get(head[1]);
+            if (++head[2] < rows.size()) {
+                head[0] = rows.get(head[2]);
+                heads.add(head);
+            }
+            return row;
+        };
+    }
+
+    // Candidate row ids in whatever order is cheapest, for counts and sorts
+    private IntSupplier anyOrderCandidates() {
+        return source == Source.DATES ? dayWalk(false) : ascendingCandidates();
+    }
+
+    // The date index's rows in date order, same-day rows by row id; descending is the exact reverse
+    private IntSupplier dayWalk(boolean descending) {
+        Iterator<IntList> days = (descending ? dayRange().descendingMap() : dayRange()).values().iterator();
+        IntList[] day = {null};
+        int[] position = {0};
+        return () -> {
+            while (day[0] == null || position[0] < 0 || position[0] >= day[0].size()) {
+                if (!days.hasNext()) {
+                    return -1;
+                }
+                day[0] = days.next();
+                position[0] = descending ? day[0].size() - 1 : 0;
+            }
+            int id = day[0].get(position[0]);
+            position[0] += descending ? -1 : 1;
+            return id;
+        };
+    }
+
+    // Every row a date order can yield: the undated rows, ahead of the days ascending and behind them descending
+    private IntSupplier dateOrder(boolean descending) {
+        IntSupplier days = dayWalk(descending);
+        if (dated || undatedRows.isEmpty()) {
+            return days;
+        }
+        IntSupplier undated;
+        if (descending) {
+            int[] next = {undatedRows.size() - 1};
+            undated = () -> next[0] >= 0 ? undatedRows.get(next[0]--) : -1;
+        } else {
+            undated = listWalk(undatedRows);
+        }
+        IntSupplier first = descending ? days : undated;
+        IntSupplier second = descending ? undated : days;
+        boolean[] firstDone = {false};
+        return () -> {
+            if (!firstDone[0]) {
+                int id = first.getAsInt();
+                if (id >= 0) {
+                    return id;
+                }
+                firstDone[0] = true;
+            }
+            return second.getAsInt();
+        };
+    }
+
+    private NavigableMap<Integer, IntList> dayRange() {
+        if (startDay > endDay) {
+            return Collections.emptyNavigableMap();
+        }
+        return dateIndex.subMap(startDay, true, endDay, true);
+    }
+
+    static IntSupplier listWalk(IntList ids) {
+        int[] next = {0};
+        return () -> next[0] < ids.size() ? ids.get(next[0]++) : -1;
+    }
+
+    // Matching row ids sorted by amount, ties by row id; only the first limit are kept
+    IntList sortedMatches() {
+        boolean descending = order == TransactionQuery.Order.AMOUNT_DESCENDING;
+        // Entries are {key, row id}, both negated for descending orders, so they always sort ascending
+        Comparator<long[]> ascending = (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]);
+        List<long[]> matches = new ArrayList<>();
+        // With a limit, a heap whose head is the worst entry kept so far
+        PriorityQueue<long[]> kept = limit != Integer.MAX_VALUE ? new PriorityQueue<>(ascending.reversed()) : null;
+        IntSupplier candidates = limit > 0 ? anyOrderCandidates() : () -> -1;
+        for (int id = candidates.getAsInt(); id >= 0; id = candidates.getAsInt()) {
+            if (!test(id, source)) {
+                continue;
+            }
+            long key = store.amountCents(id);
+            long sortKey = descending ? -key : key;
+            long sortId = descending ? -id : id;
+            if (kept == null) {
+                matches.add(new long[]{sortKey, sortId});
+                continue;
+            }
+            if (kept.size() == limit) {
+                long[] worst = kept.peek();
+                if (sortKey > worst[0] || (sortKey == worst[0] && sortId > worst[1])) {
+                    continue;
+                }
+                kept.poll();
+            }
+            kept.add(new long[]{sortKey, sortId});
+        }
+        if (kept != null) {
+            matches.addAll(kept);
+        }
+        matches.sort(ascending);
+        IntList ids = new IntList(matches.size());
+        for (long[] entry : matches) {
+            ids.add((int) Math.abs(entry[1]));
+        }
+        return ids;
+    }
+}
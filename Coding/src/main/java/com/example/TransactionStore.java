@@ -0,0 +1,103 @@
+// Performance update: Storage backend behind FinanceTracker, addressed by row id
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+interface TransactionStore {
+    // Epoch-day value stored for transactions without a date
+    int NO_DATE = Integer.MIN_VALUE;
+
+    // Appends a row and assigns the transaction its row id
+    int add(Transaction transaction);
+
+    // Writes the transaction's current field values back into its row
+    void update(int id, Transaction transaction);
+
+    void remove(int id);
+
+    // True when the transaction is a live row of this store
+    boolean contains(Transaction transaction);
+
+    boolean isLive(int id);
+
+    // Number of live rows
+    int size();
+
+    // Row ids are always in [0, capacity()); removed rows leave gaps until compactIfSparse()
+    int capacity();
+
+    // List backend returns the stored object, columnar backend materializes a copy
+    Transaction get(int id);
+
+    int epochDay(int id);
+
+    long amountCents(int id);
+
+    TransactionType type(int id);
+
+    String description(int id);
+
+    Category category(int id);
+
+    // Performance update: The row's id in categoryRegistry(), CategoryRegistry.NONE without a category
+    int categoryId(int id);
+
+    CategoryRegistry categoryRegistry();
+
+    void setCategory(int id, Category category);
+
+    // Closes the gaps left by removed rows when worthwhile; returns true if row ids changed. Only a backend
+    // that keeps the transaction objects can give them their new ids, so the others never compact
+    default boolean compactIfSparse() {
+        return false;
+    }
+
+    void clear();
+
+    // Performance update: Exact totals over the live rows, overridden by column kernels
+    default long sumAmountCents() {
+        long total = 0;
+        for (int id = 0; id < capacity(); id++) {
+            if (isLive(id)) {
+                total += amountCents(id);
+            }
+        }
+        return total;
+    }
+
+    default long sumAmountCents(TransactionType type) {
+        long total = 0;
+        for (int id = 0; id < capacity(); id++) {
+            if (isLive(id) && type(id) == type) {
+                total += amountCents(id);
+            }
+        }
+        return total;
+    }
+
+    // Performance update: Detached columnar copy with the same row ids, categories mapped through the function
+    default TransactionStore copyRows(UnaryOperator<Category> categoryCopy) {
+        ColumnarTransactionStore copy = new ColumnarTransactionStore();
+        for (int id = 0; id < capacity(); id++) {
+            if (isLive(id)) {
+                copy.addRow(epochDay(id), amountCents(id), type(id), categoryCopy.apply(category(id)), description(id));
+            } else {
+                copy.remove(copy.addRow(NO_DATE, 0, null, null, null));
+            }
+        }
+        return copy;
+    }
+
+    // Live rows in id (insertion) order
+    default List<Transaction> toList() {
+        List<Transaction> list = new ArrayList<>(size());
+        for (int id = 0; id < capacity(); id++) {
+            if (isLive(id)) {
+                list.add(get(id));
+            }
+        }
+        return list;
+    }
+}
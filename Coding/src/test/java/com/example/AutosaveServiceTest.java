@@ -0,0 +1,217 @@
+// Performance update: Tests for the background autosave
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AutosaveServiceTest {
+    @TempDir
+    Path dir;
+
+    private Path data;
+    // Stands in for the JavaFX application thread
+    private ExecutorService owner;
+    private FinanceTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        data = dir.resolve("finance_data.json");
+        owner = Executors.newSingleThreadExecutor();
+        tracker = new FinanceTracker();
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.shutdownNow();
+    }
+
+    private void onOwner(Runnable action) throws Exception {
+        owner.submit(action).get();
+    }
+
+    private static Transaction expense(String description, double amount) {
+        return new Transaction(description, amount, LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, null);
+    }
+
+    private static List<String> descriptions(FinanceTracker tracker) {
+        return tracker.getTransactions().stream().map(Transaction::getDescription).toList();
+    }
+
+    @Test
+    void testBurstIsCoalescedIntoOneSave() throws Exception {
+        try (AutosaveService autosave = new AutosaveService(tracker, data, owner,
+                Duration.ofMillis(100), Duration.ofSeconds(10))) {
+            onOwner(() -> {
+                for (int i = 0; i < 100; i++) {
+                    tracker.addTransaction(expense("Row " + i, 1));
+                }
+            });
+            assertTrue(autosave.awaitIdle(Duration.ofSeconds(10)));
+            AutosaveService.Metrics metrics = autosave.getMetrics();
+            assertEquals(1, metrics.getSaves());
+            assertEquals(99, metrics.getSkipped());
+            assertEquals(0, metrics.getFailures());
+            assertFalse(metrics.getMaxDuration().isNegative());
+        }
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(data.toString());
+        assertEquals(100, loaded.getTransactions().size());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void testMaxLatencyBoundsAContinuousStream() throws Exception {
+        try (AutosaveService autosave = new AutosaveService(tracker, data, owner,
+                Duration.ofMillis(200), Duration.ofMillis(300))) {
+            // Changes never pause for the debounce interval, so only the latency bound triggers saves
+            for (int i = 0; i < 40; i++) {
+                int n = i;
+                onOwner(() -> tracker.addTransaction(expense("Row " + n, 1)));
+                Thread.sleep(25);
+            }
+            assertTrue(autosave.getMetrics().getSaves() >= 1);
+            assertTrue(autosave.awaitIdle(Duration.ofSeconds(10)));
+        }
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(data.toString());
+        assertEquals(40, loaded.getTransactions().size());
+    }
+
+    @Test
+    void testJournalIsForcedInsteadOfRewritingTheFile() throws Exception {
+        onOwner(() -> {
+            tracker.openJournal(data.toString());
+            tracker.addTransaction(expense("Saved", 1));
+            tracker.saveToFile(data.toString());
+        });
+        byte[] saved = Files.readAllBytes(data);
+        try (AutosaveService autosave = new AutosaveService(tracker, data, owner,
+                Duration.ofMillis(20), Duration.ofSeconds(10))) {
+            onOwner(() -> {
+                for (int i = 0; i < 10; i++) {
+                    tracker.addTransaction(expense("Row " + i, 1));
+                }
+                tracker.removeTransaction(tracker.getTransactions().get(3));
+            });
+            assertTrue(autosave.awaitIdle(Duration.ofSeconds(10)));
+            assertEquals(1, autosave.getMetrics().getSaves());
+            // The changes live in the journal only; the data file was not rewritten
+            assertArrayEquals(saved, Files.readAllBytes(data));
+            assertTrue(Files.size(LedgerJournal.journalFileFor(data)) > 0);
+        }
+        // Dropping unsaved changes keeps everything up to the autosave
+        onOwner(() -> {
+            tracker.addTransaction(expense("Unsaved", 1));
+            tracker.closeJournal(false);
+        });
+        FinanceTracker kept = new FinanceTracker();
+        kept.openJournal(data.toString());
+        assertEquals(10, kept.getTransactions().size());
+        kept.closeJournal(true);
+    }
+
+    @Test
+    void testSnapshotEmptiesTheJournalAndLaterRecordsStillReplay() throws Exception {
+        onOwner(() -> {
+            tracker.openJournal(data.toString());
+            for (int i = 0; i < 10; i++) {
+                tracker.addTransaction(expense("Row " + i, 1));
+            }
+            tracker.removeTransaction(tracker.getTransactions().get(2));
+        });
+        // A background snapshot, as autosave takes without a journal, covers the records so far
+        LedgerSnapshot snapshot = tracker.captureSnapshot(data);
+        assertTrue(snapshot.write());
+        onOwner(() -> tracker.snapshotFinished(snapshot, true));
+        assertEquals(0, Files.size(LedgerJournal.journalFileFor(data)));
+        // Keys after the snapshot follow its dense numbering
+        onOwner(() -> {
+            List<Transaction> rows = tracker.getTransactions();
+            tracker.updateTransaction(rows.get(5), "Edited", 3, LocalDate.of(2024, 3, 2), TransactionType.EXPENSE, null);
+            tracker.removeTransaction(rows.get(8));
+            tracker.closeJournal(true);
+        });
+
+        FinanceTracker reopened = new FinanceTracker(FinanceTracker.StorageMode.COLUMNAR);
+        reopened.openJournal(data.toString());
+        assertEquals(descriptions(tracker), descriptions(reopened));
+        assertEquals(tracker.getCurrentBalanceCents(), reopened.getCurrentBalanceCents());
+        reopened.closeJournal(true);
+    }
+
+    @Test
+    void testRebaseReplaysOverAnOlderSnapshot() throws Exception {
+        tracker.openJournal(data.toString());
+        tracker.saveToFile(data.toString());
+        for (int i = 0; i < 6; i++) {
+            tracker.addTransaction(expense("Row " + i, 1));
+        }
+        tracker.removeTransaction(tracker.getTransactions().get(1));
+        // Captured but never written, as if the process died before the rename
+        LedgerSnapshot lost = tracker.captureSnapshot(data);
+        tracker.snapshotFinished(lost, false);
+        tracker.removeTransaction(tracker.getTransactions().get(3));
+        tracker.addTransaction(expense("After", 2));
+        tracker.saveToFile(data.toString());
+        tracker.closeJournal(true);
+
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.openJournal(data.toString());
+        assertEquals(List.of("Row 0", "Row 2", "Row 3", "Row 5", "After"), descriptions(reopened));
+        reopened.closeJournal(true);
+    }
+
+    @Test
+    void testStaleSnapshotIsNotPublished() throws Exception {
+        tracker.openJournal(data.toString());
+        tracker.addTransaction(expense("Old", 1));
+        LedgerSnapshot stale = tracker.captureSnapshot(data);
+        tracker.addTransaction(expense("New", 1));
+        // A save on the owner thread rewrites the file while the snapshot is still unwritten
+        tracker.saveBinarySnapshot(data.toString());
+        assertFalse(stale.write());
+        tracker.snapshotFinished(stale, false);
+        tracker.closeJournal(true);
+
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.loadFromFile(data.toString());
+        assertEquals(List.of("Old", "New"), descriptions(reopened));
+    }
+
+    @Test
+    void testSnapshotIsIsolatedFromLaterEdits() throws Exception {
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        tracker.addCategory(food);
+        tracker.setSpendingLimit(food, 10);
+        tracker.addTransaction(new Transaction("Bread", 2, LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, food));
+        LedgerSnapshot snapshot = tracker.captureSnapshot(data);
+        tracker.renameCategory(food, "Groceries");
+        tracker.updateTransaction(tracker.getTransactions().get(0), "Cake", 9, LocalDate.of(2024, 3, 1),
+            TransactionType.EXPENSE, food);
+        assertTrue(snapshot.write());
+        tracker.snapshotFinished(snapshot, true);
+
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(data.toString());
+        assertEquals("Food", loaded.getCategories().get(0).getName());
+        assertEquals(List.of("Bread"), descriptions(loaded));
+        assertSame(loaded.getCategories().get(0), loaded.getTransactions().get(0).getCategory());
+    }
+
+    @Test
+    void testInvalidSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AutosaveService(tracker, data, owner,
+            Duration.ofSeconds(5), Duration.ofSeconds(1)));
+    }
+}
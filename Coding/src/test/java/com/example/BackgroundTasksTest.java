@@ -0,0 +1,205 @@
+// Performance update: Tests for the background work behind the UI
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackgroundTasksTest {
+    // Stands in for the JavaFX application thread: the test thread runs what is queued here
+    private final BlockingQueue<Runnable> ui = new LinkedBlockingQueue<>();
+    private final List<Object> results = new ArrayList<>();
+    private final List<Throwable> errors = new ArrayList<>();
+    private BackgroundTasks tasks;
+
+    @BeforeEach
+    void setUp() {
+        tasks = new BackgroundTasks(ui::add, errors::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tasks.close();
+    }
+
+    // Runs UI actions until nothing is running any more
+    private void drain() throws InterruptedException {
+        while (tasks.runningProperty().get()) {
+            Runnable action = ui.poll(10, TimeUnit.SECONDS);
+            assertNotNull(action, "Background work did not finish");
+            action.run();
+        }
+        // Handoffs from cancelled requests, which must change nothing
+        Runnable action;
+        while ((action = ui.poll(100, TimeUnit.MILLISECONDS)) != null) {
+            action.run();
+        }
+    }
+
+    @Test
+    void testNewerRequestCancelsTheOlderOne() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        tasks.submit("summary", progress -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return "January";
+        }, results::add);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        tasks.submit("summary", progress -> "February", results::add);
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        drain();
+        assertEquals(List.of("February"), results);
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    void testRequestsWithOtherKeysRunSideBySide() throws Exception {
+        tasks.submit("summary", progress -> 1, results::add);
+        tasks.submit("limits", progress -> 2, results::add);
+        assertTrue(tasks.isRunning("summary") || tasks.isRunning("limits"));
+        drain();
+        assertEquals(2, results.size());
+        assertTrue(results.containsAll(List.of(1, 2)));
+
+        tasks.submit("save", progress -> 3, results::add);
+        tasks.cancel("save");
+        assertFalse(tasks.isRunning("save"));
+        drain();
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    void testFailuresGoToTheErrorHandler() throws Exception {
+        tasks.submit("load", progress -> {
+            throw new IllegalStateException("Unreadable file");
+        }, results::add);
+        drain();
+        assertTrue(results.isEmpty());
+        assertEquals(1, errors.size());
+        assertEquals("Unreadable file", errors.get(0).getMessage());
+    }
+
+    @Test
+    void testProgressIsShownForASingleReportingRequest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        assertEquals(-1, tasks.progressProperty().get());
+        tasks.submit("load", progress -> {
+            for (int i = 1; i <= 1000; i++) {
+                progress.accept(i / 2000.0);
+            }
+            release.await();
+            return null;
+        }, results::add);
+        assertTrue(tasks.runningProperty().get());
+        // Throttled to steps of at least 1%
+        double last = -1;
+        int handoffs = 0;
+        while (last < 0.49) {
+            Runnable action = ui.poll(10, TimeUnit.SECONDS);
+            assertNotNull(action);
+            action.run();
+            handoffs++;
+            last = tasks.progressProperty().get();
+        }
+        assertTrue(handoffs <= 51, "Handoffs: " + handoffs);
+
+        // A second request without progress leaves the single reporting one shown
+        tasks.submit("summary", progress -> "Done", results::add);
+        release.countDown();
+        drain();
+        assertFalse(tasks.runningProperty().get());
+        assertEquals(-1, tasks.progressProperty().get());
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    void testSecondSaveWaitsForTheFirstInsteadOfInterruptingIt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        tasks.submitInOrder("file", progress -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+                throw e;
+            }
+            return "first";
+        }, results::add);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        tasks.submitInOrder("file", progress -> "second", results::add);
+        assertTrue(tasks.isRunning("file"));
+        Thread.sleep(100);
+        assertTrue(ui.isEmpty(), "The second save ran before the first finished");
+        release.countDown();
+        drain();
+        assertFalse(interrupted.get());
+        assertEquals(List.of("first", "second"), results);
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    void testSavingTwiceKeepsTheJournalOpen(@TempDir Path dir) throws Exception {
+        String file = dir.resolve("ledger.json").toString();
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(file);
+        for (int i = 0; i < 1000; i++) {
+            tracker.addTransaction(new Transaction("Row " + i, 1, LocalDate.of(2024, 1, 1), TransactionType.EXPENSE, null));
+        }
+        for (int i = 0; i < 2; i++) {
+            tasks.submitInOrder("file", progress -> {
+                tracker.saveToFile(file);
+                return null;
+            }, results::add);
+        }
+        drain();
+        assertTrue(errors.isEmpty(), () -> "Errors: " + errors);
+        assertEquals(2, results.size());
+
+        // The journal still takes changes after both saves
+        tracker.addTransaction(new Transaction("After", 1, LocalDate.of(2024, 1, 2), TransactionType.EXPENSE, null));
+        tracker.closeJournal(true);
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.openJournal(file);
+        assertEquals(1001, reopened.getTransactions().size());
+        reopened.closeJournal(true);
+    }
+
+    @Test
+    void testCloseWaitsForARunningSave() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        tasks.submit("summary", progress -> {
+            Thread.sleep(60_000);
+            return null;
+        }, results::add);
+        tasks.submitInOrder("file", progress -> {
+            started.countDown();
+            Thread.sleep(200);
+            finished.set(true);
+            return null;
+        }, results::add);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        tasks.close();
+        assertTrue(finished.get());
+        drain();
+        assertTrue(results.isEmpty());
+        assertTrue(errors.isEmpty());
+    }
+}
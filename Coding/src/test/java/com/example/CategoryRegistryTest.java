@@ -0,0 +1,91 @@
+// Performance update: Tests for category ids
+package com.example;
+
+import org.junit.jupiter.api.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategoryRegistryTest {
+    private static Transaction expense(String description, double amount, Category category) {
+        return new Transaction(description, amount, LocalDate.of(2024, 4, 2), TransactionType.EXPENSE, category);
+    }
+
+    @Test
+    void testIdsAreDenseAndByIdentity() {
+        CategoryRegistry registry = new CategoryRegistry();
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        Category foodAgain = new Category("Food", CategoryType.EXPENSE);
+        assertEquals(CategoryRegistry.NONE, registry.intern(null));
+        assertEquals(1, registry.intern(food));
+        assertEquals(2, registry.intern(foodAgain));
+        assertEquals(1, registry.intern(food));
+        food.setName("Groceries");
+        assertEquals(1, registry.intern(food));
+        assertSame(foodAgain, registry.get(2));
+        assertEquals(3, registry.size());
+
+        boolean[] matches = registry.idsEqualTo(new Category("Food", CategoryType.EXPENSE));
+        assertArrayEquals(new boolean[]{false, false, true}, matches);
+    }
+
+    @Test
+    void testListStoreKeepsIdsAlignedThroughCompaction() {
+        ListTransactionStore store = new ListTransactionStore();
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        Category travel = new Category("Travel", CategoryType.EXPENSE);
+        for (int i = 0; i < 200; i++) {
+            store.add(expense("T" + i, 1, i % 2 == 0 ? food : travel));
+        }
+        for (int id = 0; id < 150; id++) {
+            store.remove(id);
+        }
+        assertTrue(store.compactIfSparse());
+        for (int id = 0; id < store.capacity(); id++) {
+            assertSame(store.category(id), store.categoryRegistry().get(store.categoryId(id)));
+        }
+        store.setCategory(0, null);
+        assertEquals(CategoryRegistry.NONE, store.categoryId(0));
+    }
+
+    @Test
+    void testSummariesFollowRenameAndDeleteInBothBackends() {
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            FinanceTracker tracker = new FinanceTracker(mode);
+            Category food = new Category("Food", CategoryType.EXPENSE);
+            Category foodAgain = new Category("Food", CategoryType.EXPENSE);
+            Category travel = new Category("Travel", CategoryType.EXPENSE);
+            tracker.addCategory(food);
+            tracker.addCategory(travel);
+            tracker.addTransaction(expense("Bread", 2, food));
+            tracker.addTransaction(expense("Milk", 1, foodAgain));
+            tracker.addTransaction(expense("Train", 30, travel));
+            YearMonth april = YearMonth.of(2024, 4);
+            assertEquals(Map.of(food, 3.0, travel, 30.0), tracker.getMonthlySummary(april).getCategoryBreakdown());
+
+            tracker.renameCategory(travel, "Trips");
+            assertEquals(30.0, tracker.getMonthlySummary(april).getCategoryBreakdown()
+                .get(new Category("Trips", CategoryType.EXPENSE)));
+
+            // Deleting removes every equal category object, as the value comparison always did
+            tracker.deleteCategory(food);
+            assertEquals(2, tracker.filterTransactions(null, null, null).stream()
+                .filter(t -> t.getCategory() == null).count(), mode.name());
+            Map<Category, Double> breakdown = tracker.getMonthlySummary(april).getCategoryBreakdown();
+            assertEquals(3.0, breakdown.get(null));
+            assertFalse(breakdown.containsKey(food));
+            assertEquals(1, tracker.filterTransactions(null, null, travel).size());
+        }
+    }
+
+    @Test
+    void testCachedHashFollowsRename() {
+        Category category = new Category("Food", CategoryType.EXPENSE);
+        int before = category.hashCode();
+        category.setName("Groceries");
+        assertEquals(new Category("Groceries", CategoryType.EXPENSE).hashCode(), category.hashCode());
+        category.setName("Food");
+        assertEquals(before, category.hashCode());
+    }
+}
@@ -0,0 +1,102 @@
+// Performance update: Tests for the numeric category summary rows and their keyed diff
+package com.example;
+
+import org.junit.jupiter.api.*;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CategorySummaryTest {
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    private final FinanceTracker tracker = new FinanceTracker();
+    private final Category food = new Category("Food", CategoryType.EXPENSE);
+    private final Category rent = new Category("Rent", CategoryType.EXPENSE);
+    private final Category pay = new Category("Pay", CategoryType.INCOME);
+
+    @BeforeEach
+    void setUp() {
+        for (Category category : List.of(food, rent, pay)) {
+            tracker.addCategory(category);
+        }
+        tracker.setSpendingLimit(food, 200);
+        add("Salary", 3000, pay);
+        add("Rent", 1200, rent);
+        add("Groceries", 45.5, food);
+        add("Market", 24.5, food);
+        add("Unfiled", 10, null);
+    }
+
+    private void add(String description, double amount, Category category) {
+        TransactionType type = category != null && category.getType() == CategoryType.INCOME
+            ? TransactionType.INCOME : TransactionType.EXPENSE;
+        tracker.addTransaction(new Transaction(description, amount, MONTH.atDay(5), type, category));
+    }
+
+    private List<CategorySummary> rows() {
+        return CategorySummary.rowsOf(tracker.getMonthlySummary(MONTH), tracker::getSpendingLimit);
+    }
+
+    @Test
+    void testRowsHoldTheMonthsNumbers() {
+        List<CategorySummary> rows = rows();
+        assertEquals(List.of("Food", "Pay", "Rent"), rows.stream().map(CategorySummary::getCategoryName).toList());
+        CategorySummary foodRow = rows.get(0);
+        assertEquals(7000, foodRow.getTotalCents());
+        assertEquals(70.0, foodRow.getTotal());
+        assertEquals(20000L, foodRow.getSpendingLimitCents());
+        assertEquals(35.0, foodRow.getUsagePercentage(), 1e-9);
+        assertEquals(CategoryType.INCOME, rows.get(1).getType());
+        assertNull(rows.get(2).getSpendingLimit());
+        assertNull(rows.get(2).getUsagePercentage());
+    }
+
+    @Test
+    void testOneAddedTransactionTouchesOneRow() {
+        ObservableList<CategorySummary> shown = FXCollections.observableArrayList();
+        assertEquals(3, CategorySummary.applyTo(shown, rows()));
+        List<CategorySummary> before = new ArrayList<>(shown);
+        List<ListChangeListener.Change<? extends CategorySummary>> changes = new ArrayList<>();
+        shown.addListener((ListChangeListener<CategorySummary>) change -> changes.add(change));
+
+        add("Bakery", 12, food);
+        assertEquals(1, CategorySummary.applyTo(shown, rows()));
+        assertEquals(1, changes.size());
+        assertEquals(8200, shown.get(0).getTotalCents());
+        assertSame(before.get(1), shown.get(1));
+        assertSame(before.get(2), shown.get(2));
+
+        // Unchanged numbers touch nothing
+        assertEquals(0, CategorySummary.applyTo(shown, rows()));
+        assertEquals(1, changes.size());
+    }
+
+    @Test
+    void testDiffKeepsTheTablesOrderAndFollowsCategoryChanges() {
+        List<CategorySummary> shown = new ArrayList<>(rows());
+        // As if the table were sorted by total, descending
+        shown.sort((a, b) -> Long.compare(b.getTotalCents(), a.getTotalCents()));
+        Category travel = new Category("Travel", CategoryType.EXPENSE);
+        tracker.addCategory(travel);
+        add("Train", 30, travel);
+        tracker.setSpendingLimit(rent, 1000);
+        tracker.renameCategory(pay, "Salary");
+
+        // Rent's usage and Pay's name changed, Travel is new, Food is unchanged
+        assertEquals(3, CategorySummary.applyTo(shown, rows()));
+        assertEquals(List.of("Salary", "Rent", "Food", "Travel"),
+            shown.stream().map(CategorySummary::getCategoryName).toList());
+        assertEquals(120.0, shown.get(1).getUsagePercentage(), 1e-9);
+
+        tracker.deleteCategory(travel);
+        tracker.removeTransaction(tracker.getTransactions().stream()
+            .filter(t -> t.getDescription().equals("Train")).findFirst().orElseThrow());
+        assertEquals(1, CategorySummary.applyTo(shown, rows()));
+        assertEquals(List.of("Salary", "Rent", "Food"), shown.stream().map(CategorySummary::getCategoryName).toList());
+    }
+}
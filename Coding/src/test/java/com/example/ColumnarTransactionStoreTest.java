@@ -0,0 +1,135 @@
+// Performance update: Tests for the columnar backend
+package com.example;
+
+import org.junit.jupiter.api.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarTransactionStoreTest {
+    private Category groceries;
+    private Category salary;
+
+    @BeforeEach
+    void setUp() {
+        groceries = new Category("Groceries", CategoryType.EXPENSE);
+        salary = new Category("Salary", CategoryType.INCOME);
+    }
+
+    @Test
+    void testRowsRoundTripThroughColumns() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        int id = store.add(new Transaction("Milk", 2.35, LocalDate.of(2024, 3, 4), TransactionType.EXPENSE, groceries));
+        int undated = store.add(new Transaction("Cash", 1.0, null, TransactionType.INCOME, null));
+        Transaction t = store.get(id);
+        assertEquals("Milk", t.getDescription());
+        assertEquals(2.35, t.getAmount());
+        assertEquals(LocalDate.of(2024, 3, 4), t.getDate());
+        assertEquals(TransactionType.EXPENSE, t.getType());
+        assertSame(groceries, t.getCategory());
+        assertEquals(TransactionStore.NO_DATE, store.epochDay(undated));
+        assertNull(store.get(undated).getCategory());
+
+        store.remove(id);
+        assertFalse(store.isLive(id));
+        assertFalse(store.contains(t));
+        assertEquals(1, store.size());
+        assertEquals(List.of("Cash"), store.toList().stream().map(Transaction::getDescription).toList());
+    }
+
+    @Test
+    void testContainsOnlyTheRowItsIdNames() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        Transaction milk = new Transaction("Milk", 2.35, LocalDate.of(2024, 3, 4), TransactionType.EXPENSE, groceries);
+        store.add(milk);
+        assertTrue(store.contains(milk));
+        assertTrue(store.contains(store.get(0)));
+        // Same id, other fields: another store's row, or a copy edited outside the tracker
+        ColumnarTransactionStore other = new ColumnarTransactionStore();
+        Transaction bread = new Transaction("Bread", 2.35, LocalDate.of(2024, 3, 4), TransactionType.EXPENSE, groceries);
+        other.add(bread);
+        assertFalse(store.contains(bread));
+        Transaction copy = store.get(0);
+        copy.setCategory(salary);
+        assertFalse(store.contains(copy));
+        assertFalse(store.compactIfSparse());
+
+        // The tracker leaves its own row alone when handed another tracker's transaction
+        FinanceTracker tracker = new FinanceTracker(FinanceTracker.StorageMode.COLUMNAR);
+        tracker.addTransaction(new Transaction("Rent", 500, LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, null));
+        tracker.removeTransaction(bread);
+        assertEquals(List.of("Rent"), tracker.getTransactions().stream().map(Transaction::getDescription).toList());
+        assertEquals(-500.0, tracker.getCurrentBalance());
+    }
+
+    @Test
+    void testGrowsBeyondInitialCapacity() {
+        ColumnarTransactionStore store = new ColumnarTransactionStore();
+        for (int i = 0; i < 5000; i++) {
+            store.add(new Transaction("T" + i, i, LocalDate.of(2024, 1, 1).plusDays(i % 365), TransactionType.EXPENSE, groceries));
+        }
+        assertEquals(5000, store.size());
+        assertEquals("T4999", store.get(4999).getDescription());
+        assertEquals(499900L, store.amountCents(4999));
+    }
+
+    @Test
+    void testTrackerBehavesLikeListBackend() {
+        FinanceTracker list = new FinanceTracker(FinanceTracker.StorageMode.LIST);
+        FinanceTracker columnar = new FinanceTracker(FinanceTracker.StorageMode.COLUMNAR);
+        for (FinanceTracker tracker : List.of(list, columnar)) {
+            tracker.addCategory(groceries);
+            tracker.addCategory(salary);
+            tracker.setSpendingLimit(groceries, 100.0);
+            tracker.addTransaction(new Transaction("Pay", 2000.0, LocalDate.of(2024, 1, 5), TransactionType.INCOME, salary));
+            tracker.addTransaction(new Transaction("Bread", 10.5, LocalDate.of(2024, 1, 6), TransactionType.EXPENSE, groceries));
+            tracker.addTransaction(new Transaction("Eggs", 4.25, LocalDate.of(2024, 2, 1), TransactionType.EXPENSE, groceries));
+            Transaction bread = tracker.filterTransactions(LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 6), null).get(0);
+            tracker.updateTransaction(bread, "Bread", 11.0, LocalDate.of(2024, 1, 7), TransactionType.EXPENSE, groceries);
+            Transaction pay = tracker.filterTransactions(null, null, salary).get(0);
+            tracker.removeTransaction(pay);
+        }
+        assertEquals(list.getCurrentBalance(), columnar.getCurrentBalance());
+        assertEquals(list.getMonthlySummary(YearMonth.of(2024, 1)).getTotalExpenses(),
+            columnar.getMonthlySummary(YearMonth.of(2024, 1)).getTotalExpenses());
+        assertEquals(describe(list.getTransactions()), describe(columnar.getTransactions()));
+        assertEquals(describe(list.filterTransactions(LocalDate.of(2024, 1, 7), null, groceries)),
+            describe(columnar.filterTransactions(LocalDate.of(2024, 1, 7), null, groceries)));
+        assertEquals(list.getSpendingLimits().get(0).getCurrentSpent(), columnar.getSpendingLimits().get(0).getCurrentSpent());
+    }
+
+    @Test
+    void testCategoryDeletionInColumnarMode() {
+        FinanceTracker tracker = new FinanceTracker(FinanceTracker.StorageMode.COLUMNAR);
+        tracker.addCategory(groceries);
+        tracker.addTransaction(new Transaction("Bread", 10.0, LocalDate.of(2024, 1, 6), TransactionType.EXPENSE, groceries));
+        tracker.deleteCategory(groceries);
+        assertNull(tracker.getTransactions().get(0).getCategory());
+        assertEquals(10.0, tracker.getMonthlySummary(YearMonth.of(2024, 1)).getCategoryBreakdown().get(null));
+    }
+
+    // Performance update: Column kernels skip removed rows and match the list backend exactly
+    @Test
+    void testSummationKernelsMatchListBackend() {
+        ColumnarTransactionStore columnar = new ColumnarTransactionStore();
+        ListTransactionStore list = new ListTransactionStore();
+        for (int i = 0; i < 2000; i++) {
+            TransactionType type = i % 3 == 0 ? TransactionType.INCOME : TransactionType.EXPENSE;
+            for (TransactionStore store : List.of(columnar, list)) {
+                store.add(new Transaction("T" + i, i * 0.01 + 0.07, LocalDate.of(2024, 1, 1), type, groceries));
+            }
+        }
+        columnar.remove(3);
+        list.remove(3);
+        assertEquals(list.sumAmountCents(), columnar.sumAmountCents());
+        assertEquals(list.sumAmountCents(TransactionType.INCOME), columnar.sumAmountCents(TransactionType.INCOME));
+        assertEquals(list.sumAmountCents(TransactionType.EXPENSE), columnar.sumAmountCents(TransactionType.EXPENSE));
+    }
+
+    private static List<String> describe(List<Transaction> transactions) {
+        return transactions.stream()
+            .map(t -> t.getDescription() + "|" + t.getAmount() + "|" + t.getDate() + "|" + t.getType())
+            .toList();
+    }
+}
@@ -0,0 +1,84 @@
+// Performance update: Tests for the description search index
+package com.example;
+
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DescriptionIndexTest {
+    private final List<String> descriptions = new ArrayList<>();
+    private final DescriptionIndex index = new DescriptionIndex();
+
+    private void add(String description) {
+        index.add(descriptions.size(), description);
+        descriptions.add(description);
+    }
+
+    private List<String> search(String query, int limit) {
+        IntList rows = index.search(query, limit, descriptions::get);
+        List<String> found = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            found.add(descriptions.get(rows.get(i)));
+        }
+        return found;
+    }
+
+    @Test
+    void testTokensAreNormalized() {
+        assertEquals(List.of("cafe", "creme", "brulee", "2024"),
+            new ArrayList<>(DescriptionIndex.tokens("Café CRÈME-brûlée, 2024 café")));
+        assertTrue(DescriptionIndex.tokens("  -- ").isEmpty());
+        assertTrue(DescriptionIndex.tokens(null).isEmpty());
+    }
+
+    @Test
+    void testSubstringPrefixAndTypoMatches() {
+        add("Weekly groceries at Lidl");
+        add("Grocery delivery");
+        add("Coffee");
+        add("Café au lait");
+        // Substring from three characters, prefix below
+        assertEquals(List.of("Grocery delivery", "Weekly groceries at Lidl"), search("ocer", 10));
+        assertEquals(List.of("Café au lait", "Weekly groceries at Lidl"), search("a", 10));
+        assertEquals(List.of(), search("ee", 10));
+        // Accents are ignored on both sides
+        assertEquals(List.of("Café au lait"), search("CAFÉ", 10));
+        // Typos only when nothing contains the term
+        assertEquals(List.of("Coffee"), search("cofee", 10));
+        assertEquals(List.of("Grocery delivery"), search("delivry", 10));
+        assertEquals(List.of("Weekly groceries at Lidl"), search("grocereis", 10));
+        assertEquals(List.of(), search("tea", 10));
+        assertEquals(List.of(), search("", 10));
+    }
+
+    @Test
+    void testEveryTermMustMatchNewestFirst() {
+        for (int i = 0; i < 50; i++) {
+            add((i % 2 == 0 ? "Rent " : "Bus ticket ") + (i % 5 == 0 ? "March" : "April"));
+        }
+        List<String> found = search("april rent", 100);
+        assertEquals(20, found.size());
+        assertTrue(found.stream().allMatch("Rent April"::equals));
+        IntList rows = index.search("ticket mar", 3, descriptions::get);
+        assertEquals(3, rows.size());
+        assertArrayEquals(new int[]{45, 35, 25}, rows.toArray());
+    }
+
+    @Test
+    void testRemovedRowsAreNotFound() {
+        add("Gym membership");
+        add("Gym shoes");
+        index.remove(0, descriptions.get(0));
+        assertEquals(List.of("Gym shoes"), search("gym", 10));
+        assertEquals(List.of(), search("membership", 10));
+    }
+
+    @Test
+    void testWithinEdits() {
+        assertTrue(DescriptionIndex.withinEdits("kitten", "sitten", 1));
+        assertFalse(DescriptionIndex.withinEdits("kitten", "sitting", 2));
+        assertTrue(DescriptionIndex.withinEdits("kitten", "sitting", 3));
+        assertTrue(DescriptionIndex.withinEdits("", "ab", 2));
+    }
+}
@@ -0,0 +1,71 @@
+// Performance update: Tests for the per-day Fenwick index
+package com.example;
+
+import org.junit.jupiter.api.*;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenwickDayIndexTest {
+    @Test
+    void testSumsMatchABruteForceAcrossGrowth() {
+        FenwickDayIndex index = new FenwickDayIndex();
+        long[] expected = new long[20_000];
+        int offset = 10_000;
+        Random random = new Random(11);
+        // Starts in the middle, then grows to both sides
+        for (int i = 0; i < 5000; i++) {
+            int spread = i < 1000 ? 300 : 9_999;
+            int day = random.nextInt(2 * spread) - spread;
+            long cents = random.nextInt(2001) - 1000;
+            index.add(day, cents);
+            expected[day + offset] += cents;
+        }
+        assertTrue(index.capacity() >= 19_998);
+        for (int q = 0; q < 2000; q++) {
+            int from = random.nextInt(expected.length) - offset;
+            int to = random.nextInt(expected.length) - offset;
+            long sum = 0;
+            for (int day = from; day <= to; day++) {
+                sum += expected[day + offset];
+            }
+            assertEquals(sum, index.sumBetween(from, to), from + ".." + to);
+        }
+    }
+
+    @Test
+    void testBoundsOutsideTheWindow() {
+        FenwickDayIndex index = new FenwickDayIndex();
+        assertEquals(0, index.sumThrough(100));
+        index.add(19_000, 500);
+        index.add(19_001, -200);
+        assertEquals(0, index.sumThrough(-1_000_000));
+        assertEquals(300, index.sumThrough(Integer.MAX_VALUE));
+        assertEquals(500, index.sumBetween(Integer.MIN_VALUE, 19_000));
+        assertEquals(0, index.sumBetween(19_001, 19_000));
+    }
+
+    @Test
+    void testOutlierDatesCostOneBlockEach() {
+        FenwickDayIndex index = new FenwickDayIndex();
+        int today = (int) java.time.LocalDate.of(2024, 5, 10).toEpochDay();
+        // Typo years 0202 and 20240 next to ordinary rows
+        int early = (int) java.time.LocalDate.of(202, 5, 10).toEpochDay();
+        int late = (int) java.time.LocalDate.of(20240, 5, 10).toEpochDay();
+        index.add(today, 100);
+        index.add(today + 1, 50);
+        index.add(early, 7);
+        index.add(late, 1000);
+        assertEquals(3 * FenwickDayIndex.BLOCK_DAYS, index.capacity());
+
+        assertEquals(7, index.sumThrough(today - 1));
+        assertEquals(157, index.sumThrough(today + 1));
+        assertEquals(150, index.sumBetween(early + 1, late - 1));
+        assertEquals(1157, index.sumThrough(Integer.MAX_VALUE));
+        assertEquals(0, index.sumThrough(Integer.MIN_VALUE));
+        index.add(Integer.MIN_VALUE, 1);
+        index.add(Integer.MAX_VALUE, 2);
+        assertEquals(1, index.sumThrough(Integer.MIN_VALUE));
+        assertEquals(1160, index.sumBetween(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(5 * FenwickDayIndex.BLOCK_DAYS, index.capacity());
+    }
+}
@@ -0,0 +1,144 @@
+// Performance update: Stress tests for readers running while one thread mutates the tracker
+package com.example;
+
+import org.junit.jupiter.api.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FinanceTrackerConcurrencyTest {
+    private static final int READERS = 4;
+    private static final YearMonth MARCH = YearMonth.of(2024, 3);
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(READERS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pool.shutdownNow();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static Transaction expense(int i, Category category) {
+        return new Transaction("Row " + i, i % 5 + 1, MARCH.atDay(1 + i % 28), TransactionType.EXPENSE, category);
+    }
+
+    // Runs the reader on every pool thread until the writer is done, and returns what the readers saw go wrong
+    private List<Throwable> runAgainstWriter(Runnable reader, Runnable writer) throws Exception {
+        AtomicBoolean done = new AtomicBoolean();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readers.add(pool.submit(() -> {
+                while (!done.get()) {
+                    try {
+                        reader.run();
+                    } catch (Throwable t) {
+                        failures.add(t);
+                        return;
+                    }
+                }
+            }));
+        }
+        try {
+            writer.run();
+        } finally {
+            done.set(true);
+        }
+        for (Future<?> future : readers) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        return new ArrayList<>(failures);
+    }
+
+    @Test
+    void testReadersSeeConsistentStateDuringMixedWrites() throws Exception {
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            FinanceTracker tracker = new FinanceTracker(mode);
+            Category food = new Category("Food", CategoryType.EXPENSE);
+            Category travel = new Category("Travel", CategoryType.EXPENSE);
+            tracker.addCategory(food);
+            tracker.addCategory(travel);
+            tracker.setSpendingLimit(food, 1000);
+            LocalDate from = MARCH.atDay(5);
+            LocalDate to = MARCH.atDay(12);
+
+            List<Throwable> failures = runAgainstWriter(() -> {
+                FinanceSummary summary = tracker.getMonthlySummary(MARCH);
+                assertEquals(0, summary.getTotalIncome());
+                double breakdown = summary.getCategoryBreakdown().values().stream().mapToDouble(Double::doubleValue).sum();
+                assertEquals(summary.getTotalExpenses(), breakdown, 1e-6);
+                for (Transaction t : tracker.filterTransactions(from, to, null)) {
+                    assertFalse(t.getDate().isBefore(from) || t.getDate().isAfter(to), t.toString());
+                }
+                for (Transaction t : tracker.filterTransactions(null, null, travel)) {
+                    assertEquals("Travel", t.getCategory().getName());
+                }
+                assertTrue(tracker.getCurrentBalance() <= 0);
+                tracker.getTransactions().forEach(Assertions::assertNotNull);
+                tracker.getSpendingLimits().forEach(Assertions::assertNotNull);
+                tracker.getCategories().forEach(Assertions::assertNotNull);
+            }, () -> {
+                List<Transaction> added = new ArrayList<>();
+                for (int i = 0; i < 20_000; i++) {
+                    Transaction t = expense(i, i % 2 == 0 ? food : travel);
+                    tracker.addTransaction(t);
+                    added.add(t);
+                    if (i % 3 == 2) {
+                        // Removals make the list store compact now and then, which rebuilds every index
+                        tracker.removeTransaction(added.remove(added.size() / 2));
+                    }
+                    if (i % 7 == 6) {
+                        // The list backend hands out the stored objects, so edits keep the fields readers check
+                        Transaction edited = added.get(added.size() - 1);
+                        tracker.updateTransaction(edited, edited.getDescription(), edited.getAmount() + 1,
+                            edited.getDate(), TransactionType.EXPENSE, edited.getCategory());
+                    }
+                }
+            });
+            assertEquals(List.of(), failures, mode.name());
+            assertEquals(tracker.recalculateBalance(), tracker.getCurrentBalance(), 1e-6);
+        }
+    }
+
+    @Test
+    void testBalanceReadsFollowTheWriteOrder() throws Exception {
+        FinanceTracker tracker = new FinanceTracker();
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        tracker.addCategory(food);
+        AtomicLong reads = new AtomicLong();
+        ThreadLocal<long[]> lastSeen = ThreadLocal.withInitial(() -> new long[]{0});
+
+        List<Throwable> failures = runAgainstWriter(() -> {
+            // Only expenses are added, so the balance a reader sees can only go down
+            long balance = tracker.getCurrentBalanceCents();
+            long[] last = lastSeen.get();
+            assertTrue(balance <= last[0], balance + " after " + last[0]);
+            last[0] = balance;
+            Map<Category, Double> breakdown = tracker.getMonthlySummary(MARCH).getCategoryBreakdown();
+            assertTrue(breakdown.getOrDefault(food, 0.0) >= -balance / 100.0 - 1e-6);
+            reads.incrementAndGet();
+        }, () -> {
+            for (int i = 0; i < 20_000; i++) {
+                tracker.addTransaction(expense(i, food));
+            }
+        });
+        assertEquals(List.of(), failures);
+        assertTrue(reads.get() > 0);
+        assertEquals(20_000, tracker.getTransactions().size());
+    }
+}
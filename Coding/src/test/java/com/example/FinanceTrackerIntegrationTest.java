@@ -93,18 +93,16 @@ public class FinanceTrackerIntegrationTest {
     @Test
     void testSpendingLimitWarnings() {
         tracker.setSpendingLimit(groceries, 100.0);
-        // Capture System.out
-        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
-        java.io.PrintStream orig = System.out;
-        System.setOut(new java.io.PrintStream(out));
+        // Performance update: Warnings are threshold events, not console output
+        List<SpendingLimitEvent> events = new ArrayList<>();
+        tracker.addSpendingLimitListener(events::addAll, Runnable::run);
         tracker.addTransaction(new Transaction("Eggs", 80.0, LocalDate.now(), TransactionType.EXPENSE, groceries));
         tracker.checkSpendingLimits();
         tracker.addTransaction(new Transaction("Milk", 25.0, LocalDate.now(), TransactionType.EXPENSE, groceries));
         tracker.checkSpendingLimits();
-        System.setOut(orig);
-        String output = out.toString();
-        assertTrue(output.contains("80% of spending limit"));
-        assertTrue(output.contains("Spending limit exceeded"));
+        assertEquals(List.of(SpendingLimitEvent.Threshold.WARNING, SpendingLimitEvent.Threshold.EXCEEDED),
+            events.stream().map(SpendingLimitEvent::getThreshold).toList());
+        assertEquals(105.0, tracker.getSpendingLimit(groceries).getCurrentSpent());
     }
 
     @Test
@@ -4,6 +4,7 @@ package com.example;
 import org.junit.jupiter.api.*;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -83,4 +84,487 @@ public class FinanceTrackerTest {
         // Clean up
         new java.io.File(file).delete();
     }
-} 
\ No newline at end of file
+
+    // Performance update: Date index must give the same results as the old linear scan
+    @Test
+    void testFilterTransactionsOpenRangesKeepInsertionOrder() {
+        Transaction march = new Transaction("March", 30, LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, groceries);
+        Transaction jan = new Transaction("Jan", 10, LocalDate.of(2024, 1, 1), TransactionType.EXPENSE, groceries);
+        Transaction feb = new Transaction("Feb", 20, LocalDate.of(2024, 2, 1), TransactionType.INCOME, salary);
+        tracker.addTransaction(march);
+        tracker.addTransaction(jan);
+        tracker.addTransaction(feb);
+        assertEquals(List.of(march, feb), tracker.filterTransactions(LocalDate.of(2024, 2, 1), null, null));
+        assertEquals(List.of(jan, feb), tracker.filterTransactions(null, LocalDate.of(2024, 2, 1), null));
+        assertEquals(List.of(march, jan, feb), tracker.filterTransactions(null, null, null));
+        assertEquals(List.of(feb), tracker.filterTransactions(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 2, 29), salary));
+        assertTrue(tracker.filterTransactions(LocalDate.of(2024, 3, 2), LocalDate.of(2024, 1, 1), null).isEmpty());
+    }
+
+    // Performance update: idsBetween merges the per-day id lists instead of sorting them
+    @Test
+    void testDateRangeMergesDaysInInsertionOrder() {
+        List<Transaction> added = new ArrayList<>();
+        int[] dayOffsets = {4, 0, 2, 4, 1, 0, 3, 2, 4, 1, 0, 3};
+        for (int i = 0; i < dayOffsets.length; i++) {
+            Transaction t = new Transaction("Row " + i, i + 1, LocalDate.of(2024, 6, 1).plusDays(dayOffsets[i]),
+                TransactionType.EXPENSE, groceries);
+            tracker.addTransaction(t);
+            added.add(t);
+        }
+        tracker.removeTransaction(added.remove(5));
+        assertEquals(added, tracker.filterTransactions(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 5), null));
+        List<Transaction> middle = new ArrayList<>();
+        for (Transaction t : added) {
+            if (!t.getDate().isBefore(LocalDate.of(2024, 6, 2)) && !t.getDate().isAfter(LocalDate.of(2024, 6, 4))) {
+                middle.add(t);
+            }
+        }
+        assertEquals(middle, tracker.filterTransactions(LocalDate.of(2024, 6, 2), LocalDate.of(2024, 6, 4), null));
+    }
+
+    @Test
+    void testDateIndexFollowsUpdateAndRemove() {
+        Transaction t = new Transaction("Milk", 5.0, LocalDate.of(2024, 1, 10), TransactionType.EXPENSE, groceries);
+        tracker.addTransaction(t);
+        tracker.updateTransaction(t, "Milk", 5.0, LocalDate.of(2024, 5, 10), TransactionType.EXPENSE, groceries);
+        assertTrue(tracker.filterTransactions(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), null).isEmpty());
+        assertEquals(List.of(t), tracker.filterTransactions(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31), null));
+        tracker.removeTransaction(t);
+        assertTrue(tracker.filterTransactions(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31), null).isEmpty());
+    }
+
+    @Test
+    void testDateIndexRebuiltOnLoad() {
+        String file = "test_index_data.json";
+        tracker.addTransaction(new Transaction("Old", 5, LocalDate.of(2023, 6, 1), TransactionType.EXPENSE, groceries));
+        tracker.addTransaction(new Transaction("New", 7, LocalDate.of(2024, 6, 1), TransactionType.EXPENSE, groceries));
+        tracker.saveToFile(file);
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(file);
+        List<Transaction> filtered = loaded.filterTransactions(LocalDate.of(2024, 1, 1), null, null);
+        assertEquals(1, filtered.size());
+        assertEquals("New", filtered.get(0).getDescription());
+        // Clean up
+        new java.io.File(file).delete();
+    }
+
+    // Performance update: Monthly aggregates must follow every mutation
+    @Test
+    void testMonthlySummaryFollowsMutations() {
+        YearMonth jan = YearMonth.of(2024, 1);
+        YearMonth feb = YearMonth.of(2024, 2);
+        Transaction pay = new Transaction("Pay", 2000.0, LocalDate.of(2024, 1, 5), TransactionType.INCOME, salary);
+        Transaction bread = new Transaction("Bread", 10.0, LocalDate.of(2024, 1, 6), TransactionType.EXPENSE, groceries);
+        tracker.addTransaction(pay);
+        tracker.addTransaction(bread);
+
+        tracker.updateTransaction(bread, "Bread", 12.0, LocalDate.of(2024, 2, 6), TransactionType.EXPENSE, groceries);
+        assertEquals(0.0, tracker.getMonthlySummary(jan).getTotalExpenses());
+        assertFalse(tracker.getMonthlySummary(jan).getCategoryBreakdown().containsKey(groceries));
+        assertEquals(12.0, tracker.getMonthlySummary(feb).getTotalExpenses());
+        assertEquals(12.0, tracker.getMonthlySummary(feb).getCategoryBreakdown().get(groceries));
+
+        tracker.removeTransaction(pay);
+        FinanceSummary empty = tracker.getMonthlySummary(jan);
+        assertEquals(0.0, empty.getTotalIncome());
+        assertTrue(empty.getCategoryBreakdown().isEmpty());
+    }
+
+    @Test
+    void testMonthlySummaryAfterRenameAndDelete() {
+        YearMonth jan = YearMonth.of(2024, 1);
+        tracker.addTransaction(new Transaction("Bread", 10.0, LocalDate.of(2024, 1, 6), TransactionType.EXPENSE, groceries));
+        tracker.renameCategory(groceries, "Food");
+        assertEquals(10.0, tracker.getMonthlySummary(jan).getCategoryBreakdown().get(groceries));
+        tracker.deleteCategory(groceries);
+        FinanceSummary summary = tracker.getMonthlySummary(jan);
+        assertEquals(10.0, summary.getTotalExpenses());
+        assertEquals(10.0, summary.getCategoryBreakdown().get(null));
+        assertFalse(summary.getCategoryBreakdown().containsKey(groceries));
+    }
+
+    // Performance update: Running balance must match a full recomputation
+    @Test
+    void testRunningBalanceMatchesRecalculation() {
+        Transaction pay = new Transaction("Pay", 2000.0, LocalDate.of(2024, 1, 5), TransactionType.INCOME, salary);
+        Transaction bread = new Transaction("Bread", 10.25, LocalDate.of(2024, 1, 6), TransactionType.EXPENSE, groceries);
+        Transaction undated = new Transaction("Cash", 3.5, null, TransactionType.EXPENSE, groceries);
+        tracker.addTransaction(pay);
+        tracker.addTransaction(bread);
+        tracker.addTransaction(undated);
+        assertEquals(tracker.recalculateBalance(), tracker.getCurrentBalance(), 1e-9);
+
+        tracker.updateTransaction(bread, "Bread", 11.0, LocalDate.of(2024, 1, 6), TransactionType.EXPENSE, groceries);
+        tracker.deleteCategory(groceries);
+        tracker.removeTransaction(undated);
+        assertEquals(1989.0, tracker.getCurrentBalance(), 1e-9);
+        assertEquals(tracker.recalculateBalance(), tracker.getCurrentBalance(), 1e-9);
+
+        tracker.removeTransaction(pay);
+        tracker.removeTransaction(bread);
+        assertEquals(0.0, tracker.getCurrentBalance());
+    }
+
+    @Test
+    void testRunningBalanceRebuiltOnLoad() {
+        String file = "test_balance_data.json";
+        tracker.addTransaction(new Transaction("Pay", 100, LocalDate.of(2024, 1, 1), TransactionType.INCOME, salary));
+        tracker.addTransaction(new Transaction("Food", 40, LocalDate.of(2024, 1, 2), TransactionType.EXPENSE, groceries));
+        tracker.saveToFile(file);
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(file);
+        assertEquals(60.0, loaded.getCurrentBalance(), 1e-9);
+        assertEquals(loaded.recalculateBalance(), loaded.getCurrentBalance(), 1e-9);
+        // Clean up
+        new java.io.File(file).delete();
+    }
+
+    // Performance update: Removing most rows compacts the list backend without losing index entries
+    @Test
+    void testIndexesSurviveCompaction() {
+        List<Transaction> added = new java.util.ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Transaction t = new Transaction("T" + i, 1.0, LocalDate.of(2024, 1, 1).plusDays(i % 60), TransactionType.EXPENSE, groceries);
+            tracker.addTransaction(t);
+            added.add(t);
+        }
+        for (int i = 0; i < 280; i++) {
+            tracker.removeTransaction(added.get(i));
+        }
+        List<Transaction> remaining = added.subList(280, 300);
+        assertEquals(remaining, tracker.getTransactions());
+        assertEquals(20, tracker.filterTransactions(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), groceries).size());
+        tracker.removeTransaction(remaining.get(0));
+        assertEquals(19, tracker.getTransactions().size());
+        assertEquals(-19.0, tracker.getCurrentBalance(), 1e-9);
+    }
+
+    // Performance update: The category index must agree with a scan after every kind of mutation
+    private static void assertCategoryIndexMatchesScan(FinanceTracker tracker, Category... categories) {
+        for (Category category : categories) {
+            List<Transaction> scanned = tracker.getTransactions().stream()
+                .filter(t -> category.equals(t.getCategory())).toList();
+            List<Transaction> indexed = tracker.filterTransactions(null, null, category);
+            assertEquals(scanned.stream().map(Transaction::getDescription).toList(),
+                indexed.stream().map(Transaction::getDescription).toList(), category.getName());
+            assertEquals(scanned.stream().mapToLong(Transaction::getAmountCents).sum(),
+                tracker.getCategoryTotalCents(category));
+        }
+    }
+
+    @Test
+    void testCategoryIndexStaysConsistentThroughRenameAndDelete() {
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            FinanceTracker ledger = new FinanceTracker(mode);
+            Category food = new Category("Food", CategoryType.EXPENSE);
+            Category travel = new Category("Travel", CategoryType.EXPENSE);
+            Category foodCopy = new Category("Food", CategoryType.EXPENSE);
+            ledger.addCategory(food);
+            ledger.addCategory(travel);
+            for (int i = 0; i < 300; i++) {
+                Category category = i % 3 == 0 ? food : i % 3 == 1 ? travel : foodCopy;
+                ledger.addTransaction(new Transaction("T" + i, i + 1, i % 7 == 0 ? null : LocalDate.of(2024, 1, 1).plusDays(i),
+                    TransactionType.EXPENSE, category));
+            }
+            assertCategoryIndexMatchesScan(ledger, food, travel);
+            assertEquals(200, ledger.filterTransactions(null, null, food).size());
+
+            // Edits move rows between categories, and removals may compact the list backend
+            List<Transaction> rows = ledger.getTransactions();
+            for (int i = 0; i < 300; i += 5) {
+                Transaction t = rows.get(i);
+                ledger.updateTransaction(t, t.getDescription(), t.getAmount(), t.getDate(), t.getType(),
+                    t.getCategory() == travel ? food : travel);
+            }
+            for (int i = 0; i < 300; i += 2) {
+                ledger.removeTransaction(rows.get(i));
+            }
+            assertCategoryIndexMatchesScan(ledger, food, travel);
+
+            ledger.renameCategory(travel, "Trips");
+            assertCategoryIndexMatchesScan(ledger, food, travel);
+            assertEquals(ledger.filterTransactions(null, null, travel).size(),
+                ledger.filterTransactions(null, null, new Category("Trips", CategoryType.EXPENSE)).size());
+
+            ledger.deleteCategory(food);
+            assertTrue(ledger.filterTransactions(null, null, food).isEmpty());
+            assertEquals(0, ledger.getCategoryTotalCents(food));
+            assertCategoryIndexMatchesScan(ledger, travel);
+            long uncategorized = ledger.getTransactions().stream().filter(t -> t.getCategory() == null).count();
+            assertEquals(ledger.getTransactions().size() - ledger.filterTransactions(null, null, travel).size(), uncategorized);
+
+            // Rows without a category can be recategorized and are indexed again
+            Transaction first = ledger.getTransactions().stream().filter(t -> t.getCategory() == null).findFirst().orElseThrow();
+            ledger.updateTransaction(first, "Back", 1, first.getDate(), first.getType(), travel);
+            assertCategoryIndexMatchesScan(ledger, travel);
+        }
+    }
+
+    @Test
+    void testCategoryIndexRebuiltOnLoad() {
+        String file = "test_category_index.json";
+        tracker.addTransaction(new Transaction("Pay", 100, LocalDate.of(2024, 1, 1), TransactionType.INCOME, salary));
+        tracker.addTransaction(new Transaction("Food", 40, LocalDate.of(2024, 1, 2), TransactionType.EXPENSE, groceries));
+        tracker.addTransaction(new Transaction("More food", 2.5, null, TransactionType.EXPENSE, groceries));
+        tracker.saveToFile(file);
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(file);
+        assertEquals(4250, loaded.getCategoryTotalCents(groceries));
+        assertEquals(List.of("Food", "More food"),
+            loaded.filterTransactions(null, null, groceries).stream().map(Transaction::getDescription).toList());
+        new java.io.File(file).delete();
+    }
+
+    // Performance update: Limits are found by category value and follow renames
+    @Test
+    void testKeyedSpendingLimitsFollowRenameAndEqualCategories() {
+        LocalDate today = LocalDate.now();
+        tracker.setSpendingLimit(groceries, 100);
+        Category sameName = new Category("Groceries", CategoryType.EXPENSE);
+        tracker.addTransaction(new Transaction("Milk", 4, today, TransactionType.EXPENSE, groceries));
+        tracker.addTransaction(new Transaction("Eggs", 6, today, TransactionType.EXPENSE, sameName));
+        assertSame(tracker.getSpendingLimits().get(0), tracker.getSpendingLimit(sameName));
+        assertEquals(1000, tracker.getSpendingLimit(groceries).getCurrentSpentCents());
+
+        tracker.renameCategory(groceries, "Food");
+        assertNotNull(tracker.getSpendingLimit(new Category("Food", CategoryType.EXPENSE)));
+        assertNull(tracker.getSpendingLimit(sameName));
+        Transaction bread = new Transaction("Bread", 3, today, TransactionType.EXPENSE, groceries);
+        // The eggs stay with the category still named Groceries, so Food counts the milk and the bread
+        tracker.addTransaction(bread);
+        assertEquals(700, tracker.getSpendingLimit(groceries).getCurrentSpentCents());
+        tracker.removeTransaction(bread);
+        assertEquals(400, tracker.getSpendingLimit(groceries).getCurrentSpentCents());
+
+        tracker.setSpendingLimit(groceries, 50);
+        assertEquals(1, tracker.getSpendingLimits().size());
+        assertEquals(5000, tracker.getSpendingLimits().get(0).getMonthlyLimitCents());
+        assertThrows(UnsupportedOperationException.class, () -> tracker.getSpendingLimits().clear());
+        tracker.removeSpendingLimit(new Category("Food", CategoryType.EXPENSE));
+        assertTrue(tracker.getSpendingLimits().isEmpty());
+    }
+
+    @Test
+    void testBulkAddMatchesOneByOne() {
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            for (int workers : new int[]{1, 4}) {
+                FinanceTracker single = new FinanceTracker(mode);
+                FinanceTracker bulk = new FinanceTracker(mode);
+                Category food = new Category("Food", CategoryType.EXPENSE);
+                Category pay = new Category("Pay", CategoryType.INCOME);
+                for (FinanceTracker t : List.of(single, bulk)) {
+                    t.addCategory(food);
+                    t.addCategory(pay);
+                    t.setSpendingLimit(food, 500);
+                    // Rows already indexed before the batch
+                    t.addTransaction(new Transaction("Before", 7, LocalDate.of(2024, 1, 5), TransactionType.EXPENSE, food));
+                }
+                List<Transaction> rows = new java.util.ArrayList<>();
+                java.util.Random random = new java.util.Random(workers);
+                for (int i = 0; i < 20_000; i++) {
+                    LocalDate date = i % 1000 == 0 ? null : LocalDate.of(2023, 1, 1).plusDays(random.nextInt(730));
+                    boolean income = i % 4 == 0;
+                    rows.add(new Transaction("Row " + i, (random.nextInt(10_000) + 1) / 100.0, date,
+                        income ? TransactionType.INCOME : TransactionType.EXPENSE, i % 3 == 0 ? null : income ? pay : food));
+                }
+                int[] notified = new int[1];
+                bulk.addChangeListener(() -> notified[0]++);
+                rows.forEach(r -> single.addTransaction(copy(r)));
+                bulk.addTransactions(rows.stream().map(FinanceTrackerTest::copy).toList(), workers);
+
+                String label = mode + " workers=" + workers;
+                assertEquals(1, notified[0], label);
+                assertEquals(single.getCurrentBalanceCents(), bulk.getCurrentBalanceCents(), label);
+                assertEquals(bulk.recalculateBalance(), bulk.getCurrentBalance(), 1e-6, label);
+                for (YearMonth month = YearMonth.of(2023, 1); !month.isAfter(YearMonth.of(2024, 1)); month = month.plusMonths(1)) {
+                    FinanceSummary expected = single.getMonthlySummary(month);
+                    FinanceSummary actual = bulk.getMonthlySummary(month);
+                    assertEquals(expected.getTotalExpensesCents(), actual.getTotalExpensesCents(), label);
+                    assertEquals(expected.getCategoryBreakdown(), actual.getCategoryBreakdown(), label);
+                }
+                LocalDate from = LocalDate.of(2023, 6, 1);
+                LocalDate to = LocalDate.of(2023, 6, 30);
+                assertEquals(descriptions(single.filterTransactions(from, to, food)),
+                    descriptions(bulk.filterTransactions(from, to, food)), label);
+                assertEquals(descriptions(single.filterTransactions(null, null, null)),
+                    descriptions(bulk.filterTransactions(null, null, null)), label);
+                assertEquals(descriptions(single.filterTransactions(null, null, food)),
+                    descriptions(bulk.filterTransactions(null, null, food)), label);
+                assertEquals(single.getCategoryTotalCents(null), bulk.getCategoryTotalCents(null), label);
+                assertEquals(single.getSpendingLimit(food).getCurrentSpentCents(),
+                    bulk.getSpendingLimit(food).getCurrentSpentCents(), label);
+            }
+        }
+    }
+
+    @Test
+    void testMultiPeriodSummariesMatchMonthlyCalls() {
+        java.util.Random random = new java.util.Random(3);
+        for (int i = 0; i < 5000; i++) {
+            boolean income = i % 5 == 0;
+            tracker.addTransaction(new Transaction("Row " + i, (random.nextInt(10_000) + 1) / 100.0,
+                LocalDate.of(2023, 1, 1).plusDays(random.nextInt(730)),
+                income ? TransactionType.INCOME : TransactionType.EXPENSE, income ? salary : i % 2 == 0 ? groceries : null));
+        }
+        YearMonth from = YearMonth.of(2022, 11);
+        YearMonth to = YearMonth.of(2025, 2);
+        java.util.NavigableMap<YearMonth, FinanceSummary> summaries = tracker.getSummaries(from, to);
+        assertEquals(28, summaries.size());
+        assertEquals(from, summaries.firstKey());
+        summaries.forEach((month, summary) -> {
+            FinanceSummary expected = tracker.getMonthlySummary(month);
+            assertEquals(expected.getTotalIncomeCents(), summary.getTotalIncomeCents(), month.toString());
+            assertEquals(expected.getTotalExpensesCents(), summary.getTotalExpensesCents(), month.toString());
+            assertEquals(expected.getCategoryBreakdown(), summary.getCategoryBreakdown(), month.toString());
+        });
+
+        for (int year = 2022; year <= 2025; year++) {
+            long yearExpenses = 0;
+            for (int quarter = 1; quarter <= 4; quarter++) {
+                FinanceSummary summary = tracker.getQuarterlySummary(year, quarter);
+                YearMonth first = YearMonth.of(year, quarter * 3 - 2);
+                long income = 0;
+                long expenses = 0;
+                java.util.Map<Category, Long> breakdown = new java.util.HashMap<>();
+                for (FinanceSummary month : tracker.getSummaries(first, first.plusMonths(2)).values()) {
+                    income += month.getTotalIncomeCents();
+                    expenses += month.getTotalExpensesCents();
+                    month.getCategoryBreakdown().forEach((category, amount) -> breakdown.merge(category, Money.toCents(amount), Long::sum));
+                }
+                assertEquals(income, summary.getTotalIncomeCents());
+                assertEquals(expenses, summary.getTotalExpensesCents());
+                assertEquals(income - expenses, summary.getNetBalanceCents());
+                java.util.Map<Category, Long> actual = new java.util.HashMap<>();
+                summary.getCategoryBreakdown().forEach((category, amount) -> actual.put(category, Money.toCents(amount)));
+                assertEquals(breakdown, actual);
+                yearExpenses += expenses;
+            }
+            assertEquals(yearExpenses, tracker.getYearlySummary(year).getTotalExpensesCents());
+        }
+        assertTrue(tracker.getSummaries(to, from).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> tracker.getQuarterlySummary(2024, 5));
+    }
+
+    @Test
+    void testDateRangeTotalsMatchFilteredSums() {
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            FinanceTracker t = new FinanceTracker(mode);
+            Category food = new Category("Food", CategoryType.EXPENSE);
+            Category pay = new Category("Pay", CategoryType.INCOME);
+            t.addCategory(food);
+            t.addCategory(pay);
+            java.util.Random random = new java.util.Random(5);
+            List<Transaction> added = new java.util.ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                boolean income = i % 4 == 0;
+                LocalDate date = i % 500 == 0 ? null : LocalDate.of(2023, 1, 1).plusDays(random.nextInt(900));
+                Transaction row = new Transaction("Row " + i, (random.nextInt(10_000) + 1) / 100.0, date,
+                    income ? TransactionType.INCOME : TransactionType.EXPENSE, income ? pay : i % 3 == 0 ? null : food);
+                t.addTransaction(row);
+                added.add(row);
+                if (i == 1000) {
+                    // Builds the food tree, which the later rows must then keep current
+                    t.getTotalBetweenCents(null, null, food);
+                }
+            }
+            for (int i = 0; i < 1500; i++) {
+                t.removeTransaction(added.get(i * 2));
+            }
+            Transaction edited = t.getTransactions().get(3);
+            t.updateTransaction(edited, "Moved", 12.34, LocalDate.of(2021, 6, 1), TransactionType.EXPENSE, food);
+            t.addTransactions(added.subList(0, 200).stream().map(FinanceTrackerTest::copy).toList(), 2);
+
+            for (int q = 0; q < 200; q++) {
+                LocalDate start = q % 10 == 0 ? null : LocalDate.of(2021, 1, 1).plusDays(random.nextInt(1500));
+                LocalDate end = q % 7 == 0 ? null : LocalDate.of(2021, 1, 1).plusDays(random.nextInt(1500));
+                List<Transaction> rows = t.filterTransactions(start, end, null).stream()
+                    .filter(r -> r.getDate() != null).toList();
+                long income = rows.stream().filter(r -> r.getType() == TransactionType.INCOME)
+                    .mapToLong(Transaction::getAmountCents).sum();
+                long expenses = rows.stream().filter(r -> r.getType() != TransactionType.INCOME)
+                    .mapToLong(Transaction::getAmountCents).sum();
+                long foodCents = rows.stream().filter(r -> food.equals(r.getCategory()))
+                    .mapToLong(Transaction::getAmountCents).sum();
+                long uncategorized = rows.stream().filter(r -> r.getCategory() == null)
+                    .mapToLong(Transaction::getAmountCents).sum();
+                String label = mode + " " + start + ".." + end;
+                assertEquals(income, t.getTotalBetweenCents(start, end, TransactionType.INCOME), label);
+                assertEquals(expenses, t.getTotalBetweenCents(start, end, TransactionType.EXPENSE), label);
+                assertEquals(foodCents, t.getTotalBetweenCents(start, end, food), label);
+                assertEquals(uncategorized, t.getTotalBetweenCents(start, end, (Category) null), label);
+                if (end != null) {
+                    List<Transaction> upTo = t.filterTransactions(null, end, null);
+                    long balance = upTo.stream().mapToLong(r -> r.getType() == TransactionType.INCOME
+                        ? r.getAmountCents() : -r.getAmountCents()).sum();
+                    assertEquals(balance, t.getBalanceAsOfCents(end), label);
+                }
+            }
+
+            // Rows of a deleted category count as uncategorized from then on
+            long foodBefore = t.getTotalBetweenCents(null, null, food);
+            long noneBefore = t.getTotalBetweenCents(null, null, (Category) null);
+            t.deleteCategory(food);
+            assertEquals(0, t.getTotalBetweenCents(null, null, food));
+            assertEquals(foodBefore + noneBefore, t.getTotalBetweenCents(null, null, (Category) null));
+        }
+    }
+
+    @Test
+    void testSearchFollowsEditsRemovalsAndReloads() throws Exception {
+        String[] words = {"Rent", "Groceries", "Coffee", "Bus", "Cinema", "Pharmacy", "Books", "Lunch"};
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            FinanceTracker t = new FinanceTracker(mode);
+            List<Transaction> added = new java.util.ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                Transaction row = new Transaction(words[i % words.length] + " " + words[(i / 3) % words.length] + " #" + i,
+                    1.0, LocalDate.of(2024, 1, 1), TransactionType.EXPENSE, null);
+                t.addTransaction(row);
+                added.add(row);
+                if (i == 100) {
+                    // Builds the index, which the later rows must then keep current
+                    t.searchTransactions("rent", 1);
+                }
+            }
+            for (int i = 0; i < 300; i++) {
+                t.removeTransaction(added.get(i));
+            }
+            t.updateTransaction(t.getTransactions().get(5), "Concert tickets", 40.0, LocalDate.of(2024, 2, 1),
+                TransactionType.EXPENSE, null);
+            t.addTransactions(added.subList(0, 50).stream().map(FinanceTrackerTest::copy).toList(), 2);
+            assertSearchMatchesScan(t, mode.toString());
+            assertEquals(List.of("Concert tickets"), descriptions(t.searchTransactions("concrt", 10)));
+
+            String file = "test_search_" + mode + ".json";
+            t.saveToFile(file);
+            FinanceTracker loaded = new FinanceTracker(mode);
+            loaded.searchTransactions("rent", 1);
+            loaded.loadFromFile(file);
+            assertSearchMatchesScan(loaded, mode + " loaded");
+            new java.io.File(file).delete();
+        }
+    }
+
+    // Every query word must be a substring of some description word; newest first
+    private static void assertSearchMatchesScan(FinanceTracker tracker, String label) {
+        for (String query : List.of("rent", "ent bus", "co", "groceries lunch", "#3", "harm ook", "b c")) {
+            List<String> terms = new java.util.ArrayList<>(DescriptionIndex.tokens(query));
+            List<Transaction> newestFirst = new java.util.ArrayList<>(tracker.getTransactions());
+            java.util.Collections.reverse(newestFirst);
+            List<String> scanned = newestFirst.stream().filter(row -> {
+                java.util.Set<String> tokens = DescriptionIndex.tokens(row.getDescription());
+                return terms.stream().allMatch(term -> tokens.stream()
+                    .anyMatch(token -> term.length() <= 2 ? token.startsWith(term) : token.contains(term)));
+            }).map(Transaction::getDescription).limit(25).toList();
+            assertEquals(scanned, descriptions(tracker.searchTransactions(query, 25)), label + " " + query);
+        }
+    }
+
+    private static Transaction copy(Transaction t) {
+        return new Transaction(t.getDescription(), t.getAmount(), t.getDate(), t.getType(), t.getCategory());
+    }
+
+    private static List<String> descriptions(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getDescription).toList();
+    }
+}
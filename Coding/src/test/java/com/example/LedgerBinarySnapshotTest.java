@@ -0,0 +1,147 @@
+// Performance update: Tests for the binary snapshot format
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerBinarySnapshotTest {
+    @TempDir
+    Path dir;
+
+    private static List<String> rowsOf(FinanceTracker tracker) {
+        return tracker.getTransactions().stream()
+            .map(t -> t.getDescription() + "|" + t.getAmountCents() + "|" + t.getDate() + "|" + t.getType() + "|"
+                + (t.getCategory() != null ? t.getCategory().getName() : null))
+            .toList();
+    }
+
+    @Test
+    void testRoundTripIntoBothBackends() {
+        FinanceTracker tracker = new FinanceTracker();
+        Category food = new Category("Café", CategoryType.EXPENSE);
+        Category foodAgain = new Category("Café", CategoryType.EXPENSE);
+        Category unlisted = new Category("Travel", CategoryType.EXPENSE);
+        tracker.addCategory(food);
+        tracker.addCategory(foodAgain);
+        tracker.setSpendingLimit(food, 120.5);
+        tracker.addTransaction(new Transaction("Croissant", 3.4, LocalDate.of(2024, 2, 1), TransactionType.EXPENSE, food));
+        tracker.addTransaction(new Transaction("Train", 40, LocalDate.of(1969, 12, 31), TransactionType.EXPENSE, unlisted));
+        tracker.addTransaction(new Transaction(null, -2, null, null, null));
+        tracker.removeTransaction(tracker.getTransactions().get(1));
+        tracker.addTransaction(new Transaction("Croissant", 3.4, LocalDate.of(2024, 2, 1), TransactionType.EXPENSE, foodAgain));
+        // The rows are not in the current month; a saved spend still round-trips as it was
+        tracker.getSpendingLimit(food).setCurrentSpentCents(680);
+        Path file = dir.resolve("ledger.bin");
+        tracker.saveBinarySnapshot(file.toString());
+
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            FinanceTracker loaded = new FinanceTracker(mode);
+            loaded.loadFromFile(file.toString());
+            assertEquals(rowsOf(tracker), rowsOf(loaded));
+            assertEquals(2, loaded.getCategories().size());
+            assertNotSame(loaded.getCategories().get(0), loaded.getCategories().get(1));
+            // Rows keep pointing at the same listed object they referred to before the save
+            assertSame(loaded.getCategories().get(0), loaded.getTransactions().get(0).getCategory());
+            assertSame(loaded.getCategories().get(1), loaded.getTransactions().get(2).getCategory());
+            assertEquals(12050, loaded.getSpendingLimits().get(0).getMonthlyLimitCents());
+            assertEquals(680, loaded.getSpendingLimits().get(0).getCurrentSpentCents());
+            assertEquals(tracker.getCurrentBalanceCents(), loaded.getCurrentBalanceCents());
+        }
+    }
+
+    @Test
+    void testConvertersPreserveTheBundledLedger() throws Exception {
+        Path binary = dir.resolve("ledger.bin");
+        Path json = dir.resolve("ledger.json");
+        LedgerBinarySnapshot.convertFromJson(Path.of("finance_data.json"), binary);
+        LedgerBinarySnapshot.convertToJson(binary, json, true);
+        assertTrue(Files.size(binary) < Files.size(Path.of("finance_data.json")));
+
+        FinanceTracker original = new FinanceTracker();
+        original.loadFromFile("finance_data.json");
+        FinanceTracker fromBinary = new FinanceTracker();
+        fromBinary.loadFromFile(binary.toString());
+        FinanceTracker fromJson = new FinanceTracker();
+        fromJson.loadFromFile(json.toString());
+        assertEquals(82, fromBinary.getTransactions().size());
+        assertEquals(rowsOf(original), rowsOf(fromBinary));
+        assertEquals(rowsOf(original), rowsOf(fromJson));
+        assertEquals(original.getCategories(), fromBinary.getCategories());
+        assertEquals(original.getSpendingLimits().size(), fromJson.getSpendingLimits().size());
+    }
+
+    @Test
+    void testCorruptionIsDetected() throws Exception {
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.addTransaction(new Transaction("Pay", 100, LocalDate.of(2024, 1, 1), TransactionType.INCOME, null));
+        Path file = dir.resolve("ledger.bin");
+        tracker.saveBinarySnapshot(file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 1;
+        Files.write(file, bytes);
+        LedgerBinarySnapshot snapshot = new LedgerBinarySnapshot(new ListTransactionStore());
+        IOException e = assertThrows(IOException.class, () -> snapshot.read(file, null));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void testTooLargeForOneMappingIsSavedAsJson() throws Exception {
+        TransactionStore store = new ColumnarTransactionStore();
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        SpendingLimit limit = new SpendingLimit(food, 50);
+        for (int i = 0; i < 5000; i++) {
+            store.add(new Transaction("Row " + i, 1 + i % 9, LocalDate.of(2024, 1, 1).plusDays(i % 40),
+                TransactionType.EXPENSE, food));
+        }
+        Path file = dir.resolve("ledger.bin");
+        // Stands in for MAX_FILE_SIZE: the rows alone take 120 000 bytes
+        LedgerBinarySnapshot.write(file, store, List.of(food), List.of(limit), 7, 64 * 1024);
+        assertFalse(LedgerBinarySnapshot.isBinary(file));
+        assertTrue(Files.readString(file).contains("\"journalSequence\":7"));
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(file.toString());
+        assertEquals(5000, loaded.getTransactions().size());
+        assertEquals("Row 4999", loaded.getTransactions().get(4999).getDescription());
+        assertEquals(store.sumAmountCents(), -loaded.getCurrentBalanceCents());
+        assertEquals(5000, loaded.getSpendingLimits().get(0).getMonthlyLimitCents());
+
+        // Within the bound the same ledger stays binary
+        LedgerBinarySnapshot.write(file, store, List.of(food), List.of(limit), 7, LedgerBinarySnapshot.MAX_FILE_SIZE);
+        assertTrue(LedgerBinarySnapshot.isBinary(file));
+        FinanceTracker reloaded = new FinanceTracker();
+        reloaded.loadFromFile(file.toString());
+        assertEquals(rowsOf(loaded), rowsOf(reloaded));
+    }
+
+    @Test
+    void testJournalKeepsABinarySnapshotBinary() throws Exception {
+        Path file = dir.resolve("ledger.bin");
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(file.toString());
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        tracker.addCategory(food);
+        tracker.addTransaction(new Transaction("Bread", 2, LocalDate.of(2024, 1, 1), TransactionType.EXPENSE, food));
+        tracker.saveBinarySnapshot(file.toString());
+        assertTrue(LedgerBinarySnapshot.isBinary(file));
+        assertEquals(0, Files.size(LedgerJournal.journalFileFor(file)));
+        for (int i = 0; i < 3000; i++) {
+            tracker.addTransaction(new Transaction("Row " + i, 1, LocalDate.of(2024, 1, 2), TransactionType.EXPENSE, food));
+        }
+        // Large enough to compact, and the rewritten snapshot stays binary
+        tracker.saveToFile(file.toString());
+        tracker.closeJournal(true);
+        assertTrue(LedgerBinarySnapshot.isBinary(file));
+        assertEquals(0, Files.size(LedgerJournal.journalFileFor(file)));
+
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.openJournal(file.toString());
+        assertEquals(3001, reopened.getTransactions().size());
+        reopened.closeJournal(true);
+    }
+}
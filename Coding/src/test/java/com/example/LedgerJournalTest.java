@@ -0,0 +1,260 @@
+// Performance update: Tests for the mutation journal
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerJournalTest {
+    @TempDir
+    Path dir;
+
+    private Path data;
+    private Path journal;
+
+    @BeforeEach
+    void setUp() {
+        data = dir.resolve("finance_data.json");
+        journal = LedgerJournal.journalFileFor(data);
+    }
+
+    private static Transaction expense(String description, double amount, Category category) {
+        return new Transaction(description, amount, LocalDate.of(2024, 5, 10), TransactionType.EXPENSE, category);
+    }
+
+    private FinanceTracker seededLedger() {
+        FinanceTracker tracker = new FinanceTracker();
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        tracker.addCategory(food);
+        tracker.addCategory(new Category("Salary", CategoryType.INCOME));
+        tracker.addTransaction(expense("Bread", 2.5, food));
+        tracker.addTransaction(expense("Milk", 1.2, food));
+        tracker.saveToFile(data.toString());
+        return tracker;
+    }
+
+    @Test
+    void testSaveAppendsWithoutRewritingTheSnapshot() throws Exception {
+        seededLedger();
+        byte[] snapshot = Files.readAllBytes(data);
+
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(data.toString());
+        Category food = tracker.getCategories().get(0);
+        tracker.addTransaction(expense("Cheese", 4.75, food));
+        tracker.saveToFile(data.toString());
+
+        assertArrayEquals(snapshot, Files.readAllBytes(data));
+        assertEquals(1, Files.readAllLines(journal).size());
+        tracker.closeJournal(true);
+
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.loadFromFile(data.toString());
+        assertEquals(3, reopened.getTransactions().size());
+        assertEquals(-845, reopened.getCurrentBalanceCents());
+        assertSame(reopened.getCategories().get(0), reopened.getTransactions().get(2).getCategory());
+    }
+
+    @Test
+    void testEveryOperationReplaysIntoEitherBackend() throws Exception {
+        seededLedger();
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(data.toString());
+        Category food = tracker.getCategories().get(0);
+        Category travel = new Category("Travel", CategoryType.EXPENSE);
+        tracker.addCategory(travel);
+        tracker.setSpendingLimit(food, 50);
+        tracker.addTransaction(expense("Train", 30, travel));
+        Transaction bread = tracker.getTransactions().get(0);
+        tracker.updateTransaction(bread, "Sourdough", 4.1, LocalDate.of(2024, 5, 11), TransactionType.EXPENSE, food);
+        tracker.removeTransaction(tracker.getTransactions().get(1));
+        tracker.renameCategory(travel, "Trips");
+        tracker.deleteCategory(tracker.getCategories().get(1));
+        tracker.setSpendingLimit(travel, 100);
+        tracker.removeSpendingLimit(food);
+        tracker.saveToFile(data.toString());
+        tracker.closeJournal(true);
+
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            FinanceTracker reopened = new FinanceTracker(mode);
+            reopened.openJournal(data.toString());
+            List<Transaction> rows = reopened.getTransactions();
+            assertEquals(2, rows.size(), mode.name());
+            assertEquals("Sourdough", rows.get(0).getDescription());
+            assertEquals(410, rows.get(0).getAmountCents());
+            assertEquals(LocalDate.of(2024, 5, 11), rows.get(0).getDate());
+            assertEquals("Train", rows.get(1).getDescription());
+            assertEquals(List.of("Food", "Trips"), reopened.getCategories().stream().map(Category::getName).toList());
+            assertSame(reopened.getCategories().get(1), rows.get(1).getCategory());
+            assertEquals(1, reopened.getSpendingLimits().size());
+            assertEquals(10000, reopened.getSpendingLimits().get(0).getMonthlyLimitCents());
+            assertEquals(tracker.getCurrentBalanceCents(), reopened.getCurrentBalanceCents());
+            reopened.closeJournal(true);
+        }
+    }
+
+    @Test
+    void testKeysSurviveListCompaction() throws Exception {
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(data.toString());
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        tracker.addCategory(food);
+        for (int i = 0; i < 200; i++) {
+            tracker.addTransaction(expense("T" + i, 1, food));
+        }
+        // Removing most rows makes the list store compact and renumber its row ids
+        for (Transaction t : tracker.getTransactions()) {
+            if (!t.getDescription().endsWith("7")) {
+                tracker.removeTransaction(t);
+            }
+        }
+        List<Transaction> left = tracker.getTransactions();
+        tracker.updateTransaction(left.get(3), "Edited", 9, LocalDate.of(2024, 6, 1), TransactionType.EXPENSE, food);
+        tracker.removeTransaction(left.get(0));
+        tracker.saveToFile(data.toString());
+        tracker.closeJournal(true);
+
+        FinanceTracker reopened = new FinanceTracker(FinanceTracker.StorageMode.COLUMNAR);
+        reopened.openJournal(data.toString());
+        assertEquals(tracker.getTransactions().stream().map(Transaction::getDescription).toList(),
+            reopened.getTransactions().stream().map(Transaction::getDescription).toList());
+        assertEquals(tracker.getCurrentBalanceCents(), reopened.getCurrentBalanceCents());
+        reopened.closeJournal(true);
+    }
+
+    @Test
+    void testLargeJournalIsFoldedIntoTheSnapshot() throws Exception {
+        seededLedger();
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(data.toString());
+        Category food = tracker.getCategories().get(0);
+        for (int i = 0; i < 2000; i++) {
+            tracker.addTransaction(expense("Row " + i, 1, food));
+        }
+        tracker.saveToFile(data.toString());
+        assertEquals(0, Files.size(journal));
+        // The 2000 adds, then the rebase record the snapshot was captured at
+        assertTrue(Files.readString(data).contains("\"journalSequence\": 2001"));
+
+        // Changes after the snapshot go to the emptied journal and still replay
+        tracker.removeTransaction(tracker.getTransactions().get(0));
+        tracker.saveToFile(data.toString());
+        tracker.closeJournal(true);
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.openJournal(data.toString());
+        assertEquals(2001, reopened.getTransactions().size());
+        assertEquals("Milk", reopened.getTransactions().get(0).getDescription());
+        reopened.closeJournal(true);
+    }
+
+    @Test
+    void testClosingWithoutSavingAfterAFoldingSaveKeepsWhatItWrote() throws Exception {
+        seededLedger();
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(data.toString());
+        Category food = tracker.getCategories().get(0);
+        for (int i = 0; i < 2000; i++) {
+            tracker.addTransaction(expense("Row " + i, 1, food));
+        }
+        // Written outside the lock; the edit after it stays unsaved
+        tracker.saveToFile(data.toString());
+        tracker.addTransaction(expense("Unsaved", 1, food));
+        tracker.closeJournal(false);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.openJournal(data.toString());
+        assertEquals(2002, reopened.getTransactions().size());
+        assertEquals("Row 1999", reopened.getTransactions().get(2001).getDescription());
+        reopened.closeJournal(true);
+    }
+
+    @Test
+    void testRecordsAlreadyInTheSnapshotAreSkipped() throws Exception {
+        seededLedger();
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(data.toString());
+        Category food = tracker.getCategories().get(0);
+        for (int i = 0; i < 2000; i++) {
+            tracker.addTransaction(expense("Row " + i, 1, food));
+        }
+        tracker.saveToFile(data.toString(), true);
+        tracker.closeJournal(true);
+        assertTrue(Files.readString(data).contains("\"journalSequence\":2001"));
+        // Simulate a crash after the snapshot rename but before the journal was truncated
+        Files.write(journal, journalLinesFor(2000));
+
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.openJournal(data.toString());
+        assertEquals(2002, reopened.getTransactions().size());
+        reopened.closeJournal(true);
+    }
+
+    // Add records with sequence numbers 1..count, as the pre-snapshot journal would have held
+    private static byte[] journalLinesFor(int count) {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            lines.append("{\"seq\":").append(i).append(",\"op\":\"add\",\"key\":").append(i + 1)
+                .append(",\"transaction\":{\"amount\":1.00,\"type\":\"EXPENSE\"}}\n");
+        }
+        return lines.toString().getBytes();
+    }
+
+    @Test
+    void testClosingWithoutSavingDropsUnsavedRecords() throws Exception {
+        seededLedger();
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(data.toString());
+        Category food = tracker.getCategories().get(0);
+        tracker.addTransaction(expense("Saved", 1, food));
+        tracker.saveToFile(data.toString());
+        tracker.addTransaction(expense("Unsaved", 1, food));
+        tracker.closeJournal(false);
+
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.loadFromFile(data.toString());
+        assertEquals(List.of("Bread", "Milk", "Saved"),
+            reopened.getTransactions().stream().map(Transaction::getDescription).toList());
+    }
+
+    @Test
+    void testTornTailIsIgnoredAndCutOff() throws Exception {
+        seededLedger();
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(data.toString());
+        tracker.addTransaction(expense("Kept", 3, tracker.getCategories().get(0)));
+        tracker.closeJournal(true);
+        Files.writeString(journal, "{\"seq\":2,\"op\":\"add\",\"key\":3,\"transac", StandardOpenOption.APPEND);
+
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.openJournal(data.toString());
+        assertEquals(3, reopened.getTransactions().size());
+        reopened.addTransaction(expense("After", 1, reopened.getCategories().get(0)));
+        reopened.closeJournal(true);
+        assertEquals(2, Files.readAllLines(journal).size());
+
+        FinanceTracker again = new FinanceTracker();
+        again.loadFromFile(data.toString());
+        assertEquals("After", again.getTransactions().get(3).getDescription());
+    }
+
+    @Test
+    void testOpeningWithoutAFileStartsEmptyAndSaveWritesTheSnapshot() throws Exception {
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.openJournal(data.toString());
+        assertTrue(tracker.getTransactions().isEmpty());
+        tracker.addCategory(new Category("Food", CategoryType.EXPENSE));
+        tracker.saveToFile(data.toString());
+        assertTrue(Files.exists(data));
+        assertEquals(0, Files.size(journal));
+        tracker.closeJournal(true);
+    }
+}
@@ -0,0 +1,101 @@
+// Performance update: Tests for the streaming JSON loader
+package com.example;
+
+import org.junit.jupiter.api.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerJsonReaderTest {
+    private final Path file = Path.of("test_streaming_data.json");
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void testReadsBundledPrettyFile() throws Exception {
+        ListTransactionStore store = new ListTransactionStore();
+        LedgerJsonReader reader = new LedgerJsonReader(store);
+        assertTrue(reader.read(Path.of("finance_data.json"), null));
+        assertEquals(82, store.size());
+        assertEquals(8, reader.getCategories().size());
+        assertEquals(4, reader.getSpendingLimits().size());
+        // Every embedded category is linked to the listed object with the same name and type
+        for (Transaction t : store.toList()) {
+            assertTrue(reader.getCategories().stream().anyMatch(c -> c == t.getCategory()));
+        }
+        SpendingLimit groceries = reader.getSpendingLimits().get(0);
+        assertTrue(reader.getCategories().stream().anyMatch(c -> c == groceries.getCategory()));
+        assertEquals(30000, groceries.getMonthlyLimitCents());
+    }
+
+    @Test
+    void testCategoriesBeforeTransactionsNullsAndUnknownFields() throws Exception {
+        Files.writeString(file, """
+            {"version": 2,
+             "categories": [{"name": "Food", "type": "EXPENSE"}, {"name": "Food", "type": "EXPENSE"}],
+             "transactions": [
+               {"description": "Bread", "amount": 2.5, "date": "2024-01-02", "type": "EXPENSE",
+                "category": {"name": "Food", "type": "EXPENSE"}, "note": {"ignored": [1, 2]}},
+               {"description": "Cash", "amount": 1, "date": null, "type": "INCOME", "category": null}
+             ],
+             "spendingLimits": null}
+            """);
+        ListTransactionStore store = new ListTransactionStore();
+        LedgerJsonReader reader = new LedgerJsonReader(store);
+        assertTrue(reader.read(file, null));
+        List<Transaction> rows = store.toList();
+        assertEquals(2, rows.size());
+        assertSame(reader.getCategories().get(0), rows.get(0).getCategory());
+        assertNotSame(reader.getCategories().get(0), reader.getCategories().get(1));
+        assertEquals(LocalDate.of(2024, 1, 2), rows.get(0).getDate());
+        assertEquals(250, rows.get(0).getAmountCents());
+        assertNull(rows.get(1).getDate());
+        assertNull(rows.get(1).getCategory());
+        assertEquals(100, rows.get(1).getAmountCents());
+        assertTrue(reader.getSpendingLimits().isEmpty());
+    }
+
+    @Test
+    void testProgressIsMonotonicAndFinishes() throws Exception {
+        FinanceTracker tracker = new FinanceTracker();
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        tracker.addCategory(food);
+        for (int i = 0; i < 5000; i++) {
+            tracker.addTransaction(new Transaction("Row " + i, 1.25, LocalDate.of(2024, 1, 1).plusDays(i % 300), TransactionType.EXPENSE, food));
+        }
+        tracker.saveToFile(file.toString());
+        List<Double> reported = new ArrayList<>();
+        FinanceTracker loaded = new FinanceTracker(FinanceTracker.StorageMode.COLUMNAR);
+        loaded.loadFromFile(file.toString(), reported::add);
+        assertEquals(5000, loaded.getTransactions().size());
+        assertEquals(-6250.0, loaded.getCurrentBalance());
+        assertTrue(reported.size() > 2);
+        for (int i = 1; i < reported.size(); i++) {
+            assertTrue(reported.get(i) >= reported.get(i - 1));
+        }
+        assertEquals(1.0, reported.get(reported.size() - 1));
+    }
+
+    @Test
+    void testMissingOrEmptyFileKeepsCurrentData() throws Exception {
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.addTransaction(new Transaction("Keep", 1, LocalDate.of(2024, 1, 1), TransactionType.INCOME, null));
+        tracker.loadFromFile("does_not_exist.json");
+        Files.writeString(file, "");
+        tracker.loadFromFile(file.toString());
+        assertEquals(1, tracker.getTransactions().size());
+    }
+
+    @Test
+    void testIsoDateFastPath() {
+        assertEquals(LocalDate.of(2024, 2, 29), LedgerTypeAdapters.parseIsoDate("2024-02-29"));
+        assertEquals(LocalDate.of(-5, 1, 1), LedgerTypeAdapters.parseIsoDate("-0005-01-01"));
+        assertThrows(java.time.DateTimeException.class, () -> LedgerTypeAdapters.parseIsoDate("2023-02-29"));
+    }
+}
@@ -0,0 +1,125 @@
+// Performance update: Tests for the streaming JSON writer
+package com.example;
+
+import org.junit.jupiter.api.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LedgerJsonWriterTest {
+    private final Path file = Path.of("test_writer_data.json");
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    private FinanceTracker sampleTracker() {
+        FinanceTracker tracker = new FinanceTracker();
+        Category salary = new Category("Salary", CategoryType.INCOME);
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        tracker.addCategory(salary);
+        tracker.addCategory(food);
+        tracker.setSpendingLimit(food, 300);
+        tracker.addTransaction(new Transaction("Pay", 3500, LocalDate.of(2024, 1, 15), TransactionType.INCOME, salary));
+        tracker.addTransaction(new Transaction("Bread", 2.05, LocalDate.of(2024, 1, 16), TransactionType.EXPENSE, food));
+        tracker.addTransaction(new Transaction("Refund", -0.5, LocalDate.of(2024, 1, 16), TransactionType.EXPENSE, food));
+        tracker.addTransaction(new Transaction(null, 1, null, TransactionType.INCOME, null));
+        return tracker;
+    }
+
+    @Test
+    void testCompactRoundTripUsesCategoryIds() throws Exception {
+        FinanceTracker tracker = sampleTracker();
+        // The rows are not in the current month; a saved spend still round-trips as it was
+        tracker.getSpendingLimits().get(0).setCurrentSpentCents(155);
+        tracker.saveToFile(file.toString(), true);
+        String json = Files.readString(file);
+        assertFalse(json.contains("\n"));
+        assertTrue(json.contains("\"categoryId\":1"));
+        assertFalse(json.contains("\"category\":"));
+        assertTrue(json.contains("\"amount\":2.05"));
+        assertTrue(json.contains("\"amount\":-0.50"));
+
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(file.toString());
+        List<Transaction> rows = loaded.getTransactions();
+        assertEquals(4, rows.size());
+        assertEquals(2, loaded.getCategories().size());
+        assertSame(loaded.getCategories().get(1), rows.get(1).getCategory());
+        assertSame(loaded.getCategories().get(1), loaded.getSpendingLimits().get(0).getCategory());
+        assertEquals(205, rows.get(1).getAmountCents());
+        assertEquals(-50, rows.get(2).getAmountCents());
+        assertEquals(LocalDate.of(2024, 1, 16), rows.get(2).getDate());
+        assertNull(rows.get(3).getDescription());
+        assertNull(rows.get(3).getDate());
+        assertNull(rows.get(3).getCategory());
+        assertEquals(30000, loaded.getSpendingLimits().get(0).getMonthlyLimitCents());
+        assertEquals(155, loaded.getSpendingLimits().get(0).getCurrentSpentCents());
+    }
+
+    @Test
+    void testPrettyOutputIsIndentedAndLargerThanCompact() throws Exception {
+        FinanceTracker tracker = sampleTracker();
+        tracker.saveToFile(file.toString(), false);
+        String pretty = Files.readString(file);
+        assertTrue(pretty.contains("\n  \"categories\": ["));
+        tracker.saveToFile(file.toString(), true);
+        assertTrue(Files.size(file) < pretty.length());
+    }
+
+    @Test
+    void testUnlistedCategoriesAreEmbedded() throws Exception {
+        FinanceTracker tracker = new FinanceTracker();
+        Category listed = new Category("Food", CategoryType.EXPENSE);
+        tracker.addCategory(listed);
+        Category unlisted = new Category("Travel", CategoryType.EXPENSE);
+        Category equalCopy = new Category("Food", CategoryType.EXPENSE);
+        tracker.addTransaction(new Transaction("Train", 40, LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, unlisted));
+        tracker.addTransaction(new Transaction("Lunch", 12, LocalDate.of(2024, 3, 1), TransactionType.EXPENSE, equalCopy));
+        tracker.saveToFile(file.toString(), true);
+        String json = Files.readString(file);
+        assertTrue(json.contains("\"category\":{\"name\":\"Travel\",\"type\":\"EXPENSE\"}"));
+
+        FinanceTracker loaded = new FinanceTracker();
+        loaded.loadFromFile(file.toString());
+        List<Transaction> rows = loaded.getTransactions();
+        assertEquals(unlisted, rows.get(0).getCategory());
+        // An equal copy is written as the listed id and comes back linked to the listed object
+        assertSame(loaded.getCategories().get(0), rows.get(1).getCategory());
+    }
+
+    @Test
+    void testColumnarStoreWritesLiveRowsOnly() throws Exception {
+        FinanceTracker tracker = new FinanceTracker(FinanceTracker.StorageMode.COLUMNAR);
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        tracker.addCategory(food);
+        tracker.addTransaction(new Transaction("A", 1, LocalDate.of(2024, 1, 1), TransactionType.EXPENSE, food));
+        tracker.addTransaction(new Transaction("B", 2, LocalDate.of(2024, 1, 2), TransactionType.EXPENSE, food));
+        tracker.removeTransaction(tracker.getTransactions().get(0));
+        tracker.saveToFile(file.toString(), true);
+
+        FinanceTracker loaded = new FinanceTracker(FinanceTracker.StorageMode.COLUMNAR);
+        loaded.loadFromFile(file.toString());
+        assertEquals(1, loaded.getTransactions().size());
+        assertEquals("B", loaded.getTransactions().get(0).getDescription());
+    }
+
+    @Test
+    void testUnknownCategoryIdFailsTheLoad() throws Exception {
+        Files.writeString(file, """
+            {"categories": [], "transactions": [{"amount": 1, "categoryId": 3}]}
+            """);
+        LedgerJsonReader reader = new LedgerJsonReader(new ListTransactionStore());
+        assertThrows(java.io.IOException.class, () -> reader.read(file, null));
+    }
+
+    @Test
+    void testPlainStringMatchesDecimal() {
+        for (long cents : new long[]{0, 5, -5, 99, 100, -100, 123456789, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(Money.toDecimal(cents).toPlainString(), Money.toPlainString(cents));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+// Performance update: Unit tests for Money and the summation kernels
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+    @Test
+    void testToCentsRoundsHalfUp() {
+        assertEquals(1025, Money.toCents(10.25));
+        assertEquals(101, Money.toCents(1.005));
+        assertEquals(-250, Money.toCents(-2.5));
+        assertEquals(350000, Money.toCents(3500.0));
+        assertEquals(12050, Money.parseCents(" 120.50 "));
+        assertEquals(12050, Money.parseCents("120.5"));
+        assertEquals(-350000, Money.parseCents("-3500.0"));
+        assertEquals(7, Money.parseCents("0.07"));
+        assertEquals(101, Money.parseCents("1.005"));
+        assertEquals(120000, Money.parseCents("1.2E3"));
+        assertEquals(10.25, Money.toAmount(1025));
+    }
+
+    @Test
+    void testToCentsRejectsWhatCentsCannotHold() {
+        for (double amount : new double[] {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                1e300, -1e300, Money.MAX_AMOUNT * 2}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Money.toCents(amount));
+            assertTrue(e.getMessage().startsWith("Amount out of range"), e.getMessage());
+        }
+        assertEquals(9_000_000_000_000_000L, Money.toCents(Money.MAX_AMOUNT));
+        assertEquals(-9_000_000_000_000_000L, Money.toCents(-Money.MAX_AMOUNT));
+        assertThrows(IllegalArgumentException.class,
+            () -> new Transaction("Typo", Double.NaN, LocalDate.of(2024, 1, 1), TransactionType.EXPENSE, null));
+        FinanceTracker tracker = new FinanceTracker();
+        Category food = new Category("Food", CategoryType.EXPENSE);
+        tracker.setSpendingLimit(food, 100);
+        assertThrows(IllegalArgumentException.class, () -> tracker.setSpendingLimit(food, Double.POSITIVE_INFINITY));
+        assertEquals(10000, tracker.getSpendingLimit(food).getMonthlyLimitCents());
+        Transaction bread = new Transaction("Bread", 3, LocalDate.of(2024, 1, 1), TransactionType.EXPENSE, food);
+        tracker.addTransaction(bread);
+        assertThrows(IllegalArgumentException.class, () -> tracker.updateTransaction(bread, "Bread", 1e20,
+            bread.getDate(), TransactionType.EXPENSE, food));
+        assertEquals(300, bread.getAmountCents());
+        assertEquals(List.of(bread), tracker.filterTransactions(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1), food));
+        assertEquals(-300, tracker.getCurrentBalanceCents());
+    }
+
+    @Test
+    void testRepeatedAdditionIsExact() {
+        FinanceTracker tracker = new FinanceTracker();
+        Category food = new Category("Food", CategoryType.INCOME);
+        for (int i = 0; i < 10; i++) {
+            tracker.addTransaction(new Transaction("Dime", 0.1, LocalDate.of(2024, 1, 1), TransactionType.INCOME, food));
+        }
+        assertEquals(100, tracker.getCurrentBalanceCents());
+        assertEquals(1.0, tracker.getCurrentBalance());
+        assertEquals(1.0, tracker.getMonthlySummary(java.time.YearMonth.of(2024, 1)).getTotalIncome());
+    }
+
+    @Test
+    void testLoaderReadsDoubleAmounts() throws Exception {
+        String file = "test_money_data.json";
+        java.nio.file.Files.writeString(java.nio.file.Path.of(file),
+            "{\"transactions\":[{\"description\":\"Groceries\",\"amount\":120.5,\"date\":\"2024-01-20\",\"type\":\"EXPENSE\"}]}");
+        FinanceTracker tracker = new FinanceTracker();
+        tracker.loadFromFile(file);
+        assertEquals(12050, tracker.getTransactions().get(0).getAmountCents());
+        new java.io.File(file).delete();
+    }
+
+    @Test
+    void testKernels() {
+        long[] cents = {100, 250, -50, 7, 9};
+        byte[] types = {0, 1, 0, 1, -1};
+        assertEquals(316, AmountKernels.sum(cents, 0, 5));
+        assertEquals(207, AmountKernels.sum(cents, 1, 4));
+        assertEquals(50, AmountKernels.sumWhere(cents, types, (byte) 0, 0, 5));
+        assertEquals(257, AmountKernels.sumWhere(cents, types, (byte) 1, 0, 5));
+    }
+}
@@ -0,0 +1,150 @@
+// Performance update: Tests for the paged list behind the Transactions table
+package com.example;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PagedTransactionListTest {
+    private FinanceTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new FinanceTracker();
+        for (int i = 0; i < 1000; i++) {
+            tracker.addTransaction(new Transaction("Row " + i, 1 + i % 50, LocalDate.of(2024, 1, 1).plusDays(i % 90),
+                TransactionType.EXPENSE, null));
+        }
+    }
+
+    @Test
+    void testRowsAndOneChangePerRefresh() {
+        PagedTransactionList rows = new PagedTransactionList();
+        List<String> changes = new ArrayList<>();
+        rows.addListener((ListChangeListener<Transaction>) c -> {
+            while (c.next()) {
+                changes.add(c.getFrom() + ".." + c.getTo() + " removed " + c.getRemovedSize());
+            }
+        });
+        rows.setQuery(tracker.query());
+        assertEquals(List.of("0..1000 removed 0"), changes);
+        assertEquals(1000, rows.size());
+        assertEquals("Row 0", rows.get(0).getDescription());
+        assertEquals("Row 999", rows.get(999).getDescription());
+        assertEquals("Row 250", rows.get(250).getDescription());
+
+        tracker.removeTransaction(tracker.getTransactions().get(0));
+        rows.refresh();
+        assertEquals("0..999 removed 1000", changes.get(1));
+        assertEquals("Row 1", rows.get(0).getDescription());
+
+        rows.setOrder(TransactionQuery.Order.AMOUNT_DESCENDING);
+        assertEquals(50.0, rows.get(0).getAmount());
+        assertEquals(1.0, rows.get(998).getAmount());
+        assertThrows(IndexOutOfBoundsException.class, () -> rows.get(999));
+    }
+
+    @Test
+    void testFilteredQueryPagesOnDemand() {
+        PagedTransactionList rows = new PagedTransactionList();
+        rows.setQuery(tracker.query().between(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 10)).descriptionMatches("row"));
+        List<Transaction> expected = tracker.filterTransactions(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 10), null);
+        assertEquals(expected.size(), rows.size());
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i).getDescription(), rows.get(i).getDescription());
+        }
+    }
+
+    @Test
+    void testUnannouncedChangeShowsPlaceholdersUntilTheRecountArrives() throws Exception {
+        // Stands in for the JavaFX application thread
+        BlockingQueue<Runnable> ui = new LinkedBlockingQueue<>();
+        List<Throwable> errors = new ArrayList<>();
+        try (BackgroundTasks tasks = new BackgroundTasks(ui::add, errors::add)) {
+            PagedTransactionList rows = new PagedTransactionList(tasks);
+            List<Integer> sizes = new ArrayList<>();
+            rows.addListener((ListChangeListener<Transaction>) c -> sizes.add(rows.size()));
+            rows.setQuery(tracker.query());
+            drain(ui, tasks);
+            assertEquals(List.of(1000), sizes);
+            assertSame(PagedTransactionList.LOADING, rows.get(0), "Pages are read on a worker");
+            drain(ui, tasks);
+            assertEquals(List.of(1000, 1000), sizes, "The page arrives as a change");
+            assertEquals("Row 0", rows.get(0).getDescription());
+
+            // Removed without the table being told
+            tracker.removeTransaction(tracker.getTransactions().get(0));
+            assertSame(PagedTransactionList.LOADING, rows.get(500));
+            while (!tasks.isRunning("table")) {
+                ui.poll(10, TimeUnit.SECONDS).run();
+            }
+            assertEquals(1000, rows.size());
+            assertEquals("Row 0", rows.get(0).getDescription(), "Cached pages stay until the recount arrives");
+            assertSame(PagedTransactionList.LOADING, rows.get(999));
+
+            drain(ui, tasks);
+            assertEquals(List.of(1000, 1000, 999), sizes);
+            assertSame(PagedTransactionList.LOADING, rows.get(500));
+            rows.get(998);
+            drain(ui, tasks);
+            assertEquals("Row 501", rows.get(500).getDescription());
+            assertEquals("Row 999", rows.get(998).getDescription());
+            assertTrue(errors.isEmpty());
+        }
+    }
+
+    @Test
+    void testRowsNeverWaitForAWriter() throws Exception {
+        BlockingQueue<Runnable> ui = new LinkedBlockingQueue<>();
+        List<Throwable> errors = new ArrayList<>();
+        try (BackgroundTasks tasks = new BackgroundTasks(ui::add, errors::add)) {
+            PagedTransactionList rows = new PagedTransactionList(tasks);
+            rows.setQuery(tracker.query());
+            drain(ui, tasks);
+
+            // Listeners run while the writer still holds the tracker's write lock
+            CountDownLatch writing = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            tracker.addChangeListener(() -> {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Thread writer = new Thread(() -> tracker.addTransaction(
+                new Transaction("Late", 1, LocalDate.of(2024, 2, 1), TransactionType.EXPENSE, null)));
+            writer.start();
+            assertTrue(writing.await(10, TimeUnit.SECONDS));
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertSame(PagedTransactionList.LOADING, rows.get(0));
+                assertSame(PagedTransactionList.LOADING, rows.get(999));
+            });
+            release.countDown();
+            writer.join();
+
+            drain(ui, tasks);
+            assertEquals(1001, rows.size());
+            rows.get(0);
+            drain(ui, tasks);
+            assertEquals("Row 0", rows.get(0).getDescription());
+            assertTrue(errors.isEmpty());
+        }
+    }
+
+    // Runs what the workers hand to the UI until none is busy
+    private static void drain(BlockingQueue<Runnable> ui, BackgroundTasks tasks) throws InterruptedException {
+        while (tasks.runningProperty().get()) {
+            ui.poll(10, TimeUnit.SECONDS).run();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+// Performance update: Tests for the coalesced view refreshes
+package com.example;
+
+import org.junit.jupiter.api.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RefreshSchedulerTest {
+    // Stands in for Platform::runLater: each queued action is one pulse
+    private final Queue<Runnable> pulses = new ArrayDeque<>();
+    private final List<String> recomputed = new ArrayList<>();
+    private RefreshScheduler refreshes;
+
+    @BeforeEach
+    void setUp() {
+        refreshes = new RefreshScheduler(pulses::add);
+        for (String view : List.of("table", "balance", "limits", "summary")) {
+            refreshes.register(view, () -> recomputed.add(view));
+        }
+    }
+
+    private void runPulses() {
+        Runnable pulse;
+        while ((pulse = pulses.poll()) != null) {
+            pulse.run();
+        }
+    }
+
+    @Test
+    void testEachDirtyViewIsRecomputedOncePerPulse() {
+        // What adding a transaction used to do: the limits three times, the summary twice
+        refreshes.invalidate("table", "balance", "limits");
+        refreshes.invalidate("summary", "limits");
+        refreshes.invalidate("limits", "summary");
+        assertEquals(1, pulses.size());
+        assertTrue(recomputed.isEmpty());
+        assertTrue(refreshes.isDirty("limits"));
+
+        runPulses();
+        assertEquals(List.of("table", "balance", "limits", "summary"), recomputed);
+        assertFalse(refreshes.isDirty("limits"));
+        RefreshScheduler.Metrics metrics = refreshes.getMetrics();
+        assertEquals(7, metrics.getRequests());
+        assertEquals(4, metrics.getRecomputes());
+        assertEquals(3, metrics.getAvoided());
+        assertEquals(1, metrics.getFlushes());
+    }
+
+    @Test
+    void testMarksWhileFlushingWaitForTheNextPulse() {
+        refreshes.register("chain", () -> {
+            recomputed.add("chain");
+            refreshes.invalidate("balance");
+        });
+        refreshes.invalidate("chain");
+        pulses.poll().run();
+        assertEquals(List.of("chain"), recomputed);
+        assertTrue(refreshes.isDirty("balance"));
+        assertEquals(1, pulses.size());
+        runPulses();
+        assertEquals(List.of("chain", "balance"), recomputed);
+        assertEquals(2, refreshes.getMetrics().getFlushes());
+    }
+
+    @Test
+    void testUnknownViewIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> refreshes.invalidate("chart"));
+        assertFalse(refreshes.isDirty("chart"));
+        assertTrue(pulses.isEmpty());
+    }
+}
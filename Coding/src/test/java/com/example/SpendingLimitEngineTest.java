@@ -0,0 +1,314 @@
+// Performance update: Tests for the spending limit threshold events
+package com.example;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpendingLimitEngineTest {
+    // A clock the test moves between months
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(LocalDate date) {
+            set(date);
+        }
+
+        void set(LocalDate date) {
+            now = date.atStartOfDay().toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() { return ZoneOffset.UTC; }
+
+        @Override
+        public Clock withZone(ZoneId zone) { return this; }
+
+        @Override
+        public Instant instant() { return now; }
+    }
+
+    private MutableClock clock;
+    private FinanceTracker tracker;
+    private Category food;
+    // Tasks handed to the listener executor, run when the test chooses
+    private List<Runnable> queued;
+    private List<List<SpendingLimitEvent>> deliveries;
+    private SpendingLimitListener listener;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(LocalDate.of(2024, 5, 10));
+        tracker = new FinanceTracker();
+        tracker.setClock(clock);
+        food = new Category("Food", CategoryType.EXPENSE);
+        tracker.addCategory(food);
+        tracker.setSpendingLimit(food, 100);
+        queued = new ArrayList<>();
+        deliveries = new ArrayList<>();
+        listener = deliveries::add;
+        tracker.addSpendingLimitListener(listener, queued::add);
+    }
+
+    private Transaction expense(String description, double amount, LocalDate date) {
+        return new Transaction(description, amount, date, TransactionType.EXPENSE, food);
+    }
+
+    private Transaction expense(String description, double amount) {
+        return expense(description, amount, LocalDate.of(2024, 5, 12));
+    }
+
+    private void deliver() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private List<SpendingLimitEvent> events() {
+        deliver();
+        List<SpendingLimitEvent> events = new ArrayList<>();
+        deliveries.forEach(events::addAll);
+        deliveries.clear();
+        return events;
+    }
+
+    @Test
+    void testThresholdsReportedOnTheCrossingTransactionOnly() {
+        tracker.addTransaction(expense("Bread", 50));
+        assertTrue(events().isEmpty());
+
+        Transaction crossing = expense("Dinner", 30);
+        tracker.addTransaction(crossing);
+        List<SpendingLimitEvent> events = events();
+        assertEquals(1, events.size());
+        assertEquals(SpendingLimitEvent.Threshold.WARNING, events.get(0).getThreshold());
+        assertSame(crossing, events.get(0).getTransaction());
+        assertEquals(8000, events.get(0).getSpentCents());
+        assertEquals(YearMonth.of(2024, 5), events.get(0).getMonth());
+
+        tracker.addTransaction(expense("Milk", 5));
+        assertTrue(events().isEmpty());
+        tracker.addTransaction(expense("Party", 20));
+        events = events();
+        assertEquals(SpendingLimitEvent.Threshold.EXCEEDED, events.get(0).getThreshold());
+        assertEquals("LIMIT EXCEEDED: Food ($105.00/$100.00)", events.get(0).toString());
+    }
+
+    @Test
+    void testOutOfMonthAndEditsDoNotReport() {
+        tracker.addTransaction(expense("Last month", 500, LocalDate.of(2024, 4, 30)));
+        assertTrue(events().isEmpty());
+
+        Transaction dinner = expense("Dinner", 85);
+        tracker.addTransaction(dinner);
+        assertEquals(1, events().size());
+        // Rewriting the same transaction keeps the spend at the reported level
+        tracker.updateTransaction(dinner, "Dinner out", 86, dinner.getDate(), TransactionType.EXPENSE, food);
+        assertTrue(events().isEmpty());
+
+        // Once the spend falls below a threshold, crossing it again is reported
+        tracker.removeTransaction(dinner);
+        tracker.addTransaction(expense("Groceries", 90));
+        assertEquals(1, events().size());
+    }
+
+    @Test
+    void testBulkAddIsDeliveredOnceWithTheHighestThreshold() {
+        Category travel = new Category("Travel", CategoryType.EXPENSE);
+        tracker.addCategory(travel);
+        tracker.setSpendingLimit(travel, 50);
+        for (int i = 0; i < 100; i++) {
+            tracker.addTransaction(expense("Row " + i, 2));
+            tracker.addTransaction(new Transaction("Trip " + i, 1, LocalDate.of(2024, 5, 3),
+                TransactionType.EXPENSE, travel));
+        }
+        assertEquals(1, queued.size());
+        deliver();
+        assertEquals(1, deliveries.size());
+        List<SpendingLimitEvent> events = events();
+        assertEquals(2, events.size());
+        for (SpendingLimitEvent event : events) {
+            assertEquals(SpendingLimitEvent.Threshold.EXCEEDED, event.getThreshold());
+        }
+        assertEquals(100, events.get(0).getSpent());
+        assertEquals(food, events.get(0).getCategory());
+        assertEquals(travel, events.get(1).getCategory());
+    }
+
+    @Test
+    void testMonthRolloverStartsFromTheNewMonth() {
+        tracker.addTransaction(expense("May", 95));
+        assertEquals(1, events().size());
+        tracker.addTransaction(expense("Early June", 40, LocalDate.of(2024, 6, 1)));
+
+        clock.set(LocalDate.of(2024, 6, 2));
+        tracker.checkSpendingLimits();
+        assertEquals(40.0, tracker.getSpendingLimit(food).getCurrentSpent());
+        tracker.addTransaction(expense("May again", 30));
+        assertTrue(events().isEmpty());
+        tracker.addTransaction(expense("June", 45, LocalDate.of(2024, 6, 3)));
+        List<SpendingLimitEvent> events = events();
+        assertEquals(1, events.size());
+        assertEquals(YearMonth.of(2024, 6), events.get(0).getMonth());
+        assertEquals(SpendingLimitEvent.Threshold.WARNING, events.get(0).getThreshold());
+    }
+
+    @Test
+    void testFirstChangesAfterARolloverCountOnce() {
+        tracker.addTransaction(expense("May", 95));
+        tracker.addTransaction(expense("Early June", 10, LocalDate.of(2024, 6, 1)));
+        events();
+
+        // No checkSpendingLimits in between: the first add recomputes June, then counts itself once
+        clock.set(LocalDate.of(2024, 6, 2));
+        tracker.addTransaction(expense("June", 45, LocalDate.of(2024, 6, 3)));
+        assertTrue(events().isEmpty());
+        tracker.addTransaction(expense("More June", 30, LocalDate.of(2024, 6, 4)));
+        List<SpendingLimitEvent> events = events();
+        assertEquals(SpendingLimitEvent.Threshold.WARNING, events.get(0).getThreshold());
+        assertEquals(8500, events.get(0).getSpentCents());
+
+        clock.set(LocalDate.of(2024, 7, 1));
+        Transaction july = expense("July", 20, LocalDate.of(2024, 7, 1));
+        tracker.addTransaction(july);
+        clock.set(LocalDate.of(2024, 8, 1));
+        tracker.addTransaction(expense("August", 5, LocalDate.of(2024, 8, 1)));
+        clock.set(LocalDate.of(2024, 7, 2));
+        // The first remove after the rollover back to July takes the row out once
+        tracker.removeTransaction(july);
+        tracker.checkSpendingLimits();
+        assertEquals(0, tracker.getSpendingLimit(food).getCurrentSpentCents());
+    }
+
+    @Test
+    void testFirstChangesAfterLoadFromFileCountOnce(@TempDir Path dir) {
+        String file = dir.resolve("finance_data.json").toString();
+        tracker.addTransaction(expense("Bread", 10));
+        tracker.saveToFile(file);
+
+        FinanceTracker reloaded = new FinanceTracker();
+        reloaded.setClock(clock);
+        List<List<SpendingLimitEvent>> reloadedDeliveries = new ArrayList<>();
+        reloaded.addSpendingLimitListener(reloadedDeliveries::add, Runnable::run);
+        reloaded.loadFromFile(file);
+        Category loadedFood = reloaded.getCategories().get(0);
+        reloaded.addTransaction(new Transaction("Cheese", 40, LocalDate.of(2024, 5, 20), TransactionType.EXPENSE, loadedFood));
+        assertEquals(5000, reloaded.getSpendingLimit(loadedFood).getCurrentSpentCents());
+        assertTrue(reloadedDeliveries.isEmpty());
+
+        reloaded.loadFromFile(file);
+        loadedFood = reloaded.getCategories().get(0);
+        Transaction bread = reloaded.getTransactions().get(0);
+        reloaded.removeTransaction(bread);
+        assertEquals(0, reloaded.getSpendingLimit(loadedFood).getCurrentSpentCents());
+
+        reloaded.loadFromFile(file);
+        loadedFood = reloaded.getCategories().get(0);
+        bread = reloaded.getTransactions().get(0);
+        reloaded.updateTransaction(bread, "Bread", 30, bread.getDate(), TransactionType.EXPENSE, loadedFood);
+        assertEquals(3000, reloaded.getSpendingLimit(loadedFood).getCurrentSpentCents());
+    }
+
+    @Test
+    void testCurrentSpentIsMonthToDateWithoutACheck() {
+        tracker.addTransaction(expense("Groceries", 30));
+        tracker.addTransaction(expense("April", 50, LocalDate.of(2024, 4, 20)));
+        assertEquals(3000, tracker.getSpendingLimit(food).getCurrentSpentCents());
+        tracker.addTransaction(expense("Market", 75));
+        assertEquals(10500, tracker.getSpendingLimit(food).getCurrentSpentCents());
+
+        // Checking reports through the events only; nothing is printed
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        java.io.PrintStream original = System.out;
+        System.setOut(new java.io.PrintStream(out));
+        try {
+            tracker.checkSpendingLimits();
+        } finally {
+            System.setOut(original);
+        }
+        assertEquals("", out.toString());
+        assertEquals(10500, tracker.getSpendingLimit(food).getCurrentSpentCents());
+        assertEquals(SpendingLimitEvent.Threshold.EXCEEDED, events().get(0).getThreshold());
+    }
+
+    @Test
+    void testRenamingOntoALimitedCategoryMergesTheSpend() {
+        Category travel = new Category("Travel", CategoryType.EXPENSE);
+        Category sameAsTravel = new Category("Travel", CategoryType.EXPENSE);
+        tracker.addCategory(travel);
+        tracker.addCategory(sameAsTravel);
+        tracker.setSpendingLimit(travel, 50);
+        tracker.addTransaction(expense("Groceries", 30));
+        tracker.addTransaction(new Transaction("Train", 20, LocalDate.of(2024, 5, 12), TransactionType.EXPENSE, travel));
+        tracker.addTransaction(new Transaction("Bus", 15, LocalDate.of(2024, 5, 12), TransactionType.EXPENSE, sameAsTravel));
+        assertEquals(3500, tracker.getSpendingLimit(travel).getCurrentSpentCents());
+        events();
+
+        // Food keeps its limit of 100 and now counts the train; the bus stays with Travel, which has no limit left
+        tracker.renameCategory(travel, "Food");
+        assertEquals(1, tracker.getSpendingLimits().size());
+        SpendingLimit kept = tracker.getSpendingLimit(travel);
+        assertSame(tracker.getSpendingLimit(food), kept);
+        assertEquals(10000, kept.getMonthlyLimitCents());
+        assertEquals(5000, kept.getCurrentSpentCents());
+        assertNull(tracker.getSpendingLimit(sameAsTravel));
+        assertTrue(events().isEmpty());
+
+        tracker.addTransaction(new Transaction("Taxi", 30, LocalDate.of(2024, 5, 13), TransactionType.EXPENSE, travel));
+        assertEquals(8000, kept.getCurrentSpentCents());
+        assertEquals(SpendingLimitEvent.Threshold.WARNING, events().get(0).getThreshold());
+    }
+
+    @Test
+    void testChangingALimitReportsNothing() {
+        tracker.addTransaction(expense("Dinner", 90));
+        events();
+        tracker.setSpendingLimit(food, 50);
+        assertTrue(events().isEmpty());
+        tracker.addTransaction(expense("Snack", 1));
+        assertTrue(events().isEmpty());
+
+        tracker.setSpendingLimit(food, 200);
+        tracker.addTransaction(expense("Feast", 80));
+        assertEquals(1, events().size());
+
+        tracker.removeSpendingLimitListener(listener);
+        tracker.addTransaction(expense("Cake", 30));
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    void testReplayReportsNothingAndLoadedLimitsStartFromTheFile(@TempDir Path dir) {
+        String file = dir.resolve("finance_data.json").toString();
+        tracker.openJournal(file);
+        tracker.addCategory(food);
+        tracker.setSpendingLimit(food, 100);
+        tracker.addTransaction(expense("Dinner", 70));
+        tracker.addTransaction(expense("Lunch", 15));
+        tracker.closeJournal(true);
+        events();
+
+        FinanceTracker reopened = new FinanceTracker();
+        reopened.setClock(clock);
+        List<List<SpendingLimitEvent>> reopenedDeliveries = new ArrayList<>();
+        reopened.addSpendingLimitListener(reopenedDeliveries::add, Runnable::run);
+        reopened.openJournal(file);
+        assertTrue(reopenedDeliveries.isEmpty());
+        Category loadedFood = reopened.getCategories().get(0);
+        // Already past 80% when loaded, so only the next threshold is reported
+        reopened.addTransaction(new Transaction("Cake", 10, LocalDate.of(2024, 5, 20), TransactionType.EXPENSE, loadedFood));
+        assertTrue(reopenedDeliveries.isEmpty());
+        reopened.addTransaction(new Transaction("Wine", 10, LocalDate.of(2024, 5, 20), TransactionType.EXPENSE, loadedFood));
+        assertEquals(SpendingLimitEvent.Threshold.EXCEEDED, reopenedDeliveries.get(0).get(0).getThreshold());
+        reopened.closeJournal(true);
+    }
+}
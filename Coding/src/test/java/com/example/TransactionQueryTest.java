@@ -0,0 +1,235 @@
+// Performance update: Tests for composable transaction queries and their planning
+package com.example;
+
+import org.junit.jupiter.api.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionQueryTest {
+    private static final String[] WORDS = {"Rent", "Groceries", "Coffee", "Bus", "Cinema", "Pharmacy", "Books", "Lunch"};
+    private static final LocalDate BASE = LocalDate.of(2023, 1, 1);
+
+    private final Category food = new Category("Food", CategoryType.EXPENSE);
+    private final Category travel = new Category("Travel", CategoryType.EXPENSE);
+    private final Category pay = new Category("Pay", CategoryType.INCOME);
+
+    private FinanceTracker ledger(FinanceTracker.StorageMode mode, int size) {
+        FinanceTracker tracker = new FinanceTracker(mode);
+        tracker.addCategory(food);
+        tracker.addCategory(travel);
+        tracker.addCategory(pay);
+        Random random = new Random(9);
+        List<Transaction> added = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            boolean income = i % 5 == 0;
+            Category category = income ? pay : i % 7 == 0 ? null : i % 3 == 0 ? travel : food;
+            LocalDate date = i % 97 == 0 ? null : BASE.plusDays(random.nextInt(700));
+            Transaction row = new Transaction(WORDS[i % WORDS.length] + " " + WORDS[random.nextInt(WORDS.length)] + " #" + i,
+                (random.nextInt(20_000) + 1) / 100.0, date, income ? TransactionType.INCOME : TransactionType.EXPENSE, category);
+            tracker.addTransaction(row);
+            added.add(row);
+        }
+        // Gaps in the row ids, or a compaction, and an edit moving a row
+        for (int i = 0; i < size / 2; i += 3) {
+            tracker.removeTransaction(added.get(i));
+        }
+        tracker.updateTransaction(tracker.getTransactions().get(1), "Coffee beans", 7.5, BASE, TransactionType.EXPENSE, travel);
+        return tracker;
+    }
+
+    @Test
+    void testRandomQueriesMatchAScan() {
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            FinanceTracker tracker = ledger(mode, 3000);
+            Random random = new Random(4);
+            for (int q = 0; q < 400; q++) {
+                TransactionQuery query = tracker.query();
+                List<Predicate<Transaction>> filters = new ArrayList<>();
+                StringBuilder label = new StringBuilder(mode.toString());
+                if (random.nextInt(3) == 0) {
+                    LocalDate start = random.nextInt(4) == 0 ? null : BASE.plusDays(random.nextInt(700));
+                    LocalDate end = random.nextInt(4) == 0 ? null : BASE.plusDays(random.nextInt(700));
+                    query.between(start, end);
+                    filters.add(t -> (start == null && end == null) || t.getDate() != null && (start == null || !t.getDate().isBefore(start))
+                        && (end == null || !t.getDate().isAfter(end)));
+                    label.append(" dates ").append(start).append("..").append(end);
+                }
+                if (random.nextInt(3) == 0) {
+                    List<Category> wanted = random.nextBoolean() ? java.util.Arrays.asList(travel) : java.util.Arrays.asList(food, null);
+                    query.inCategories(wanted.toArray(new Category[0]));
+                    filters.add(t -> wanted.contains(t.getCategory()));
+                    label.append(" categories ").append(wanted);
+                }
+                if (random.nextInt(3) == 0) {
+                    TransactionType type = TransactionType.values()[random.nextInt(2)];
+                    query.ofType(type);
+                    filters.add(t -> t.getType() == type);
+                    label.append(" type ").append(type);
+                }
+                if (random.nextInt(3) == 0) {
+                    long min = random.nextInt(10_000);
+                    long max = min + random.nextInt(10_000);
+                    query.amountBetween(min / 100.0, random.nextBoolean() ? max / 100.0 : null);
+                    long upper = query.maxCents != null ? max : Long.MAX_VALUE;
+                    filters.add(t -> t.getAmountCents() >= min && t.getAmountCents() <= upper);
+                    label.append(" amount ").append(min).append("..").append(upper);
+                }
+                if (random.nextInt(3) == 0) {
+                    String text = random.nextBoolean() ? WORDS[random.nextInt(WORDS.length)].substring(0, 3)
+                        : WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)].substring(0, 2);
+                    query.descriptionMatches(text);
+                    filters.add(t -> matchesWords(t.getDescription(), text));
+                    label.append(" description ").append(text);
+                }
+                TransactionQuery.Order order = TransactionQuery.Order.values()[random.nextInt(5)];
+                query.orderBy(order);
+                int limit = random.nextBoolean() ? Integer.MAX_VALUE : random.nextInt(40);
+                if (limit != Integer.MAX_VALUE) {
+                    query.limit(limit);
+                }
+                label.append(" order ").append(order).append(" limit ").append(limit);
+
+                List<Transaction> all = tracker.getTransactions().stream()
+                    .filter(t -> filters.stream().allMatch(f -> f.test(t))).toList();
+                List<String> expected = descriptions(sorted(all, order)).stream().limit(limit).toList();
+                assertEquals(expected, descriptions(query.list()), label.toString());
+                assertEquals(expected, descriptions(query.stream().toList()), label.toString());
+                assertEquals(Math.min(all.size(), limit), query.count(), label.toString());
+            }
+        }
+    }
+
+    @Test
+    void testPlannerPicksTheMostSelectiveIndex() {
+        FinanceTracker tracker = ledger(FinanceTracker.StorageMode.LIST, 3000);
+        assertEquals(TransactionQueryPlan.Source.SCAN, tracker.plannedSource(tracker.query().ofType(TransactionType.INCOME)));
+        assertEquals(TransactionQueryPlan.Source.DATES,
+            tracker.plannedSource(tracker.query().between(BASE, BASE.plusDays(10)).inCategories(food)));
+        assertEquals(TransactionQueryPlan.Source.CATEGORIES,
+            tracker.plannedSource(tracker.query().between(BASE, null).inCategories(travel)));
+        assertEquals(TransactionQueryPlan.Source.DESCRIPTION,
+            tracker.plannedSource(tracker.query().inCategories(food).descriptionMatches("#2999")));
+        // An inverted range plans as an empty date range
+        TransactionQuery empty = tracker.query().between(BASE.plusDays(5), BASE);
+        assertEquals(TransactionQueryPlan.Source.DATES, tracker.plannedSource(empty));
+        assertEquals(0, empty.count());
+    }
+
+    @Test
+    void testLazyResultsFailFastOnChange() {
+        FinanceTracker tracker = ledger(FinanceTracker.StorageMode.COLUMNAR, 500);
+        Iterator<Transaction> rows = tracker.query().orderBy(TransactionQuery.Order.DATE_DESCENDING).iterator();
+        assertTrue(rows.hasNext());
+        rows.next();
+        tracker.addTransaction(new Transaction("Late", 1.0, BASE, TransactionType.EXPENSE, food));
+        assertThrows(ConcurrentModificationException.class, rows::hasNext);
+
+        // A top-N stream stops after N rows even with many more matching
+        assertEquals(3, tracker.query().ofType(TransactionType.EXPENSE).stream().limit(3).count());
+        assertThrows(IllegalArgumentException.class, () -> tracker.query().limit(-1));
+        assertEquals(0, tracker.query().limit(0).count());
+    }
+
+    @Test
+    void testCursorWindowsMatchTheList() {
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            FinanceTracker tracker = ledger(mode, 2000);
+            for (TransactionQuery query : List.of(tracker.query(), tracker.query().ofType(TransactionType.EXPENSE)
+                    .orderBy(TransactionQuery.Order.AMOUNT_DESCENDING), tracker.query().between(BASE, BASE.plusDays(200))
+                    .inCategories(food, travel).orderBy(TransactionQuery.Order.DATE_DESCENDING))) {
+                List<String> all = descriptions(query.list());
+                TransactionCursor cursor = query.cursor();
+                assertEquals(all.size(), cursor.getTotalCount());
+                // The last window first, then from the start, then one in the middle again
+                int last = all.size() / 30 * 30;
+                assertEquals(all.subList(last, all.size()), descriptions(cursor.page(last, 30)));
+                for (int offset = 0; offset < all.size(); offset += 30) {
+                    assertEquals(all.subList(offset, Math.min(all.size(), offset + 30)), descriptions(cursor.page(offset, 30)));
+                }
+                assertEquals(all.subList(90, 120), descriptions(cursor.page(90, 30)));
+                assertTrue(cursor.page(all.size() + 10, 30).isEmpty());
+            }
+            TransactionCursor cursor = tracker.query().cursor();
+            assertTrue(cursor.isCurrent());
+            tracker.removeTransaction(tracker.getTransactions().get(0));
+            assertFalse(cursor.isCurrent());
+            assertThrows(ConcurrentModificationException.class, () -> cursor.page(0, 10));
+            assertThrows(IllegalArgumentException.class, () -> tracker.query().cursor().page(-1, 10));
+        }
+    }
+
+    @Test
+    void testDateOrdersWalkTheIndexWhateverTheSource() {
+        for (FinanceTracker.StorageMode mode : FinanceTracker.StorageMode.values()) {
+            FinanceTracker tracker = ledger(mode, 1500);
+            // Undated rows from a bulk add must be found by the walk too
+            List<Transaction> bulk = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                bulk.add(new Transaction("Bulk #" + i, i + 1, i % 2 == 0 ? null : BASE.plusDays(i),
+                    TransactionType.EXPENSE, food));
+            }
+            tracker.addTransactions(bulk);
+            for (TransactionQuery.Order order : List.of(TransactionQuery.Order.DATE_ASCENDING,
+                    TransactionQuery.Order.DATE_DESCENDING)) {
+                for (TransactionQuery query : List.of(tracker.query().inCategories(food).orderBy(order),
+                        tracker.query().descriptionMatches("Bulk").orderBy(order),
+                        tracker.query().inCategories(travel).ofType(TransactionType.EXPENSE).orderBy(order).limit(25))) {
+                    List<Transaction> all = query.copy().orderBy(TransactionQuery.Order.INSERTION)
+                        .limit(Integer.MAX_VALUE).list();
+                    List<String> expected = descriptions(sorted(all, order)).stream().limit(query.limit).toList();
+                    assertEquals(expected, descriptions(query.list()), mode + " " + order);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testAmountSortIsReusedOnlyWhileNothingChanges() {
+        FinanceTracker tracker = ledger(FinanceTracker.StorageMode.COLUMNAR, 1000);
+        TransactionQuery query = tracker.query().inCategories(food).orderBy(TransactionQuery.Order.AMOUNT_DESCENDING);
+        List<String> first = descriptions(query.list());
+        assertEquals(first, descriptions(query.copy().list()));
+        assertEquals(first.subList(0, 10), descriptions(query.cursor().page(0, 10)));
+        // A different filter or limit is not answered from the kept sort
+        assertEquals(first.subList(0, 5), descriptions(query.copy().limit(5).list()));
+        assertNotEquals(first, descriptions(query.copy().inCategories(travel).list()));
+        tracker.addTransaction(new Transaction("Biggest", 999_999, BASE, TransactionType.EXPENSE, food));
+        assertEquals("Biggest", query.list().get(0).getDescription());
+        assertEquals(first.size() + 1, query.cursor().getTotalCount());
+    }
+
+    private static List<Transaction> sorted(List<Transaction> rows, TransactionQuery.Order order) {
+        Comparator<Transaction> byDate = Comparator.comparingLong(t -> t.getDate() == null ? Long.MIN_VALUE : t.getDate().toEpochDay());
+        Comparator<Transaction> byAmount = Comparator.comparingLong(Transaction::getAmountCents);
+        List<Transaction> sorted = new ArrayList<>(rows);
+        switch (order) {
+            case DATE_ASCENDING, DATE_DESCENDING -> sorted.sort(byDate);
+            case AMOUNT_ASCENDING, AMOUNT_DESCENDING -> sorted.sort(byAmount);
+            default -> { }
+        }
+        // Descending orders are the exact reverse of the ascending ones, ties included
+        if (order == TransactionQuery.Order.DATE_DESCENDING || order == TransactionQuery.Order.AMOUNT_DESCENDING) {
+            Collections.reverse(sorted);
+        }
+        return sorted;
+    }
+
+    private static boolean matchesWords(String description, String query) {
+        Set<String> tokens = DescriptionIndex.tokens(description);
+        return DescriptionIndex.tokens(query).stream().allMatch(term -> tokens.stream()
+            .anyMatch(token -> term.length() <= 2 ? token.startsWith(term) : token.contains(term)));
+    }
+
+    private static List<String> descriptions(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getDescription).toList();
+    }
+}